@@ -0,0 +1,130 @@
+package viettel.dac.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.RestTemplate;
+import viettel.dac.backend.common.config.ApiClientProperties;
+import viettel.dac.backend.execution.http.ApiHttpClient;
+import viettel.dac.backend.execution.http.ApiRequestContext;
+import viettel.dac.backend.execution.http.ResponseBodyStore;
+import viettel.dac.backend.template.enums.HttpMethod;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the blocking RestTemplate execution path against the non-blocking {@link ApiHttpClient}
+ * for a burst of concurrent calls to a local stub upstream with artificial latency.
+ * The blocking path runs on a 20-thread pool, matching the default execution executor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class ApiHttpClientBenchmark {
+
+    private static final int CONCURRENT_REQUESTS = 500;
+    private static final String RESPONSE_BODY = "{\"status\":\"ok\",\"items\":[1,2,3]}";
+
+    @Param({"50"})
+    private int upstreamLatencyMs;
+
+    private HttpServer upstream;
+    private ExecutorService upstreamExecutor;
+    private URI endpoint;
+
+    private RestTemplate restTemplate;
+    private ExecutorService blockingPool;
+
+    private CloseableHttpAsyncClient httpAsyncClient;
+    private ApiHttpClient apiHttpClient;
+
+    @Setup
+    public void setUp() throws Exception {
+        // The JDK stub server closes keep-alive connections beyond 200 idle ones by default
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(CONCURRENT_REQUESTS * 2));
+
+        upstreamExecutor = Executors.newCachedThreadPool();
+        upstream = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), CONCURRENT_REQUESTS);
+        upstream.createContext("/resource", exchange -> {
+            try {
+                Thread.sleep(upstreamLatencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = RESPONSE_BODY.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        upstream.setExecutor(upstreamExecutor);
+        upstream.start();
+        endpoint = URI.create("http://127.0.0.1:" + upstream.getAddress().getPort() + "/resource");
+
+        restTemplate = new RestTemplate();
+        blockingPool = Executors.newFixedThreadPool(20);
+
+        httpAsyncClient = HttpAsyncClients.custom()
+                .setConnectionManager(PoolingAsyncClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(CONCURRENT_REQUESTS)
+                        .setMaxConnPerRoute(CONCURRENT_REQUESTS)
+                        .build())
+                .build();
+        httpAsyncClient.start();
+        ApiClientProperties properties = new ApiClientProperties();
+        ResponseBodyStore responseBodyStore = new ResponseBodyStore(properties);
+        responseBodyStore.init();
+        apiHttpClient = new ApiHttpClient(httpAsyncClient, new ObjectMapper(), properties, responseBodyStore);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        httpAsyncClient.close();
+        blockingPool.shutdownNow();
+        upstream.stop(0);
+        upstreamExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENT_REQUESTS)
+    public void blockingRestTemplate() {
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[CONCURRENT_REQUESTS];
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            calls[i] = CompletableFuture.supplyAsync(() -> restTemplate.exchange(
+                    endpoint, org.springframework.http.HttpMethod.GET, new HttpEntity<>(new HttpHeaders()), String.class),
+                    blockingPool);
+        }
+        CompletableFuture.allOf(calls).join();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENT_REQUESTS)
+    public void nonBlockingApiHttpClient() {
+        CompletableFuture<?>[] calls = new CompletableFuture<?>[CONCURRENT_REQUESTS];
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            ApiRequestContext context = new ApiRequestContext();
+            context.setEndpoint(endpoint.toString());
+            context.setHttpMethod(HttpMethod.GET);
+            context.setHeaders(Map.of());
+            calls[i] = apiHttpClient.execute(context);
+        }
+        CompletableFuture.allOf(calls).join();
+    }
+}
@@ -0,0 +1,209 @@
+package viettel.dac.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import viettel.dac.backend.execution.entity.ApiExecution;
+import viettel.dac.backend.execution.enums.ExecutionStatus;
+import viettel.dac.backend.template.entity.ApiTemplate;
+import viettel.dac.backend.template.entity.RetryPolicy;
+import viettel.dac.backend.template.enums.HttpMethod;
+import viettel.dac.backend.template.enums.TemplateType;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Fixed fixtures shared by the execution hot path benchmarks: a partner order API template with
+ * placeholders in every field, its parameters, and a typical JSON response of about 16 KB.
+ * Everything is deterministic so results are comparable between runs.
+ */
+public final class BenchmarkFixtures {
+
+    public static final UUID TEMPLATE_ID = UUID.fromString("3f1c9a7e-5b2d-4c8e-9f10-6a7b8c9d0e1f");
+    public static final UUID USER_ID = UUID.fromString("7d2e4b6a-1c3f-4e5d-8a9b-0c1d2e3f4a5b");
+    public static final UUID EXECUTION_ID = UUID.fromString("c4a8e2f6-9b1d-4f3a-8c5e-7d9f1b3a5c7e");
+    public static final Instant NOW = Instant.parse("2026-01-15T09:30:00Z");
+
+    private BenchmarkFixtures() {
+    }
+
+    public static ApiTemplate apiTemplate() {
+        Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Authorization", "Bearer ${apiToken}");
+        headers.put("X-Request-Id", "${requestId}");
+        headers.put("X-Tenant", "${tenant}");
+        headers.put("Accept", "application/json");
+        headers.put("Accept-Language", "en-US");
+
+        Map<String, Object> queryParams = new LinkedHashMap<>();
+        queryParams.put("region", "${region}");
+        queryParams.put("expand", "items,shipping");
+        queryParams.put("limit", 50);
+
+        ApiTemplate template = ApiTemplate.builder()
+                .endpoint("https://api.partner.example.com/v2/customers/${customerId}/orders")
+                .httpMethod(HttpMethod.POST)
+                .headers(headers)
+                .queryParams(queryParams)
+                .requestBody(requestBody())
+                .contentType("application/json")
+                .timeout(10000)
+                .followRedirects(true)
+                .retryPolicy(new RetryPolicy())
+                .build();
+        template.setId(TEMPLATE_ID);
+        template.setName("Create partner order");
+        template.setVersion("1.4.0");
+        template.setTemplateType(TemplateType.API);
+        template.setActive(true);
+        template.setLastModifiedAt(NOW);
+        return template;
+    }
+
+    /**
+     * An order of 12 lines, about 2 KB of JSON, with placeholders at several depths.
+     */
+    public static Map<String, Object> requestBody() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("requestId", "${requestId}");
+        body.put("customer", Map.of("id", "${customerId}", "tier", "gold", "region", "${region}"));
+        List<Object> lines = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("sku", "SKU-" + (100200 + i));
+            line.put("quantity", 1 + i % 4);
+            line.put("unitPrice", 12.5 + i);
+            line.put("warehouse", i % 3 == 0 ? "${warehouse}" : "HAN-01");
+            lines.add(line);
+        }
+        body.put("lines", lines);
+        body.put("shipping", Map.of("method", "express", "address", Map.of(
+                "line1", "${addressLine}", "city", "Hanoi", "country", "VN")));
+        body.put("note", "Created by ${requestedBy}");
+        return body;
+    }
+
+    public static Map<String, Object> parameters() {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("apiToken", "eyJhbGciOiJIUzI1NiJ9.c2VydmljZS1hY2NvdW50.4pcPyMD09olPSyXnrXCjTwXyr4BsezdI1AVTmud2fU4");
+        parameters.put("requestId", "9f0c6a52-3a4e-4f5e-9d4b-2c1e0b7a6d13");
+        parameters.put("tenant", "viettel-dac");
+        parameters.put("customerId", 48213);
+        parameters.put("region", "ap-southeast-1");
+        parameters.put("warehouse", "HCM-02");
+        parameters.put("addressLine", "285 Cach Mang Thang Tam");
+        parameters.put("requestedBy", "scheduler");
+        return parameters;
+    }
+
+    /**
+     * Response headers in arrival order, including repeated names.
+     */
+    public static List<String[]> responseHeaders() {
+        return List.of(
+                new String[]{"Date", "Thu, 15 Jan 2026 09:30:00 GMT"},
+                new String[]{"Content-Type", "application/json; charset=utf-8"},
+                new String[]{"Cache-Control", "no-cache, no-store, must-revalidate"},
+                new String[]{"Vary", "Accept-Encoding"},
+                new String[]{"Vary", "Origin"},
+                new String[]{"X-Request-Id", "9f0c6a52-3a4e-4f5e-9d4b-2c1e0b7a6d13"},
+                new String[]{"X-RateLimit-Limit", "1000"},
+                new String[]{"X-RateLimit-Remaining", "987"},
+                new String[]{"X-RateLimit-Reset", "1768469460"},
+                new String[]{"Set-Cookie", "session=5f2a9c; Path=/; HttpOnly; Secure"},
+                new String[]{"Set-Cookie", "region=ap-southeast-1; Path=/"},
+                new String[]{"Strict-Transport-Security", "max-age=31536000; includeSubDomains"},
+                new String[]{"ETag", "\"a7c3e91f\""},
+                new String[]{"Server", "envoy"},
+                new String[]{"X-Envoy-Upstream-Service-Time", "42"});
+    }
+
+    /**
+     * A page of 40 orders, about 16 KB of JSON.
+     */
+    public static String responseBody(ObjectMapper objectMapper) {
+        List<Object> orders = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Map<String, Object> order = new LinkedHashMap<>();
+            order.put("id", "ORD-" + (500000 + i));
+            order.put("status", i % 5 == 0 ? "SHIPPED" : "CONFIRMED");
+            order.put("createdAt", "2026-01-1" + (i % 10) + "T08:" + (10 + i) + ":00Z");
+            order.put("total", 125.75 + i * 3.5);
+            order.put("currency", "USD");
+            order.put("items", List.of(
+                    Map.of("sku", "SKU-" + (100200 + i), "quantity", 2, "unitPrice", 12.5),
+                    Map.of("sku", "SKU-" + (100300 + i), "quantity", 1, "unitPrice", 48.0)));
+            order.put("shipping", Map.of("method", "express", "trackingNumber", "VN" + (880000000L + i)));
+            orders.add(order);
+        }
+        Map<String, Object> page = new LinkedHashMap<>();
+        page.put("data", orders);
+        page.put("page", Map.of("number", 1, "size", 40, "totalElements", 1287, "totalPages", 33));
+        try {
+            return objectMapper.writeValueAsString(page);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static ApiExecution apiExecution(ObjectMapper objectMapper) {
+        ApiExecution execution = new ApiExecution();
+        execution.setId(EXECUTION_ID);
+        execution.setTemplateId(TEMPLATE_ID);
+        execution.setUserId(USER_ID);
+        execution.setStatus(ExecutionStatus.COMPLETED);
+        execution.setStartTime(NOW);
+        execution.setEndTime(NOW.plusMillis(184));
+        execution.setExecutionType("API");
+        execution.setStatusCode(200);
+        execution.setSuccessful(true);
+        execution.setResponseTimeMs(184L);
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        for (String[] header : responseHeaders()) {
+            headers.merge(header[0], header[1], (existing, value) -> existing + ", " + value);
+        }
+        execution.setResponseHeaders(headers);
+
+        String body = responseBody(objectMapper);
+        try {
+            execution.setResponseBody(objectMapper.readValue(body, Object.class));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        execution.setResponseBodySize((long) body.length());
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("responseTimeMs", 184L);
+        metrics.put("statusCode", 200);
+        metrics.put("successful", true);
+        metrics.put("attempts", 2);
+        metrics.put("attemptLatenciesMs", List.of(3012L, 184L));
+        execution.setMetrics(metrics);
+        execution.setResult(Map.of("statusCode", 200, "successful", true, "responseTimeMs", 184L));
+        return execution;
+    }
+
+    /**
+     * Set a field the application would inject, looking through superclasses.
+     */
+    public static void inject(Object target, String fieldName, Object value) {
+        for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+            try {
+                Field field = type.getDeclaredField(fieldName);
+                field.setAccessible(true);
+                field.set(target, value);
+                return;
+            } catch (NoSuchFieldException e) {
+                // Declared higher up
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        throw new IllegalArgumentException("No field " + fieldName + " on " + target.getClass().getName());
+    }
+}
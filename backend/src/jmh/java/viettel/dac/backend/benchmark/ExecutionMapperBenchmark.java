@@ -0,0 +1,73 @@
+package viettel.dac.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.core.RedisTemplate;
+import viettel.dac.backend.execution.dto.ApiExecutionResponseDto;
+import viettel.dac.backend.execution.dto.ExecutionResponseDto;
+import viettel.dac.backend.execution.engine.ApiRenderPlanCache;
+import viettel.dac.backend.execution.engine.TemplateSnapshotCache;
+import viettel.dac.backend.execution.entity.ApiExecution;
+import viettel.dac.backend.execution.mapper.ApiExecutionMapperImpl;
+import viettel.dac.backend.execution.mapper.ExecutionMapperImpl;
+import viettel.dac.backend.template.entity.ApiTemplate;
+import viettel.dac.backend.template.repository.TemplateRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The generated MapStruct mappers on a completed API execution with a 16 KB response body.
+ * The template name comes from the template snapshot cache, as it does for hot templates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecutionMapperBenchmark {
+
+    private ExecutionMapperImpl executionMapper;
+    private ApiExecutionMapperImpl apiExecutionMapper;
+    private ApiExecution execution;
+
+    @Setup
+    public void setUp() {
+        ApiTemplate template = BenchmarkFixtures.apiTemplate();
+        TemplateRepository templateRepository = (TemplateRepository) Proxy.newProxyInstance(
+                TemplateRepository.class.getClassLoader(),
+                new Class<?>[]{TemplateRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findById")) {
+                        return Optional.of(template);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+
+        // Redis is not connected: the first lookup loads from the repository and the snapshot stays local
+        ObjectMapper objectMapper = new ObjectMapper();
+        TemplateSnapshotCache templateSnapshotCache = new TemplateSnapshotCache(templateRepository, new RedisTemplate<>(),
+                null, new ApiRenderPlanCache(objectMapper), objectMapper, new SimpleMeterRegistry(), true, 16, 3600, 300);
+        templateSnapshotCache.find(template.getId());
+
+        executionMapper = new ExecutionMapperImpl();
+        BenchmarkFixtures.inject(executionMapper, "templateSnapshotCache", templateSnapshotCache);
+        apiExecutionMapper = new ApiExecutionMapperImpl();
+        BenchmarkFixtures.inject(apiExecutionMapper, "executionMapper", executionMapper);
+
+        execution = BenchmarkFixtures.apiExecution(objectMapper);
+    }
+
+    @Benchmark
+    public ExecutionResponseDto executionMapper() {
+        return executionMapper.toDto(execution);
+    }
+
+    @Benchmark
+    public ApiExecutionResponseDto apiExecutionMapper() {
+        return apiExecutionMapper.toDto(execution);
+    }
+}
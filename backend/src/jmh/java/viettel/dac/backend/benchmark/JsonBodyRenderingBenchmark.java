@@ -0,0 +1,103 @@
+package viettel.dac.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import viettel.dac.backend.execution.http.StreamingJsonBody;
+import viettel.dac.backend.execution.util.CompiledJson;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders a templated JSON request body to the bytes sent upstream:
+ * the legacy util (JsonNode tree with deep copies, then serialization), the compiled template
+ * rendered to maps and then serialized, and the compiled template streamed to a generator.
+ * Every tenth item of the body carries placeholders; the rest is constant.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBodyRenderingBenchmark {
+
+    @Param({"1024", "102400", "5242880"})
+    private int bodySize;
+
+    private ObjectMapper objectMapper;
+    private LegacyParameterSubstitution legacy;
+    private Map<String, Object> body;
+    private CompiledJson compiledBody;
+    private Map<String, Object> parameters;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+        legacy = new LegacyParameterSubstitution(objectMapper);
+        body = body(bodySize, objectMapper);
+        compiledBody = CompiledJson.compile(body);
+
+        parameters = new LinkedHashMap<>();
+        parameters.put("requestId", "9f0c6a52-3a4e-4f5e-9d4b-2c1e0b7a6d13");
+        parameters.put("customerId", 48213);
+        parameters.put("region", "ap-southeast-1");
+        parameters.put("note", "Deliver between 9:00 and 17:00, call on arrival");
+    }
+
+    /**
+     * An order-like document of about {@code size} bytes of JSON.
+     */
+    static Map<String, Object> body(int size, ObjectMapper objectMapper) throws Exception {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("requestId", "${requestId}");
+        Map<String, Object> customer = new LinkedHashMap<>();
+        customer.put("id", "${customerId}");
+        customer.put("region", "${region}");
+        customer.put("tier", "gold");
+        body.put("customer", customer);
+        List<Object> items = new ArrayList<>();
+        body.put("items", items);
+
+        int i = 0;
+        while (objectMapper.writeValueAsBytes(body).length < size) {
+            // Items are added in chunks so sizing stays cheap for large bodies
+            for (int chunk = 0; chunk < Math.max(1, items.size() / 4); chunk++, i++) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("id", i);
+                item.put("sku", "SKU-" + (100000 + i));
+                item.put("name", "Replacement part " + i);
+                item.put("quantity", 1 + i % 7);
+                item.put("price", 19.99 + i % 13);
+                Map<String, Object> attributes = new LinkedHashMap<>();
+                attributes.put("color", i % 2 == 0 ? "black" : "silver");
+                attributes.put("tags", List.of("spare", "warranty", "bulk"));
+                item.put("attributes", attributes);
+                if (i % 10 == 0) {
+                    item.put("note", "${note}");
+                    item.put("shipTo", Map.of("region", "${region}", "customer", "${customerId}"));
+                }
+                items.add(item);
+            }
+        }
+        return body;
+    }
+
+    @Benchmark
+    public byte[] legacyUtil() throws Exception {
+        return objectMapper.writeValueAsBytes(legacy.substituteJson(body, parameters));
+    }
+
+    @Benchmark
+    public byte[] compiledRender() throws Exception {
+        return objectMapper.writeValueAsBytes(compiledBody.render(parameters));
+    }
+
+    @Benchmark
+    public byte[] compiledStreaming() throws Exception {
+        return new StreamingJsonBody(compiledBody, parameters).toBytes(objectMapper);
+    }
+}
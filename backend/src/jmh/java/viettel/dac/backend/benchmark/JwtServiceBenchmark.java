@@ -0,0 +1,47 @@
+package viettel.dac.backend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import viettel.dac.backend.security.service.JwtService;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token checks done by the authentication filter on every request: signature validation,
+ * and parsing the user id claim out of the same token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    // Same shape as the default tool-template.security.jwt settings
+    private static final String SECRET = "o8dYVR2KPDpSDJOqnO5Io3MjbZHUwl3nh7EjjBPkfj9QQwYdpoCVvyYhqYs4GdXH";
+    private static final int EXPIRATION_MS = 86400000;
+    private static final String ISSUER = "tool-template-system";
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        BenchmarkFixtures.inject(jwtService, "jwtSecret", SECRET);
+        BenchmarkFixtures.inject(jwtService, "jwtExpirationMs", EXPIRATION_MS);
+        BenchmarkFixtures.inject(jwtService, "jwtIssuer", ISSUER);
+        token = jwtService.generateTokenFromUsername("operator", BenchmarkFixtures.USER_ID);
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtService.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public UUID getUserIdFromJwtToken() {
+        return jwtService.getUserIdFromJwtToken(token);
+    }
+}
@@ -0,0 +1,57 @@
+package viettel.dac.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import viettel.dac.backend.execution.util.ParameterSubstitutionUtil;
+import viettel.dac.backend.template.entity.ApiTemplate;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ParameterSubstitutionUtil} on the fields of the benchmark template: the endpoint,
+ * the header map, and the request body both as a map and as a JSON string.
+ * The util compiles its input on every call, unlike the cached render plans.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterSubstitutionBenchmark {
+
+    private ParameterSubstitutionUtil substitutionUtil;
+    private ApiTemplate template;
+    private String bodyJson;
+    private Map<String, Object> parameters;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        substitutionUtil = new ParameterSubstitutionUtil(objectMapper);
+        template = BenchmarkFixtures.apiTemplate();
+        bodyJson = objectMapper.writeValueAsString(template.getRequestBody());
+        parameters = BenchmarkFixtures.parameters();
+    }
+
+    @Benchmark
+    public String substituteString() {
+        return substitutionUtil.substituteString(template.getEndpoint(), parameters);
+    }
+
+    @Benchmark
+    public Map<String, String> substituteMap() {
+        return substitutionUtil.substituteMap(template.getHeaders(), parameters);
+    }
+
+    @Benchmark
+    public Object substituteJsonMap() {
+        return substitutionUtil.substituteJson(template.getRequestBody(), parameters);
+    }
+
+    @Benchmark
+    public Object substituteJsonString() {
+        return substitutionUtil.substituteJson(bodyJson, parameters);
+    }
+}
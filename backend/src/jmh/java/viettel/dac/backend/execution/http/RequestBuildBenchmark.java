@@ -0,0 +1,61 @@
+package viettel.dac.backend.execution.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.openjdk.jmh.annotations.*;
+import viettel.dac.backend.benchmark.BenchmarkFixtures;
+import viettel.dac.backend.common.config.ApiClientProperties;
+import viettel.dac.backend.execution.engine.ApiRenderPlanCache;
+import viettel.dac.backend.template.entity.ApiTemplate;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds the outbound request of an execution the way {@code ApiExecutionStrategy} does:
+ * rendering the template through its cached plan, then building the URI, headers and
+ * entity of the HTTP request. Nothing is sent; the client is never started.
+ * Lives in the http package to reach the package-private request builder.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBuildBenchmark {
+
+    private ApiRenderPlanCache renderPlanCache;
+    private CloseableHttpAsyncClient httpAsyncClient;
+    private ApiHttpClient apiHttpClient;
+    private ApiTemplate template;
+    private Map<String, Object> parameters;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ApiClientProperties properties = new ApiClientProperties();
+        renderPlanCache = new ApiRenderPlanCache(objectMapper);
+        httpAsyncClient = HttpAsyncClients.createDefault();
+        apiHttpClient = new ApiHttpClient(httpAsyncClient, objectMapper, properties, new ResponseBodyStore(properties));
+        template = BenchmarkFixtures.apiTemplate();
+        parameters = BenchmarkFixtures.parameters();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        httpAsyncClient.close();
+    }
+
+    @Benchmark
+    public ApiRequestContext renderRequest() {
+        return renderPlanCache.render(template, parameters);
+    }
+
+    @Benchmark
+    public AsyncRequestProducer buildRequest() throws Exception {
+        return apiHttpClient.buildRequest(renderPlanCache.render(template, parameters));
+    }
+}
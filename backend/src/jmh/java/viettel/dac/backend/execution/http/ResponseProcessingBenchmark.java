@@ -0,0 +1,72 @@
+package viettel.dac.backend.execution.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.openjdk.jmh.annotations.*;
+import viettel.dac.backend.benchmark.BenchmarkFixtures;
+import viettel.dac.backend.common.config.ApiClientProperties;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes a 16 KB JSON response as the client receives it: joining the response headers,
+ * collecting the body from 4 KB network chunks, and parsing the body as the execution stores it.
+ * Lives in the http package to drive the package-private response consumer.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseProcessingBenchmark {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    private ObjectMapper objectMapper;
+    private ResponseBodyStore bodyStore;
+    private ApiClientProperties properties;
+    private BasicHttpResponse response;
+    private List<ByteBuffer> chunks;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        properties = new ApiClientProperties();
+        bodyStore = new ResponseBodyStore(properties);
+
+        response = new BasicHttpResponse(200);
+        for (String[] header : BenchmarkFixtures.responseHeaders()) {
+            response.addHeader(header[0], header[1]);
+        }
+
+        byte[] body = BenchmarkFixtures.responseBody(objectMapper).getBytes(StandardCharsets.UTF_8);
+        chunks = new ArrayList<>();
+        for (int offset = 0; offset < body.length; offset += CHUNK_SIZE) {
+            chunks.add(ByteBuffer.wrap(body, offset, Math.min(CHUNK_SIZE, body.length - offset)).slice());
+        }
+    }
+
+    @Benchmark
+    public ApiHttpResponse consumeResponse() throws Exception {
+        SpillingResponseConsumer consumer = new SpillingResponseConsumer(bodyStore,
+                properties.getResponse().getMaxInMemorySize(),
+                properties.getResponse().getPreviewSize(), System.nanoTime());
+        consumer.start(response, ContentType.APPLICATION_JSON);
+        for (int i = 0; i < chunks.size(); i++) {
+            consumer.data(chunks.get(i).duplicate(), i == chunks.size() - 1);
+        }
+        return consumer.buildResult();
+    }
+
+    @Benchmark
+    public Object consumeAndParseResponse() throws Exception {
+        ApiHttpResponse httpResponse = consumeResponse();
+        return objectMapper.readValue(httpResponse.getBody(), Object.class);
+    }
+}
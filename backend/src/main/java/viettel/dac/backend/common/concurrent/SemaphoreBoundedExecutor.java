@@ -0,0 +1,93 @@
+package viettel.dac.backend.common.concurrent;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executor that starts a new thread per task (typically a virtual thread) and bounds
+ * concurrency with a semaphore instead of a pool size.
+ * Tasks that exceed the limit wait in an unbounded queue rather than being rejected,
+ * and no thread is held while a task is queued.
+ */
+public class SemaphoreBoundedExecutor implements Executor {
+
+    private final Executor threadPerTaskExecutor;
+    private final int maxConcurrency;
+    private final Semaphore permits;
+    private final Queue<QueuedTask> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queuedCount = new AtomicInteger();
+    private final Timer queueWaitTimer;
+
+    public SemaphoreBoundedExecutor(Executor threadPerTaskExecutor, int maxConcurrency,
+                                    String metricPrefix, MeterRegistry meterRegistry) {
+        this.threadPerTaskExecutor = threadPerTaskExecutor;
+        this.maxConcurrency = maxConcurrency;
+        this.permits = new Semaphore(maxConcurrency);
+
+        this.queueWaitTimer = Timer.builder(metricPrefix + ".queue.wait")
+                .description("Time tasks spend waiting for a concurrency permit")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".active", this, SemaphoreBoundedExecutor::getActiveCount)
+                .description("Number of tasks currently running")
+                .register(meterRegistry);
+        Gauge.builder(metricPrefix + ".queued", this, SemaphoreBoundedExecutor::getQueuedCount)
+                .description("Number of tasks waiting for a concurrency permit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        queue.offer(new QueuedTask(task, System.nanoTime()));
+        queuedCount.incrementAndGet();
+        drain();
+    }
+
+    public int getActiveCount() {
+        return maxConcurrency - permits.availablePermits();
+    }
+
+    public int getQueuedCount() {
+        return queuedCount.get();
+    }
+
+    private void drain() {
+        while (!queue.isEmpty() && permits.tryAcquire()) {
+            QueuedTask next = queue.poll();
+            if (next == null) {
+                // Another thread took the task, give the permit back and re-check
+                permits.release();
+                continue;
+            }
+            queuedCount.decrementAndGet();
+            start(next);
+        }
+    }
+
+    private void start(QueuedTask queuedTask) {
+        queueWaitTimer.record(System.nanoTime() - queuedTask.submittedAtNanos(), TimeUnit.NANOSECONDS);
+        try {
+            threadPerTaskExecutor.execute(() -> {
+                try {
+                    queuedTask.task().run();
+                } finally {
+                    permits.release();
+                    drain();
+                }
+            });
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private record QueuedTask(Runnable task, long submittedAtNanos) {
+    }
+}
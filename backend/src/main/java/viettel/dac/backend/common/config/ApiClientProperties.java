@@ -0,0 +1,130 @@
+package viettel.dac.backend.common.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Outbound HTTP client settings ({@code tool-template.api.*}).
+ * All durations are in milliseconds.
+ */
+@ConfigurationProperties(prefix = "tool-template.api")
+@Getter
+@Setter
+public class ApiClientProperties {
+
+    private int connectTimeout = 5000;
+    private int readTimeout = 30000;
+    private int writeTimeout = 30000;
+
+    // Connection pool
+    private int maxConnections = 100;
+    private int maxConnectionsPerRoute = 20;
+    private long keepAlive = 30000;
+    private long idleTimeout = 60000;
+    private long timeToLive = 300000;
+
+    private int ioThreads = 0;
+
+    private Map<String, String> defaultHeaders = new HashMap<>();
+
+    /**
+     * Per-host overrides, keyed by host name or host:port of the template endpoint.
+     */
+    private Map<String, HostSettings> hosts = new HashMap<>();
+
+    private Response response = new Response();
+
+    private RateLimiting rateLimiting = new RateLimiting();
+
+    private ResponseCache responseCache = new ResponseCache();
+
+    public HostSettings findHostSettings(String hostName, int port) {
+        if (hosts.isEmpty() || hostName == null) {
+            return null;
+        }
+        String host = hostName.toLowerCase(Locale.ROOT);
+        HostSettings settings = hosts.get(host + ":" + port);
+        return settings != null ? settings : hosts.get(host);
+    }
+
+    @Getter
+    @Setter
+    public static class HostSettings {
+        private Integer maxConnections;
+        private Long keepAlive;
+        private Integer connectTimeout;
+        private RateLimit rateLimit;
+    }
+
+    /**
+     * Token bucket refilled at {@code permitsPerSecond} and holding up to {@code burst} tokens
+     * (defaults to one second of permits). With {@code perTemplate} every template calling the
+     * host gets its own bucket instead of sharing one.
+     */
+    @Getter
+    @Setter
+    public static class RateLimit {
+        private double permitsPerSecond;
+        private Integer burst;
+        private boolean perTemplate;
+
+        public int effectiveBurst() {
+            return burst != null ? burst : (int) Math.max(1, Math.ceil(permitsPerSecond));
+        }
+    }
+
+    /**
+     * Rate limiting of outbound calls. Host limits are set in {@code hosts.<host>.rate-limit},
+     * template limits here, keyed by template id. With {@code store=redis} the buckets are shared
+     * by all backend instances. Calls are delayed until a token is available, and fail when the
+     * delay would exceed {@code maxWaitMs}.
+     */
+    @Getter
+    @Setter
+    public static class RateLimiting {
+        private String store = "memory";
+        private long maxWaitMs = 30000;
+        private Map<UUID, RateLimit> templates = new HashMap<>();
+    }
+
+    /**
+     * Cache of GET responses, honoring Cache-Control and Expires. The in-memory tier holds up to
+     * {@code maxEntries} responses and {@code maxSize} bytes; with {@code store=redis} entries are
+     * also shared with the other backend instances. Stale entries with a validator are kept for
+     * {@code staleRetentionMs} so they can be revalidated with a conditional request.
+     */
+    @Getter
+    @Setter
+    public static class ResponseCache {
+        private boolean enabled = true;
+        private String store = "memory";
+        private int maxEntries = 10000;
+        private long maxSize = 64L * 1024 * 1024;
+        private long staleRetentionMs = 3600000;
+    }
+
+    /**
+     * Response capture: bodies larger than {@code maxInMemorySize} bytes are streamed to the
+     * body store and only a reference, the size and a preview are kept on the execution.
+     * Stored bodies no execution refers to are deleted every {@code sweepInterval} once they are
+     * older than {@code sweepMinAge}. The store is on local disk unless {@code storeDirectory} is
+     * a shared volume; {@code nodeUrl}, the base URL of this instance, lets other instances
+     * redirect downloads of bodies stored here.
+     */
+    @Getter
+    @Setter
+    public static class Response {
+        private long maxInMemorySize = 1024 * 1024;
+        private int previewSize = 4096;
+        private String storeDirectory = System.getProperty("java.io.tmpdir") + "/tool-template/responses";
+        private long sweepInterval = 3600000;
+        private long sweepMinAge = 86400000;
+        private String nodeUrl;
+    }
+}
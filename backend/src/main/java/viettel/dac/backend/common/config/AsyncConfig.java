@@ -1,27 +1,60 @@
 package viettel.dac.backend.common.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import viettel.dac.backend.common.concurrent.SemaphoreBoundedExecutor;
 
 import java.util.concurrent.Executor;
 
 @Configuration
 @EnableAsync
+@EnableConfigurationProperties(ExecutionQuotaProperties.class)
+@Slf4j
 public class AsyncConfig {
 
     @Value("${tool-template.execution.max-concurrent-executions:20}")
     private int maxConcurrentExecutions;
 
+    @Value("${tool-template.execution.executor:pool}")
+    private String executorMode;
+
+    @Value("${tool-template.execution.virtual-max-concurrency:1000}")
+    private int virtualMaxConcurrency;
+
+    @Value("${tool-template.execution.scheduler-pool-size:2}")
+    private int schedulerPoolSize;
+
+    @Value("${tool-template.execution.response-pool-size:8}")
+    private int responsePoolSize;
+
+    @Value("${tool-template.execution.write-behind.callback-pool-size:8}")
+    private int writeBehindCallbackPoolSize;
+
+    @Value("${tool-template.execution.events.sender-pool-size:4}")
+    private int eventSenderPoolSize;
+
     /**
      * Configures the async task executor for template executions.
+     * With {@code tool-template.execution.executor=virtual} every execution runs on its own
+     * virtual thread and concurrency is bounded by a semaphore instead of a pool size.
      *
      * @return The task executor
      */
     @Bean(name = "executionTaskExecutor")
-    public Executor executionTaskExecutor() {
+    public Executor executionTaskExecutor(MeterRegistry meterRegistry) {
+        if ("virtual".equalsIgnoreCase(executorMode)) {
+            return virtualExecutionTaskExecutor(meterRegistry);
+        }
+
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
         executor.setMaxPoolSize(maxConcurrentExecutions);
@@ -30,4 +63,86 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Configures the scheduler for delayed execution work such as retry backoff.
+     * Scheduled tasks only trigger the next non-blocking step, so a small pool is enough.
+     *
+     * @return The task scheduler
+     */
+    @Bean(name = "executionScheduler")
+    public ThreadPoolTaskScheduler executionScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(schedulerPoolSize);
+        scheduler.setThreadNamePrefix("execution-scheduler-");
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.initialize();
+        return scheduler;
+    }
+
+    /**
+     * Configures the executor that processes upstream responses, so parsing stays off the HTTP
+     * client's I/O threads. The queue is unbounded because a response the upstream already sent
+     * must never be rejected; it holds at most one task per in-flight execution.
+     *
+     * @return The task executor
+     */
+    @Bean(name = "executionResponseExecutor")
+    public Executor executionResponseExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(responsePoolSize);
+        executor.setMaxPoolSize(responsePoolSize);
+        executor.setThreadNamePrefix("execution-response-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Configures the executor that runs what follows a committed execution state, such as the
+     * continuations of finished executions and event publishing, so the write-behind thread only
+     * writes. The queue is unbounded because the write-behind thread must never block on it.
+     *
+     * @return The task executor
+     */
+    @Bean(name = "writeBehindCallbackExecutor")
+    public Executor writeBehindCallbackExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(writeBehindCallbackPoolSize);
+        executor.setMaxPoolSize(writeBehindCallbackPoolSize);
+        executor.setThreadNamePrefix("execution-write-behind-callback-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Configures the executor that writes execution events to Server-Sent Events streams. Writes
+     * block while a client is slow, so they are kept off the listener and scheduler threads, and a
+     * stream is drained by one task at a time, so the queue holds at most one task per stream.
+     *
+     * @return The task executor
+     */
+    @Bean(name = "executionEventExecutor")
+    public Executor executionEventExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(eventSenderPoolSize);
+        executor.setMaxPoolSize(eventSenderPoolSize);
+        executor.setThreadNamePrefix("execution-events-");
+        executor.initialize();
+        return executor;
+    }
+
+    private Executor virtualExecutionTaskExecutor(MeterRegistry meterRegistry) {
+        Executor threadPerTaskExecutor;
+        try {
+            threadPerTaskExecutor = new VirtualThreadTaskExecutor("execution-");
+        } catch (UnsupportedOperationException e) {
+            // Virtual threads need JDK 21, fall back to one platform thread per running task
+            log.warn("Virtual threads are not supported on this JVM, using platform threads for executions");
+            threadPerTaskExecutor = new SimpleAsyncTaskExecutor("execution-");
+        }
+
+        log.info("Using semaphore-bounded execution executor with max concurrency {}", virtualMaxConcurrency);
+        return new SemaphoreBoundedExecutor(threadPerTaskExecutor, virtualMaxConcurrency,
+                "execution.executor", meterRegistry);
+    }
+}
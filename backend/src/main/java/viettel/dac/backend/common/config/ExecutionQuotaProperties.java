@@ -0,0 +1,70 @@
+package viettel.dac.backend.common.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import viettel.dac.backend.execution.enums.ExecutionPriority;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Per-user execution quotas and fair scheduling ({@code tool-template.execution.quotas.*}).
+ * Defaults apply to every user; {@code users} overrides them by user id.
+ * Of {@code maxRunning}, {@code reservedCapacity} slots are kept for each priority class; a queued
+ * execution gains one class of priority for every {@code agingMs} it waits.
+ */
+@ConfigurationProperties(prefix = "tool-template.execution.quotas")
+@Getter
+@Setter
+public class ExecutionQuotaProperties {
+
+    // memory | redis; redis shares the counters between instances
+    private String store = "redis";
+
+    // Executions running at once on this instance, across all users
+    private int maxRunning = 200;
+
+    // Submissions beyond this many queued executions of one user are rejected
+    private int maxQueuedPerUser = 1000;
+    private long queueFullRetryAfterSeconds = 5;
+
+    // Priority classes
+    private Map<ExecutionPriority, Integer> reservedCapacity = new EnumMap<>(ExecutionPriority.class);
+    private long agingMs = 5000;
+
+    private int defaultWeight = 1;
+    private int defaultMaxConcurrent = 10;
+    private long defaultDailyLimit = 10000;
+
+    private Map<UUID, UserQuota> users = new HashMap<>();
+
+    public int reservedCapacityOf(ExecutionPriority priority) {
+        return reservedCapacity.getOrDefault(priority, 0);
+    }
+
+    public int weightOf(UUID userId) {
+        UserQuota quota = users.get(userId);
+        return quota != null && quota.getWeight() != null ? quota.getWeight() : defaultWeight;
+    }
+
+    public int maxConcurrentOf(UUID userId) {
+        UserQuota quota = users.get(userId);
+        return quota != null && quota.getMaxConcurrent() != null ? quota.getMaxConcurrent() : defaultMaxConcurrent;
+    }
+
+    public long dailyLimitOf(UUID userId) {
+        UserQuota quota = users.get(userId);
+        return quota != null && quota.getDailyLimit() != null ? quota.getDailyLimit() : defaultDailyLimit;
+    }
+
+    @Getter
+    @Setter
+    public static class UserQuota {
+        private Integer weight;
+        private Integer maxConcurrent;
+        private Long dailyLimit;
+    }
+}
@@ -0,0 +1,135 @@
+package viettel.dac.backend.common.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.RouteInfo;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+@Configuration
+@EnableConfigurationProperties(ApiClientProperties.class)
+@RequiredArgsConstructor
+@Slf4j
+public class HttpClientConfig {
+
+    private final ApiClientProperties properties;
+
+    /**
+     * Configures the shared connection pool for outbound API calls, with a global limit,
+     * a default per-route limit and per-host overrides from {@code tool-template.api.hosts}.
+     *
+     * @return The pooling connection manager
+     */
+    @Bean
+    public PoolingAsyncClientConnectionManager apiConnectionManager() {
+        PoolingAsyncClientConnectionManager connectionManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setConnectionConfigResolver(this::resolveConnectionConfig)
+                .build();
+
+        // Routes are keyed by scheme and port, so apply host overrides to both schemes
+        properties.getHosts().forEach((hostKey, settings) -> {
+            if (settings.getMaxConnections() == null) {
+                return;
+            }
+            for (String scheme : List.of("http", "https")) {
+                HttpRoute route = routeFor(hostKey, scheme);
+                connectionManager.setMaxPerRoute(route, settings.getMaxConnections());
+            }
+            log.info("Max connections for upstream host {} set to {}", hostKey, settings.getMaxConnections());
+        });
+
+        return connectionManager;
+    }
+
+    /**
+     * Configures the non-blocking HTTP client used for API template executions.
+     * A small number of I/O reactor threads serve all in-flight requests.
+     *
+     * @return The started async HTTP client
+     */
+    @Bean(destroyMethod = "close")
+    public CloseableHttpAsyncClient httpAsyncClient(PoolingAsyncClientConnectionManager apiConnectionManager) {
+        int ioThreads = properties.getIoThreads() > 0
+                ? properties.getIoThreads() : Runtime.getRuntime().availableProcessors();
+
+        List<Header> defaultHeaders = properties.getDefaultHeaders().entrySet().stream()
+                .map(header -> (Header) new BasicHeader(header.getKey(), header.getValue()))
+                .toList();
+
+        CloseableHttpAsyncClient client = HttpAsyncClients.custom()
+                .setConnectionManager(apiConnectionManager)
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setIoThreadCount(ioThreads)
+                        .build())
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setResponseTimeout(Timeout.ofMilliseconds(properties.getReadTimeout()))
+                        .build())
+                .setDefaultHeaders(defaultHeaders)
+                .setKeepAliveStrategy((response, context) -> {
+                    ApiClientProperties.HostSettings settings =
+                            hostSettings(HttpClientContext.castOrCreate(context).getHttpRoute());
+                    if (settings != null && settings.getKeepAlive() != null) {
+                        return TimeValue.ofMilliseconds(settings.getKeepAlive());
+                    }
+                    TimeValue serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE
+                            .getKeepAliveDuration(response, context);
+                    return serverKeepAlive.min(TimeValue.ofMilliseconds(properties.getKeepAlive()));
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(properties.getIdleTimeout()))
+                .build();
+
+        client.start();
+        return client;
+    }
+
+    private ConnectionConfig resolveConnectionConfig(HttpRoute route) {
+        ApiClientProperties.HostSettings settings = hostSettings(route);
+        int connectTimeout = settings != null && settings.getConnectTimeout() != null
+                ? settings.getConnectTimeout() : properties.getConnectTimeout();
+
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.ofMilliseconds(connectTimeout))
+                // Inactivity timeout while sending; the response wait uses the read timeout
+                .setSocketTimeout(Timeout.ofMilliseconds(properties.getWriteTimeout()))
+                .setTimeToLive(TimeValue.ofMilliseconds(properties.getTimeToLive()))
+                .build();
+    }
+
+    private ApiClientProperties.HostSettings hostSettings(RouteInfo route) {
+        if (route == null) {
+            return null;
+        }
+        HttpHost target = route.getTargetHost();
+        return properties.findHostSettings(target.getHostName(), target.getPort());
+    }
+
+    private static HttpRoute routeFor(String hostKey, String scheme) {
+        boolean secure = "https".equals(scheme);
+        int defaultPort = secure ? 443 : 80;
+        int separator = hostKey.lastIndexOf(':');
+        String hostName = separator > 0 ? hostKey.substring(0, separator) : hostKey;
+        int port = separator > 0 ? Integer.parseInt(hostKey.substring(separator + 1)) : defaultPort;
+        return new HttpRoute(new HttpHost(scheme, hostName, port), null, secure);
+    }
+}
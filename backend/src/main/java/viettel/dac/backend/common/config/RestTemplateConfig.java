@@ -1,18 +1,47 @@
 package viettel.dac.backend.common.config;
 
+import lombok.RequiredArgsConstructor;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
 
 @Configuration
+@RequiredArgsConstructor
 public class RestTemplateConfig {
 
+    private final ApiClientProperties properties;
+
     @Bean
     public RestTemplate restTemplate(RestTemplateBuilder builder) {
-        return builder.connectTimeout(Duration.ofMillis(5000)).readTimeout(Duration.ofMillis(30000))
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.getMaxConnections())
+                .setMaxConnPerRoute(properties.getMaxConnectionsPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(properties.getConnectTimeout()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(properties.getTimeToLive()))
+                        .build())
+                .build();
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.ofMilliseconds(properties.getIdleTimeout()))
+                .build();
+
+        return builder.requestFactory(() -> new HttpComponentsClientHttpRequestFactory(httpClient))
+                .connectTimeout(Duration.ofMillis(properties.getConnectTimeout()))
+                .readTimeout(Duration.ofMillis(properties.getReadTimeout()))
                 .build();
     }
-}
\ No newline at end of file
+}
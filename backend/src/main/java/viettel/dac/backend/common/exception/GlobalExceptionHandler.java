@@ -2,6 +2,7 @@ package viettel.dac.backend.common.exception;
 
 import lombok.extern.slf4j.Slf4j;
 import org.hibernate.sql.exec.ExecutionException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -118,6 +119,27 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.REQUEST_TIMEOUT).body(error);
     }
 
+    /**
+     * Handle QuotaExceededException.
+     * @param ex The exception
+     * @return 429 Too Many Requests response with a Retry-After header
+     */
+    @ExceptionHandler(QuotaExceededException.class)
+    public ResponseEntity<ErrorResponse> handleQuotaExceededException(QuotaExceededException ex) {
+        log.warn("Quota exceeded: {}", ex.getMessage());
+
+        ErrorResponse error = ErrorResponse.builder()
+                .timestamp(Instant.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+                .message(ex.getMessage())
+                .build();
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(error);
+    }
+
     /**
      * Handle AccessDeniedException.
      * @param ex The exception
@@ -0,0 +1,17 @@
+package viettel.dac.backend.common.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a user exceeds an execution quota. Mapped to 429 with a Retry-After header.
+ */
+@Getter
+public class QuotaExceededException extends BaseException {
+
+    private final long retryAfterSeconds;
+
+    public QuotaExceededException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -7,22 +7,34 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 import viettel.dac.backend.execution.dto.ApiExecutionResponseDto;
 import viettel.dac.backend.execution.dto.ApiExecutionSearchFilterDto;
+import viettel.dac.backend.execution.dto.BatchExecutionRequestDto;
+import viettel.dac.backend.execution.dto.BatchExecutionResponseDto;
 import viettel.dac.backend.execution.dto.ExecutionRequestDto;
+import viettel.dac.backend.execution.dto.ResponseBodyResourceDto;
 import viettel.dac.backend.execution.enums.ExecutionStatus;
 import viettel.dac.backend.execution.service.ApiExecutionService;
+import viettel.dac.backend.execution.service.ExecutionBatchService;
 import viettel.dac.backend.security.model.UserDetailsImpl;
 
 
+import java.net.URI;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/api-executions")
@@ -32,6 +44,7 @@ import java.util.UUID;
 public class ApiExecutionController {
 
     private final ApiExecutionService apiExecutionService;
+    private final ExecutionBatchService executionBatchService;
 
     @PostMapping
     @Operation(
@@ -48,6 +61,63 @@ public class ApiExecutionController {
         return ResponseEntity.ok(result);
     }
 
+    @PostMapping(params = "wait")
+    @Operation(
+            summary = "Execute an API template and wait",
+            description = "Executes the template and holds the request until the execution has finished or the wait has expired. " +
+                    "Returns the finished execution, or 202 with the pending execution and its Location once the wait expires"
+    )
+    @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN')")
+    public CompletableFuture<ResponseEntity<ApiExecutionResponseDto>> executeApiTemplateAndWait(
+            @Parameter(description = "Maximum time to wait, as an ISO-8601 duration such as PT5S", required = true)
+            @RequestParam Duration wait,
+
+            @Parameter(description = "Execution request", required = true)
+            @Valid @RequestBody ExecutionRequestDto requestDto,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+
+        // The request is not bound to the thread that completes the wait
+        UriComponentsBuilder executionUri = ServletUriComponentsBuilder.fromCurrentRequestUri().replaceQuery(null).path("/{id}");
+        return apiExecutionService.executeApiTemplateAndWait(requestDto, userDetails.getId(), wait)
+                .thenApply(result -> {
+                    if (result.getStatus() == ExecutionStatus.PENDING || result.getStatus() == ExecutionStatus.RUNNING) {
+                        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                                .location(executionUri.buildAndExpand(result.getId()).toUri())
+                                .body(result);
+                    }
+                    return ResponseEntity.ok(result);
+                });
+    }
+
+    @PostMapping("/batch")
+    @Operation(
+            summary = "Execute an API template in batch",
+            description = "Executes an API template once for each of the provided parameter sets and returns the batch progress"
+    )
+    @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN')")
+    public ResponseEntity<BatchExecutionResponseDto> executeApiTemplateBatch(
+            @Parameter(description = "Batch execution request", required = true)
+            @Valid @RequestBody BatchExecutionRequestDto requestDto,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+
+        BatchExecutionResponseDto result = executionBatchService.executeBatch(requestDto, userDetails.getId());
+        return ResponseEntity.ok(result);
+    }
+
+    @GetMapping("/batch/{batchId}")
+    @Operation(
+            summary = "Get batch execution progress",
+            description = "Retrieves the aggregate progress of a batch execution"
+    )
+    @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN') and @executionSecurityService.canAccessBatch(#batchId, authentication.principal.id)")
+    public ResponseEntity<BatchExecutionResponseDto> getBatchProgress(
+            @Parameter(description = "Batch ID", required = true)
+            @PathVariable UUID batchId) {
+
+        BatchExecutionResponseDto result = executionBatchService.getBatchProgress(batchId);
+        return ResponseEntity.ok(result);
+    }
+
     @GetMapping("/{id}")
     @Operation(
             summary = "Get API execution result",
@@ -62,6 +132,34 @@ public class ApiExecutionController {
         return ResponseEntity.ok(result);
     }
 
+    @GetMapping("/{id}/response-body")
+    @Operation(
+            summary = "Download API execution response body",
+            description = "Streams the full response body of an API execution, including bodies too large to be stored inline. "
+                    + "Bodies stored on another instance are redirected to it"
+    )
+    @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN') and @executionSecurityService.canAccessExecution(#id, authentication.principal.id)")
+    public ResponseEntity<Resource> getApiExecutionResponseBody(
+            @Parameter(description = "Execution ID", required = true)
+            @PathVariable UUID id) {
+
+        ResponseBodyResourceDto responseBody = apiExecutionService.getApiExecutionResponseBody(id);
+        if (responseBody.getNodeUrl() != null) {
+            // The body is stored on another instance
+            URI location = ServletUriComponentsBuilder.fromCurrentRequest()
+                    .uri(URI.create(responseBody.getNodeUrl()))
+                    .build()
+                    .toUri();
+            return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT).location(location).build();
+        }
+        MediaType contentType = responseBody.getContentType() != null
+                ? MediaType.parseMediaType(responseBody.getContentType())
+                : MediaType.APPLICATION_OCTET_STREAM;
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .body(responseBody.getBody());
+    }
+
     @GetMapping
     @Operation(
             summary = "Search API executions",
@@ -10,10 +10,15 @@ import lombok.RequiredArgsConstructor;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
 
 import viettel.dac.backend.execution.enums.ExecutionStatus;
 import viettel.dac.backend.execution.dto.ExecutionRequestDto;
@@ -23,8 +28,10 @@ import viettel.dac.backend.execution.service.ExecutionService;
 import viettel.dac.backend.security.model.UserDetailsImpl;
 
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/executions")
@@ -50,6 +57,34 @@ public class ExecutionController {
         return ResponseEntity.ok(result);
     }
 
+    @PostMapping(params = "wait")
+    @Operation(
+            summary = "Execute a template and wait",
+            description = "Executes the template and holds the request until the execution has finished or the wait has expired. " +
+                    "Returns the finished execution, or 202 with the pending execution and its Location once the wait expires"
+    )
+    @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN')")
+    public CompletableFuture<ResponseEntity<ExecutionResponseDto>> executeTemplateAndWait(
+            @Parameter(description = "Maximum time to wait, as an ISO-8601 duration such as PT5S", required = true)
+            @RequestParam Duration wait,
+
+            @Parameter(description = "Execution request", required = true)
+            @Valid @RequestBody ExecutionRequestDto requestDto,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+
+        // The request is not bound to the thread that completes the wait
+        UriComponentsBuilder executionUri = ServletUriComponentsBuilder.fromCurrentRequestUri().replaceQuery(null).path("/{id}");
+        return executionService.executeTemplateAndWait(requestDto, userDetails.getId(), wait)
+                .thenApply(result -> {
+                    if (result.getStatus() == ExecutionStatus.PENDING || result.getStatus() == ExecutionStatus.RUNNING) {
+                        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                                .location(executionUri.buildAndExpand(result.getId()).toUri())
+                                .body(result);
+                    }
+                    return ResponseEntity.ok(result);
+                });
+    }
+
     @GetMapping("/{id}")
     @Operation(
             summary = "Get execution result",
@@ -63,6 +98,18 @@ public class ExecutionController {
         return ResponseEntity.ok(result);
     }
 
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream execution events",
+            description = "Streams the status transitions of an execution as Server-Sent Events, starting with its current state and ending once it is final"
+    )
+    @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN') and @executionSecurityService.canAccessExecution(#id, authentication.principal.id)")
+    public SseEmitter streamExecutionEvents(
+            @Parameter(description = "Execution ID", required = true) @PathVariable UUID id) {
+
+        return executionService.streamExecutionEvents(id);
+    }
+
     @GetMapping
     @Operation(
             summary = "Search executions",
@@ -149,6 +196,16 @@ public class ExecutionController {
         return ResponseEntity.ok(results);
     }
 
+    @GetMapping(value = "/my-executions/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(
+            summary = "Stream current user's execution events",
+            description = "Streams the status transitions of all executions of the current user as Server-Sent Events"
+    )
+    @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN')")
+    public SseEmitter streamMyExecutionEvents(@AuthenticationPrincipal UserDetailsImpl userDetails) {
+        return executionService.streamUserExecutionEvents(userDetails.getId());
+    }
+
     @PostMapping("/{id}/cancel")
     @Operation(
             summary = "Cancel execution",
@@ -0,0 +1,100 @@
+package viettel.dac.backend.execution.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import viettel.dac.backend.execution.dto.ExecutionScheduleRequestDto;
+import viettel.dac.backend.execution.dto.ExecutionScheduleResponseDto;
+import viettel.dac.backend.execution.service.ExecutionScheduleService;
+import viettel.dac.backend.security.model.UserDetailsImpl;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/execution-schedules")
+@RequiredArgsConstructor
+@Tag(name = "Execution Schedules", description = "API for recurring template executions")
+@SecurityRequirement(name = "bearer-jwt")
+public class ExecutionScheduleController {
+
+    private final ExecutionScheduleService executionScheduleService;
+
+    @PostMapping
+    @Operation(
+            summary = "Create an execution schedule",
+            description = "Runs a template on a cron expression or at a fixed rate"
+    )
+    @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN')")
+    public ResponseEntity<ExecutionScheduleResponseDto> createSchedule(
+            @Parameter(description = "Schedule", required = true)
+            @Valid @RequestBody ExecutionScheduleRequestDto requestDto,
+            @AuthenticationPrincipal UserDetailsImpl userDetails) {
+
+        ExecutionScheduleResponseDto result = executionScheduleService.createSchedule(requestDto, userDetails.getId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(result);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(
+            summary = "Get execution schedule",
+            description = "Retrieves a schedule with its last and next run"
+    )
+    @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN') and @executionSecurityService.canAccessSchedule(#id, authentication.principal.id)")
+    public ResponseEntity<ExecutionScheduleResponseDto> getSchedule(
+            @Parameter(description = "Schedule ID", required = true) @PathVariable UUID id) {
+
+        return ResponseEntity.ok(executionScheduleService.getSchedule(id));
+    }
+
+    @GetMapping
+    @Operation(
+            summary = "Get current user's execution schedules",
+            description = "Retrieves the schedules owned by the current user"
+    )
+    @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN')")
+    public ResponseEntity<Page<ExecutionScheduleResponseDto>> getMySchedules(
+            @AuthenticationPrincipal UserDetailsImpl userDetails,
+            Pageable pageable) {
+
+        return ResponseEntity.ok(executionScheduleService.getUserSchedules(userDetails.getId(), pageable));
+    }
+
+    @PutMapping("/{id}")
+    @Operation(
+            summary = "Update execution schedule",
+            description = "Replaces a schedule; set enabled to false to pause it"
+    )
+    @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN') and @executionSecurityService.canAccessSchedule(#id, authentication.principal.id)")
+    public ResponseEntity<ExecutionScheduleResponseDto> updateSchedule(
+            @Parameter(description = "Schedule ID", required = true) @PathVariable UUID id,
+            @Parameter(description = "Schedule", required = true)
+            @Valid @RequestBody ExecutionScheduleRequestDto requestDto) {
+
+        return ResponseEntity.ok(executionScheduleService.updateSchedule(id, requestDto));
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(
+            summary = "Delete execution schedule",
+            description = "Deletes a schedule; executions it started are kept"
+    )
+    @ApiResponse(responseCode = "204", description = "Schedule successfully deleted")
+    @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN') and @executionSecurityService.canAccessSchedule(#id, authentication.principal.id)")
+    public ResponseEntity<Void> deleteSchedule(
+            @Parameter(description = "Schedule ID", required = true) @PathVariable UUID id) {
+
+        executionScheduleService.deleteSchedule(id);
+        return ResponseEntity.noContent().build();
+    }
+}
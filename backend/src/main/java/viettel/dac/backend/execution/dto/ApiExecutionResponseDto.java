@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
 import java.util.Map;
+import java.util.UUID;
 
 @Data
 @EqualsAndHashCode(callSuper = true)
@@ -17,6 +18,10 @@ public class ApiExecutionResponseDto extends BaseExecutionDto {
     private Integer statusCode;
     private Map<String, String> responseHeaders;
     private Object responseBody;
+    private String responseBodyRef;
+    private Long responseBodySize;
+    private String responseBodyPreview;
     private Long responseTimeMs;
     private Boolean successful;
+    private UUID coalescedWith;
 }
@@ -0,0 +1,33 @@
+package viettel.dac.backend.execution.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.backend.execution.enums.ExecutionPriority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchExecutionRequestDto {
+
+    @NotNull(message = "Template ID is required")
+    private UUID templateId;
+
+    @NotEmpty(message = "At least one parameter set is required")
+    private List<Map<String, Object>> parameterSets;
+
+    @Min(value = 1, message = "Parallelism must be at least 1")
+    private Integer parallelism;
+
+    // Defaults to BULK
+    private ExecutionPriority priority;
+}
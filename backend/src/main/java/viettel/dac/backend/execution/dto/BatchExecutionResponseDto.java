@@ -0,0 +1,27 @@
+package viettel.dac.backend.execution.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.backend.execution.enums.ExecutionStatus;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchExecutionResponseDto {
+    private UUID batchId;
+    private UUID templateId;
+    private UUID userId;
+    private int totalCount;
+    private int parallelism;
+    private long finishedCount;
+    private boolean done;
+    private Map<ExecutionStatus, Long> statusCounts;
+    private Instant createdAt;
+}
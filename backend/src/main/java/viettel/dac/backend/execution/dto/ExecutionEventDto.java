@@ -0,0 +1,28 @@
+package viettel.dac.backend.execution.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.backend.execution.enums.ExecutionStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A status transition of an execution, pushed to event stream subscribers.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionEventDto {
+    private UUID executionId;
+    private UUID userId;
+    private UUID templateId;
+    private UUID batchId;
+    private ExecutionStatus status;
+    private Instant startTime;
+    private Instant endTime;
+    private String errorMessage;
+}
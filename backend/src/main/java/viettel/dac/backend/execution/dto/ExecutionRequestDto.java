@@ -5,6 +5,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import viettel.dac.backend.execution.enums.ExecutionPriority;
 
 import java.util.Map;
 import java.util.UUID;
@@ -21,4 +22,7 @@ public class ExecutionRequestDto {
     private Map<String, Object> parameters;
 
     private Integer timeout;
+
+    // Defaults to NORMAL
+    private ExecutionPriority priority;
 }
\ No newline at end of file
@@ -5,6 +5,9 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import viettel.dac.backend.execution.entity.IntegrationStepState;
+
+import java.util.Map;
 
 @Data
 @EqualsAndHashCode(callSuper = true)
@@ -13,4 +16,5 @@ import lombok.experimental.SuperBuilder;
 @AllArgsConstructor
 public class ExecutionResponseDto extends BaseExecutionDto {
     private Object result;
+    private Map<String, IntegrationStepState> steps;
 }
@@ -0,0 +1,44 @@
+package viettel.dac.backend.execution.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.backend.execution.enums.ExecutionPriority;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A recurring execution. Exactly one of {@code cronExpression} (six fields, with seconds)
+ * and {@code fixedRateMs} must be set.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionScheduleRequestDto {
+
+    @NotNull(message = "Template ID is required")
+    private UUID templateId;
+
+    @NotBlank(message = "Name is required")
+    private String name;
+
+    private String cronExpression;
+
+    // Zone the cron expression is evaluated in, defaults to UTC
+    private String timeZone;
+
+    private Long fixedRateMs;
+
+    private Map<String, Object> parameters;
+
+    // Defaults to NORMAL
+    private ExecutionPriority priority;
+
+    // Defaults to true
+    private Boolean enabled;
+}
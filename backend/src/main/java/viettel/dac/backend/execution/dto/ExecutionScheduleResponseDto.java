@@ -0,0 +1,33 @@
+package viettel.dac.backend.execution.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.backend.execution.enums.ExecutionPriority;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutionScheduleResponseDto {
+    private UUID id;
+    private UUID templateId;
+    private UUID userId;
+    private String name;
+    private String cronExpression;
+    private String timeZone;
+    private Long fixedRateMs;
+    private Map<String, Object> parameters;
+    private ExecutionPriority priority;
+    private boolean enabled;
+    private Instant nextRunAt;
+    private Instant lastRunAt;
+    private UUID lastExecutionId;
+    private Instant createdAt;
+    private Instant lastModifiedAt;
+}
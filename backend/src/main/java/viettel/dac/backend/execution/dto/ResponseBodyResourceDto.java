@@ -0,0 +1,25 @@
+package viettel.dac.backend.execution.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.core.io.Resource;
+
+/**
+ * Full response body of an API execution, for streaming to the client, or the base URL of the
+ * instance whose store holds it.
+ */
+@Getter
+@AllArgsConstructor
+public class ResponseBodyResourceDto {
+    private final Resource body;
+    private final String contentType;
+    private final String nodeUrl;
+
+    public ResponseBodyResourceDto(Resource body, String contentType) {
+        this(body, contentType, null);
+    }
+
+    public static ResponseBodyResourceDto storedOn(String nodeUrl) {
+        return new ResponseBodyResourceDto(null, null, nodeUrl);
+    }
+}
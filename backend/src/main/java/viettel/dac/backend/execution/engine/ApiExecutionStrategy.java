@@ -1,51 +1,88 @@
 package viettel.dac.backend.execution.engine;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.Getter;
-import lombok.RequiredArgsConstructor;
-import lombok.Setter;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.*;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.HttpStatusCodeException;
-import org.springframework.web.client.ResourceAccessException;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.web.util.UriComponentsBuilder;
 
 import viettel.dac.backend.execution.entity.ApiExecution;
 import viettel.dac.backend.execution.entity.BaseExecution;
 import viettel.dac.backend.execution.exception.ExecutionException;
 import viettel.dac.backend.execution.exception.InvalidParameterException;
 import viettel.dac.backend.execution.exception.TimeoutException;
-import viettel.dac.backend.execution.repository.ApiExecutionRepository;
-import viettel.dac.backend.execution.util.ParameterSubstitutionUtil;
+import viettel.dac.backend.execution.http.ApiHttpClient;
+import viettel.dac.backend.execution.http.ApiHttpResponse;
+import viettel.dac.backend.execution.http.ResponseBodyStore;
+import viettel.dac.backend.execution.http.ApiRequestContext;
+import viettel.dac.backend.execution.http.ApiResponseCache;
 import viettel.dac.backend.template.entity.ApiTemplate;
 import viettel.dac.backend.template.entity.BaseTemplate;
-import viettel.dac.backend.template.enums.HttpMethod;
 import viettel.dac.backend.template.enums.TemplateType;
 
-import java.net.URI;
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-
-import static org.springframework.http.HttpMethod.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class ApiExecutionStrategy implements ExecutionStrategy {
 
-    private final ApiExecutionRepository apiExecutionRepository;
-    private final RestTemplate restTemplate;
+    private final ApiHttpClient apiHttpClient;
+    private final ApiRetryExecutor apiRetryExecutor;
+    private final ApiHedgingExecutor apiHedgingExecutor;
+    private final UpstreamRateLimiter upstreamRateLimiter;
+    private final UpstreamCircuitBreakers upstreamCircuitBreakers;
+    private final RequestCoalescer requestCoalescer;
+    private final ApiResponseCache apiResponseCache;
     private final ObjectMapper objectMapper;
-    private final ParameterSubstitutionUtil parameterSubstitutionUtil;
-
-    private final Map<UUID, Boolean> cancelledExecutions = new ConcurrentHashMap<>();
+    private final ApiRenderPlanCache apiRenderPlanCache;
+    private final Executor executionResponseExecutor;
+    private final InFlightExecutionRegistry inFlightExecutionRegistry;
+    private final ExecutionStateWriter executionStateWriter;
+    private final ResponseBodyStore responseBodyStore;
+
+    @Autowired
+    public ApiExecutionStrategy(
+            ApiHttpClient apiHttpClient,
+            ApiRetryExecutor apiRetryExecutor,
+            ApiHedgingExecutor apiHedgingExecutor,
+            UpstreamRateLimiter upstreamRateLimiter,
+            UpstreamCircuitBreakers upstreamCircuitBreakers,
+            RequestCoalescer requestCoalescer,
+            ApiResponseCache apiResponseCache,
+            ObjectMapper objectMapper,
+            ApiRenderPlanCache apiRenderPlanCache,
+            @Qualifier("executionResponseExecutor") Executor executionResponseExecutor,
+            InFlightExecutionRegistry inFlightExecutionRegistry,
+            ExecutionStateWriter executionStateWriter,
+            ResponseBodyStore responseBodyStore) {
+        this.apiHttpClient = apiHttpClient;
+        this.apiRetryExecutor = apiRetryExecutor;
+        this.apiHedgingExecutor = apiHedgingExecutor;
+        this.upstreamRateLimiter = upstreamRateLimiter;
+        this.upstreamCircuitBreakers = upstreamCircuitBreakers;
+        this.requestCoalescer = requestCoalescer;
+        this.apiResponseCache = apiResponseCache;
+        this.objectMapper = objectMapper;
+        this.apiRenderPlanCache = apiRenderPlanCache;
+        this.executionResponseExecutor = executionResponseExecutor;
+        this.inFlightExecutionRegistry = inFlightExecutionRegistry;
+        this.executionStateWriter = executionStateWriter;
+        this.responseBodyStore = responseBodyStore;
+    }
 
     @Override
     public String getTemplateType() {
@@ -74,11 +111,10 @@ public class ApiExecutionStrategy implements ExecutionStrategy {
             throw new InvalidParameterException("HTTP method is required for API template");
         }
 
-        // Try to substitute parameters to validate they exist
-        try {
-            substituteParameters(apiTemplate, parameters);
-        } catch (Exception e) {
-            throw new InvalidParameterException("Error substituting parameters: " + e.getMessage());
+        // Compile the template once per version; placeholders without a value are sent unchanged
+        List<String> missingParameters = apiRenderPlanCache.planFor(apiTemplate).missingParameters(parameters);
+        if (!missingParameters.isEmpty()) {
+            log.warn("Parameters {} of template {} not found in parameters", missingParameters, apiTemplate.getId());
         }
     }
 
@@ -88,254 +124,200 @@ public class ApiExecutionStrategy implements ExecutionStrategy {
             throw new InvalidParameterException("Template is not an API template");
         }
 
-        try {
-            ApiTemplate apiTemplate = (ApiTemplate) template;
-
-            // Create or get ApiExecution instance
-            ApiExecution apiExecution;
-            if (execution instanceof ApiExecution) {
-                apiExecution = (ApiExecution) execution;
-            } else {
-                // If we have a base execution, create a new API execution with the same ID
-                apiExecution = new ApiExecution();
-                apiExecution.setId(execution.getId());
-                apiExecution.setTemplateId(execution.getTemplateId());
-                apiExecution.setUserId(execution.getUserId());
-                apiExecution.setStatus(execution.getStatus());
-            }
-
-            // Mark as running
-            apiExecution.markAsRunning();
-
-            // Check if the execution is already cancelled
-            if (cancelledExecutions.getOrDefault(apiExecution.getId(), false)) {
-                apiExecution.markAsCancelled();
-                cancelledExecutions.remove(apiExecution.getId());
-                return apiExecution;
-            }
-
-            // Substitute parameters in the template
-            ApiRequestContext requestContext = substituteParameters(apiTemplate, parameters);
-
-            // Execute the HTTP request
-            Instant startTime = Instant.now();
-            ResponseEntity<String> response;
-
-            try {
-                response = executeHttpRequest(requestContext);
-            } catch (TimeoutException e) {
-                apiExecution.markAsTimedOut();
-                return apiExecution;
-            }
-
-            // Calculate response time
-            long responseTimeMs = Instant.now().toEpochMilli() - startTime.toEpochMilli();
-
-            // Check if the execution was cancelled during the request
-            if (cancelledExecutions.getOrDefault(apiExecution.getId(), false)) {
-                apiExecution.markAsCancelled();
-                cancelledExecutions.remove(apiExecution.getId());
-                return apiExecution;
-            }
-
-            // Process the response
-            int statusCode = response.getStatusCodeValue();
-            boolean successful = response.getStatusCode().is2xxSuccessful();
-
-            // Extract response headers
-            Map<String, String> responseHeaders = new HashMap<>();
-            response.getHeaders().forEach((name, values) -> {
-                if (!values.isEmpty()) {
-                    responseHeaders.put(name, String.join(", ", values));
-                }
-            });
-
-            // Parse response body
-            Object responseBody = response.getBody();
-            if (responseBody != null && response.getHeaders().getContentType() != null &&
-                    response.getHeaders().getContentType().includes(MediaType.APPLICATION_JSON)) {
-                try {
-                    responseBody = objectMapper.readValue(response.getBody(), Object.class);
-                } catch (Exception e) {
-                    log.warn("Error parsing JSON response: {}", e.getMessage());
-                    // Keep response as string if parsing fails
-                }
-            }
+        // Wait for the non-blocking execution to finish
+        return executeAsync(template, parameters, execution).join();
+    }
 
-            // Update execution properties
-            apiExecution.setStatusCode(statusCode);
-            apiExecution.setResponseHeaders(responseHeaders);
-            apiExecution.setResponseBody(responseBody);
-            apiExecution.setResponseTimeMs(responseTimeMs);
-            apiExecution.setSuccessful(successful);
+    @Override
+    public CompletableFuture<BaseExecution> executeAsync(BaseTemplate template, Map<String, Object> parameters, BaseExecution execution) {
+        if (!(template instanceof ApiTemplate)) {
+            execution.markAsFailed("Template is not an API template");
+            return CompletableFuture.completedFuture(execution);
+        }
 
-            // Set metrics
-            Map<String, Object> metrics = new HashMap<>();
-            metrics.put("responseTimeMs", responseTimeMs);
-            metrics.put("statusCode", statusCode);
-            metrics.put("successful", successful);
-            apiExecution.setMetrics(metrics);
+        ApiTemplate apiTemplate = (ApiTemplate) template;
 
-            // Generate result object
-            Map<String, Object> result = new HashMap<>();
-            result.put("statusCode", statusCode);
-            result.put("successful", successful);
-            result.put("responseTimeMs", responseTimeMs);
+        // Create or get ApiExecution instance
+        ApiExecution apiExecution;
+        if (execution instanceof ApiExecution) {
+            apiExecution = (ApiExecution) execution;
+        } else {
+            // If we have a base execution, create a new API execution with the same ID
+            apiExecution = new ApiExecution();
+            apiExecution.setId(execution.getId());
+            apiExecution.setTemplateId(execution.getTemplateId());
+            apiExecution.setUserId(execution.getUserId());
+            apiExecution.setStatus(execution.getStatus());
+        }
 
-            // Mark as completed
-            apiExecution.markAsCompleted(result);
+        // Mark as running
+        apiExecution.markAsRunning();
 
-            // Save and return
-            return apiExecutionRepository.save(apiExecution);
+        // Check if the execution is already cancelled
+        if (inFlightExecutionRegistry.consumeCancellation(apiExecution.getId())) {
+            apiExecution.markAsCancelled();
+            return CompletableFuture.completedFuture(apiExecution);
+        }
+        executionStateWriter.write(apiExecution);
 
+        // Render the request from the compiled template
+        ApiRequestContext requestContext;
+        try {
+            requestContext = apiRenderPlanCache.render(apiTemplate, parameters);
         } catch (Exception e) {
-            // Handle other exceptions
             log.error("Error executing API template: {}", e.getMessage(), e);
-            execution.markAsFailed(e.getMessage());
-            return execution;
-        } finally {
-            // Clean up
-            cancelledExecutions.remove(execution.getId());
+            apiExecution.markAsFailed(e.getMessage());
+            return CompletableFuture.completedFuture(apiExecution);
         }
-    }
 
-    @Override
-    @Async("executionTaskExecutor")
-    public CompletableFuture<BaseExecution> executeAsync(BaseTemplate template, Map<String, Object> parameters, BaseExecution execution) {
-        try {
-            BaseExecution result = execute(template, parameters, execution);
-            return CompletableFuture.completedFuture(result);
-        } catch (Exception e) {
-            log.error("Error in async API execution: {}", e.getMessage(), e);
-            execution.markAsFailed(e.getMessage());
-            return CompletableFuture.completedFuture(execution);
+        // Send the request without blocking; cancelling the registered handle aborts it
+        List<Long> ownLatenciesMs = new CopyOnWriteArrayList<>();
+        Supplier<CompletableFuture<ApiHttpResponse>> cachedRequest = () -> apiResponseCache.execute(apiTemplate,
+                requestContext, context -> executeHttpRequest(apiTemplate, context, ownLatenciesMs));
+        List<Long> attemptLatenciesMs;
+        CompletableFuture<ApiHttpResponse> request;
+        if (apiTemplate.coalescesRequests()) {
+            // Identical concurrent executions share one upstream request and its attempt latencies
+            RequestCoalescer.CoalescedCall call = requestCoalescer.execute(apiTemplate, parameters, apiExecution.getId(),
+                    cachedRequest, ownLatenciesMs);
+            apiExecution.setCoalescedWith(call.leaderExecutionId());
+            attemptLatenciesMs = call.attemptLatenciesMs();
+            request = call.response();
+        } else {
+            attemptLatenciesMs = ownLatenciesMs;
+            request = cachedRequest.get();
         }
-    }
+        inFlightExecutionRegistry.register(apiExecution.getId(), this, request);
 
-    @Override
-    public boolean cancelExecution(UUID executionId) {
-        cancelledExecutions.put(executionId, true);
-        return true;
+        // Response handling runs on the response executor, which never rejects an answered call
+        return request
+                .thenApplyAsync(response -> handleResponse(apiExecution, response, attemptLatenciesMs), executionResponseExecutor)
+                .exceptionally(ex -> handleFailure(apiExecution, ex, attemptLatenciesMs))
+                .whenComplete((result, ex) -> inFlightExecutionRegistry.complete(apiExecution.getId()));
     }
 
-    private ApiRequestContext substituteParameters(ApiTemplate apiTemplate, Map<String, Object> parameters) {
-        ApiRequestContext context = new ApiRequestContext();
-
-        // Substitute in endpoint
-        context.setEndpoint(parameterSubstitutionUtil.substituteString(apiTemplate.getEndpoint(), parameters));
+    private BaseExecution handleResponse(ApiExecution apiExecution, ApiHttpResponse response, List<Long> attemptLatenciesMs) {
+        // Process the response
+        int statusCode = response.getStatusCode();
+        boolean successful = response.isSuccessful();
+        long responseTimeMs = response.getResponseTimeMs();
+
+        // Parse response body; spilled bodies stay in the response body store
+        Object responseBody = response.getBody();
+        if (response.isSpilled()) {
+            apiExecution.setResponseBodyRef(response.getBodyRef());
+            apiExecution.setResponseBodyNode(responseBodyStore.getNodeUrl());
+            apiExecution.setResponseBodyPreview(response.getBodyPreview());
+        } else if (responseBody != null && isJson(response.getContentType())) {
+            try {
+                responseBody = objectMapper.readValue(response.getBody(), Object.class);
+            } catch (Exception e) {
+                log.warn("Error parsing JSON response: {}", e.getMessage());
+                // Keep response as string if parsing fails
+            }
+        }
 
-        // Substitute in headers
-        if (apiTemplate.getHeaders() != null && !apiTemplate.getHeaders().isEmpty()) {
-            context.setHeaders(parameterSubstitutionUtil.substituteMap(apiTemplate.getHeaders(), parameters));
-        } else {
-            context.setHeaders(new HashMap<>());
+        // Update execution properties
+        apiExecution.setStatusCode(statusCode);
+        apiExecution.setResponseHeaders(response.getHeaders());
+        apiExecution.setResponseBody(responseBody);
+        apiExecution.setResponseBodySize(response.getBodySize());
+        apiExecution.setResponseTimeMs(responseTimeMs);
+        apiExecution.setSuccessful(successful);
+
+        // Set metrics
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("responseTimeMs", responseTimeMs);
+        metrics.put("statusCode", statusCode);
+        metrics.put("successful", successful);
+        putAttemptMetrics(metrics, attemptLatenciesMs);
+        if (response.getCacheStatus() != null) {
+            metrics.put("cache", response.getCacheStatus().name());
         }
+        apiExecution.setMetrics(metrics);
+
+        // Generate result object
+        Map<String, Object> result = new HashMap<>();
+        result.put("statusCode", statusCode);
+        result.put("successful", successful);
+        result.put("responseTimeMs", responseTimeMs);
+
+        // Mark as completed; the engine persists the final state
+        apiExecution.markAsCompleted(result);
+        return apiExecution;
+    }
+
+    private BaseExecution handleFailure(ApiExecution apiExecution, Throwable ex, List<Long> attemptLatenciesMs) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
 
-        // Add content type header if specified
-        if (apiTemplate.getContentType() != null && !apiTemplate.getContentType().isEmpty()) {
-            context.getHeaders().put(HttpHeaders.CONTENT_TYPE, apiTemplate.getContentType());
+        Map<String, Object> metrics = new HashMap<>();
+        putAttemptMetrics(metrics, attemptLatenciesMs);
+        apiExecution.setMetrics(metrics);
+
+        if (cause instanceof CancellationException) {
+            apiExecution.markAsCancelled();
+            return apiExecution;
         }
 
-        // Set HTTP method
-        context.setHttpMethod(apiTemplate.getHttpMethod());
-
-        // Substitute in query parameters
-        if (apiTemplate.getQueryParams() != null && !apiTemplate.getQueryParams().isEmpty()) {
-            Map<String, Object> queryParams = new HashMap<>();
-            apiTemplate.getQueryParams().forEach((key, value) -> {
-                String newKey = parameterSubstitutionUtil.substituteString(key, parameters);
-                Object newValue;
-                if (value instanceof String) {
-                    newValue = parameterSubstitutionUtil.substituteString((String) value, parameters);
-                } else {
-                    newValue = parameterSubstitutionUtil.substituteJson(value, parameters);
-                }
-                queryParams.put(newKey, newValue);
-            });
-            context.setQueryParams(queryParams);
+        if (cause instanceof TimeoutException || cause instanceof java.util.concurrent.TimeoutException) {
+            apiExecution.markAsTimedOut();
+            return apiExecution;
         }
 
-        // Substitute in request body
-        if (apiTemplate.getRequestBody() != null) {
-            context.setRequestBody(parameterSubstitutionUtil.substituteJson(apiTemplate.getRequestBody(), parameters));
+        if (cause instanceof CallNotPermittedException) {
+            log.debug("Execution {} rejected: {}", apiExecution.getId(), cause.getMessage());
+            apiExecution.markAsCircuitOpen(cause.getMessage());
+            return apiExecution;
         }
 
-        // Set timeout and follow redirects
-        context.setTimeout(apiTemplate.getTimeout());
-        context.setFollowRedirects(apiTemplate.getFollowRedirects());
+        log.error("Error executing API template: {}", cause.getMessage(), cause);
+        apiExecution.markAsFailed(cause.getMessage());
+        return apiExecution;
+    }
 
-        return context;
+    private void putAttemptMetrics(Map<String, Object> metrics, List<Long> attemptLatenciesMs) {
+        metrics.put("attempts", attemptLatenciesMs.size());
+        metrics.put("attemptLatenciesMs", new ArrayList<>(attemptLatenciesMs));
     }
 
-    private ResponseEntity<String> executeHttpRequest(ApiRequestContext context) throws ExecutionException, TimeoutException {
+    private boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
         try {
-            // Build the URI with query parameters
-            UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString(context.getEndpoint());
-            if (context.getQueryParams() != null && !context.getQueryParams().isEmpty()) {
-                context.getQueryParams().forEach((key, value) -> {
-                    if (value != null) {
-                        uriBuilder.queryParam(key, value.toString());
-                    }
-                });
-            }
-            URI uri = uriBuilder.build().toUri();
-
-            // Create headers
-            HttpHeaders headers = new HttpHeaders();
-            if (context.getHeaders() != null && !context.getHeaders().isEmpty()) {
-                context.getHeaders().forEach(headers::add);
-            }
-
-            // Create request entity
-            HttpEntity<?> requestEntity;
-            if (context.getRequestBody() != null) {
-                requestEntity = new HttpEntity<>(context.getRequestBody(), headers);
-            } else {
-                requestEntity = new HttpEntity<>(headers);
-            }
-
-            // Execute request
-            org.springframework.http.HttpMethod httpMethod = mapHttpMethod(context.getHttpMethod());
-            return restTemplate.exchange(uri, httpMethod, requestEntity, String.class);
-
-        } catch (ResourceAccessException e) {
-            // Handle connection or timeout issues
-            if (e.getCause() instanceof java.net.SocketTimeoutException) {
-                throw new TimeoutException("API request timed out: " + e.getMessage(), e);
-            } else {
-                throw new ExecutionException("Error connecting to API: " + e.getMessage(), e);
-            }
-        } catch (HttpStatusCodeException e) {
-            // For non-2xx responses, return the response with error details
-            return ResponseEntity.status(e.getStatusCode())
-                    .headers(e.getResponseHeaders())
-                    .body(e.getResponseBodyAsString());
-        } catch (Exception e) {
-            throw new ExecutionException("Error executing API request: " + e.getMessage(), e);
+            return MediaType.parseMediaType(contentType).includes(MediaType.APPLICATION_JSON);
+        } catch (InvalidMediaTypeException e) {
+            return false;
         }
     }
 
-    private org.springframework.http.HttpMethod mapHttpMethod(HttpMethod method) {
-        return switch (method) {
-            case GET -> GET;
-            case POST -> org.springframework.http.HttpMethod.POST;
-            case PUT -> org.springframework.http.HttpMethod.PUT;
-            case DELETE -> org.springframework.http.HttpMethod.DELETE;
-            case PATCH -> org.springframework.http.HttpMethod.PATCH;
-            case HEAD -> org.springframework.http.HttpMethod.HEAD;
-            case OPTIONS -> OPTIONS;
-        };
+    @Override
+    public boolean cancelExecution(UUID executionId) {
+        return inFlightExecutionRegistry.cancel(executionId);
+    }
+
+    private CompletableFuture<ApiHttpResponse> executeHttpRequest(ApiTemplate apiTemplate, ApiRequestContext context,
+                                                                  List<Long> attemptLatenciesMs) {
+        // The total deadline covers every attempt, backoff and rate limit wait; each of them only
+        // gets what is left of it
+        long totalTimeoutMs = apiHttpClient.totalTimeoutMs(context);
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(totalTimeoutMs);
+
+        // Every attempt may be hedged; every request waits for the rate limits and then goes through
+        // the breaker of the upstream host
+        Supplier<CompletableFuture<ApiHttpResponse>> request = () -> upstreamRateLimiter.execute(
+                apiTemplate.getId(), context.getEndpoint(), remainingMs(deadlineNanos),
+                () -> upstreamCircuitBreakers.execute(context.getEndpoint(),
+                        () -> apiHttpClient.execute(context, remainingMs(deadlineNanos))));
+        CompletableFuture<ApiHttpResponse> response = apiRetryExecutor.execute(apiTemplate.getRetryPolicy(),
+                context.getHttpMethod(), deadlineNanos,
+                () -> apiHedgingExecutor.execute(apiTemplate.getId(), apiTemplate.getHedgePolicy(),
+                        context.getHttpMethod(), request),
+                attemptLatenciesMs);
+        return response.orTimeout(totalTimeoutMs, TimeUnit.MILLISECONDS);
     }
 
-    @Getter
-    @Setter
-    private static class ApiRequestContext {
-        private String endpoint;
-        private HttpMethod httpMethod;
-        private Map<String, String> headers;
-        private Map<String, Object> queryParams;
-        private Object requestBody;
-        private Integer timeout;
-        private Boolean followRedirects;
+    private static long remainingMs(long deadlineNanos) {
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,289 @@
+package viettel.dac.backend.execution.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import viettel.dac.backend.execution.http.ApiHttpResponse;
+import viettel.dac.backend.template.entity.HedgePolicy;
+import viettel.dac.backend.template.enums.HttpMethod;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Sends hedged requests for templates with a {@link HedgePolicy}.
+ * If an attempt has not answered within the hedge delay another request is sent, the first response
+ * wins and the others are cancelled. Hedges draw from a global budget that is refilled by a fraction
+ * of the primary requests, so a slow upstream cannot make hedging multiply its load.
+ * <p>
+ * The hedge delay follows the latencies of the primary requests, including the ones a hedge beat.
+ */
+@Component
+@Slf4j
+public class ApiHedgingExecutor {
+
+    private final TaskScheduler executionScheduler;
+    private final Map<UUID, LatencyWindow> latencyWindows = new ConcurrentHashMap<>();
+    private final HedgeBudget budget;
+
+    private final Counter hedgesSent;
+    private final Counter hedgesWon;
+    private final Counter hedgesRejected;
+
+    @Value("${tool-template.execution.hedging.latency-window-size:100}")
+    private int latencyWindowSize = 100;
+
+    @Value("${tool-template.execution.hedging.min-samples:20}")
+    private int minSamples = 20;
+
+    @Autowired
+    public ApiHedgingExecutor(@Qualifier("executionScheduler") TaskScheduler executionScheduler,
+                              MeterRegistry meterRegistry,
+                              @Value("${tool-template.execution.hedging.budget-ratio:0.1}") double budgetRatio,
+                              @Value("${tool-template.execution.hedging.budget-max-tokens:50}") double budgetMaxTokens) {
+        this.executionScheduler = executionScheduler;
+        this.budget = new HedgeBudget(budgetRatio, budgetMaxTokens);
+
+        this.hedgesSent = Counter.builder("execution.hedge.sent")
+                .description("Hedged requests sent")
+                .register(meterRegistry);
+        this.hedgesWon = Counter.builder("execution.hedge.won")
+                .description("Hedged requests that answered before the original request")
+                .register(meterRegistry);
+        this.hedgesRejected = Counter.builder("execution.hedge.rejected")
+                .description("Hedged requests not sent because the hedge budget was exhausted")
+                .register(meterRegistry);
+        Gauge.builder("execution.hedge.budget", budget, HedgeBudget::getTokens)
+                .description("Hedged requests currently allowed by the hedge budget")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run the call, hedging it when the policy allows it for the HTTP method.
+     * The first response completes the returned future, whatever its status code; the call fails
+     * only when every request sent has failed. Cancelling the returned future cancels all requests.
+     */
+    public CompletableFuture<ApiHttpResponse> execute(UUID templateId, HedgePolicy policy, HttpMethod httpMethod,
+                                                      Supplier<CompletableFuture<ApiHttpResponse>> call) {
+        if (policy == null || !policy.allowsHedging(httpMethod)) {
+            return call.get();
+        }
+
+        LatencyWindow latencyWindow = latencyWindows.computeIfAbsent(templateId, id -> new LatencyWindow(latencyWindowSize));
+        budget.deposit();
+
+        HedgeRun run = new HedgeRun(policy, call, latencyWindow);
+        run.launch();
+        return run.result;
+    }
+
+    private long hedgeDelayMs(HedgePolicy policy, LatencyWindow latencyWindow) {
+        if (policy.getDelayMs() != null) {
+            return policy.getDelayMs();
+        }
+        long p95 = latencyWindow.percentile(0.95, minSamples);
+        return p95 < 0 ? -1 : Math.max(p95, policy.getMinDelayMs());
+    }
+
+    private final class HedgeRun {
+
+        private final HedgePolicy policy;
+        private final Supplier<CompletableFuture<ApiHttpResponse>> call;
+        private final LatencyWindow latencyWindow;
+
+        private final CompletableFuture<ApiHttpResponse> result = new CompletableFuture<>();
+        private final List<CompletableFuture<ApiHttpResponse>> requests = new CopyOnWriteArrayList<>();
+        private volatile Future<?> scheduledHedge;
+        private int failedCount;
+
+        private HedgeRun(HedgePolicy policy, Supplier<CompletableFuture<ApiHttpResponse>> call, LatencyWindow latencyWindow) {
+            this.policy = policy;
+            this.call = call;
+            this.latencyWindow = latencyWindow;
+
+            // Cancel the losers, the scheduled hedge, or everything when the run is cancelled
+            result.whenComplete((response, ex) -> {
+                Future<?> hedge = scheduledHedge;
+                if (hedge != null) {
+                    hedge.cancel(false);
+                }
+                for (CompletableFuture<ApiHttpResponse> request : requests) {
+                    request.cancel(true);
+                }
+            });
+        }
+
+        private void launch() {
+            if (result.isDone()) {
+                return;
+            }
+
+            int index = requests.size();
+            long sentNanos = System.nanoTime();
+            CompletableFuture<ApiHttpResponse> request = call.get();
+            requests.add(request);
+            // The run may have completed while the request was being created
+            if (result.isDone()) {
+                request.cancel(true);
+                return;
+            }
+
+            request.whenComplete((response, ex) -> {
+                if (index == 0) {
+                    recordPrimaryLatency(response, ex, sentNanos);
+                }
+                if (ex == null) {
+                    if (result.complete(response) && index > 0) {
+                        hedgesWon.increment();
+                    }
+                    return;
+                }
+                onFailure(ex);
+            });
+
+            scheduleHedge(index + 1);
+        }
+
+        private void scheduleHedge(int index) {
+            if (index > policy.getMaxHedges()) {
+                return;
+            }
+            long delayMs = hedgeDelayMs(policy, latencyWindow);
+            if (delayMs < 0) {
+                // Not enough latency samples yet
+                return;
+            }
+
+            scheduledHedge = executionScheduler.schedule(this::hedge, Instant.now().plusMillis(delayMs));
+            if (result.isDone()) {
+                scheduledHedge.cancel(false);
+            }
+        }
+
+        private void hedge() {
+            if (result.isDone()) {
+                return;
+            }
+            if (!budget.tryWithdraw()) {
+                hedgesRejected.increment();
+                return;
+            }
+
+            hedgesSent.increment();
+            log.debug("No response after hedge delay, sending hedged request {}", requests.size());
+            launch();
+        }
+
+        /**
+         * Only primary requests are sampled, as hedges are sent just when the primary is already slow.
+         * A primary cancelled because a hedge answered first took at least as long as it ran, which
+         * keeps the slow requests in the window.
+         */
+        private void recordPrimaryLatency(ApiHttpResponse response, Throwable ex, long sentNanos) {
+            if (ex == null) {
+                latencyWindow.record(response.getResponseTimeMs());
+            } else if (ex instanceof CancellationException && result.isDone() && !result.isCompletedExceptionally()) {
+                latencyWindow.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentNanos));
+            }
+        }
+
+        /**
+         * Fail the run once every request sent has failed. A failed request does not trigger
+         * an early hedge; retrying failures is left to the retry policy.
+         */
+        private void onFailure(Throwable ex) {
+            boolean allFailed;
+            synchronized (this) {
+                failedCount++;
+                allFailed = failedCount == requests.size();
+            }
+            if (allFailed) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                result.completeExceptionally(cause);
+            }
+        }
+    }
+
+    /**
+     * Token budget for hedged requests. Every primary request adds {@code ratio} tokens up to
+     * {@code maxTokens}, and every hedge takes one.
+     */
+    static final class HedgeBudget {
+
+        private final double ratio;
+        private final double maxTokens;
+        private double tokens;
+
+        HedgeBudget(double ratio, double maxTokens) {
+            this.ratio = ratio;
+            this.maxTokens = maxTokens;
+            this.tokens = maxTokens;
+        }
+
+        synchronized void deposit() {
+            tokens = Math.min(maxTokens, tokens + ratio);
+        }
+
+        synchronized boolean tryWithdraw() {
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+
+        synchronized double getTokens() {
+            return tokens;
+        }
+    }
+
+    /**
+     * Latencies of the most recent responses of one template.
+     */
+    static final class LatencyWindow {
+
+        private final long[] samples;
+        private int count;
+        private int next;
+
+        LatencyWindow(int size) {
+            this.samples = new long[size];
+        }
+
+        synchronized void record(long latencyMs) {
+            samples[next] = latencyMs;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+        }
+
+        /**
+         * The given percentile of the window, or -1 with fewer than {@code minSamples} samples.
+         */
+        synchronized long percentile(double percentile, int minSamples) {
+            if (count == 0 || count < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(samples, count);
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * count) - 1;
+            return sorted[Math.max(0, Math.min(index, count - 1))];
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package viettel.dac.backend.execution.engine;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpHeaders;
+import viettel.dac.backend.execution.exception.ExecutionException;
+import viettel.dac.backend.execution.http.ApiRequestContext;
+import viettel.dac.backend.execution.http.StreamingJsonBody;
+import viettel.dac.backend.execution.util.CompiledJson;
+import viettel.dac.backend.execution.util.CompiledText;
+import viettel.dac.backend.template.entity.ApiTemplate;
+import viettel.dac.backend.template.enums.HttpMethod;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * An API template compiled for rendering: every field that takes parameters is split once into
+ * literal segments and parameter slots, so an execution only has to fill in the slots.
+ * Plans are immutable and shared by all executions of the same template version.
+ */
+final class ApiRenderPlan {
+
+    private final UUID templateId;
+    private final String version;
+    private final Instant lastModifiedAt;
+
+    private final CompiledText endpoint;
+    private final HttpMethod httpMethod;
+    private final List<CompiledText[]> headers;
+    private final String contentType;
+    private final List<QueryParam> queryParams;
+    private final Integer timeout;
+    private final Boolean followRedirects;
+
+    // A body given as a JSON string is rendered back to a string
+    private final Object rawBody;
+    private final CompiledJson body;
+    private final CompiledText textBody;
+    private final boolean jsonStringBody;
+    private final ObjectMapper objectMapper;
+
+    private final Set<String> parameterNames;
+
+    private ApiRenderPlan(ApiTemplate template, ObjectMapper objectMapper) {
+        this.templateId = template.getId();
+        this.version = template.getVersion();
+        this.lastModifiedAt = template.getLastModifiedAt();
+        this.objectMapper = objectMapper;
+
+        Set<String> names = new LinkedHashSet<>();
+
+        this.endpoint = CompiledText.compile(template.getEndpoint());
+        endpoint.collectParameterNames(names);
+        this.httpMethod = template.getHttpMethod();
+
+        List<CompiledText[]> compiledHeaders = new ArrayList<>();
+        if (template.getHeaders() != null) {
+            template.getHeaders().forEach((name, value) -> {
+                CompiledText[] header = {CompiledText.compile(name), CompiledText.compile(value != null ? value : "")};
+                header[0].collectParameterNames(names);
+                header[1].collectParameterNames(names);
+                compiledHeaders.add(header);
+            });
+        }
+        this.headers = List.copyOf(compiledHeaders);
+        this.contentType = template.getContentType();
+
+        List<QueryParam> compiledQueryParams = new ArrayList<>();
+        if (template.getQueryParams() != null) {
+            template.getQueryParams().forEach((name, value) -> {
+                QueryParam queryParam = new QueryParam(CompiledText.compile(name), CompiledJson.compile(value));
+                queryParam.name().collectParameterNames(names);
+                queryParam.value().collectParameterNames(names);
+                compiledQueryParams.add(queryParam);
+            });
+        }
+        this.queryParams = List.copyOf(compiledQueryParams);
+
+        this.timeout = template.getTimeout();
+        this.followRedirects = template.getFollowRedirects();
+
+        // String bodies are JSON documents when they parse, plain text otherwise
+        this.rawBody = template.getRequestBody();
+        Object jsonBody = rawBody;
+        boolean jsonString = false;
+        if (rawBody instanceof String text) {
+            try {
+                jsonBody = objectMapper.readValue(text, Object.class);
+                jsonString = true;
+            } catch (JsonProcessingException e) {
+                jsonBody = null;
+            }
+        }
+        this.jsonStringBody = jsonString;
+        this.textBody = rawBody instanceof String text && !jsonString ? CompiledText.compile(text) : null;
+        this.body = rawBody != null && textBody == null ? CompiledJson.compile(jsonBody) : null;
+        if (body != null) {
+            body.collectParameterNames(names);
+        } else if (textBody != null) {
+            textBody.collectParameterNames(names);
+        }
+
+        this.parameterNames = Collections.unmodifiableSet(names);
+    }
+
+    static ApiRenderPlan compile(ApiTemplate template, ObjectMapper objectMapper) {
+        return new ApiRenderPlan(template, objectMapper);
+    }
+
+    /**
+     * Whether the plan was compiled from this state of the template.
+     */
+    boolean isCompiledFrom(ApiTemplate template) {
+        return templateId.equals(template.getId())
+                && Objects.equals(version, template.getVersion())
+                && Objects.equals(lastModifiedAt, template.getLastModifiedAt());
+    }
+
+    String getVersion() {
+        return version;
+    }
+
+    /**
+     * Names of all parameters referenced by the template, in order of first use.
+     */
+    Set<String> getParameterNames() {
+        return parameterNames;
+    }
+
+    List<String> missingParameters(Map<String, Object> parameters) {
+        List<String> missing = new ArrayList<>();
+        for (String name : parameterNames) {
+            if (parameters == null || parameters.get(name) == null) {
+                missing.add(name);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Render the request for the given parameters. Placeholders without a value are left unchanged.
+     */
+    ApiRequestContext render(Map<String, Object> parameters) {
+        ApiRequestContext context = new ApiRequestContext();
+        context.setEndpoint(endpoint.render(parameters));
+        context.setHttpMethod(httpMethod);
+
+        Map<String, String> renderedHeaders = new HashMap<>((headers.size() + 1) * 4 / 3 + 1);
+        for (CompiledText[] header : headers) {
+            renderedHeaders.put(header[0].render(parameters), header[1].render(parameters));
+        }
+        if (contentType != null && !contentType.isEmpty()) {
+            renderedHeaders.put(HttpHeaders.CONTENT_TYPE, contentType);
+        }
+        context.setHeaders(renderedHeaders);
+
+        if (!queryParams.isEmpty()) {
+            Map<String, Object> renderedQueryParams = new HashMap<>(queryParams.size() * 4 / 3 + 1);
+            for (QueryParam queryParam : queryParams) {
+                renderedQueryParams.put(queryParam.name().render(parameters), queryParam.value().render(parameters));
+            }
+            context.setQueryParams(renderedQueryParams);
+        }
+
+        context.setRequestBody(renderBody(parameters));
+        context.setTimeout(timeout);
+        context.setFollowRedirects(followRedirects);
+        return context;
+    }
+
+    private Object renderBody(Map<String, Object> parameters) {
+        if (textBody != null) {
+            return textBody.render(parameters);
+        }
+        if (body == null) {
+            return null;
+        }
+        if (!jsonStringBody) {
+            // Rendered while the request is written
+            return new StreamingJsonBody(body, parameters);
+        }
+
+        // Without substitutions the original document is sent as written
+        if (body.isConstant() || parameters == null || parameters.isEmpty()) {
+            return rawBody;
+        }
+        StringWriter writer = new StringWriter(body.estimatedSize());
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            body.write(generator, parameters);
+        } catch (IOException e) {
+            throw new ExecutionException("Error rendering request body", e);
+        }
+        return writer.toString();
+    }
+
+    private record QueryParam(CompiledText name, CompiledJson value) {
+    }
+}
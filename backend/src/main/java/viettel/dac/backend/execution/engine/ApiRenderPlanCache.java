@@ -0,0 +1,55 @@
+package viettel.dac.backend.execution.engine;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import viettel.dac.backend.execution.http.ApiRequestContext;
+import viettel.dac.backend.template.entity.ApiTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled {@link ApiRenderPlan}s by template id. A plan is reused while the template keeps its
+ * version and last modification time, and is evicted when the template is updated or deleted.
+ * The modification time check also catches updates made through another backend instance.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ApiRenderPlanCache {
+
+    private final ObjectMapper objectMapper;
+    private final Map<UUID, ApiRenderPlan> plans = new ConcurrentHashMap<>();
+
+    ApiRenderPlan planFor(ApiTemplate template) {
+        if (template.getId() == null) {
+            // Unsaved templates are compiled every time
+            return ApiRenderPlan.compile(template, objectMapper);
+        }
+
+        ApiRenderPlan plan = plans.get(template.getId());
+        if (plan != null && plan.isCompiledFrom(template)) {
+            return plan;
+        }
+
+        ApiRenderPlan compiled = ApiRenderPlan.compile(template, objectMapper);
+        plans.put(template.getId(), compiled);
+        log.debug("Compiled render plan for template {} version {} with parameters {}",
+                template.getId(), compiled.getVersion(), compiled.getParameterNames());
+        return compiled;
+    }
+
+    /**
+     * Render the outbound request of the template for the given parameters.
+     */
+    public ApiRequestContext render(ApiTemplate template, Map<String, Object> parameters) {
+        return planFor(template).render(parameters);
+    }
+
+    public void evict(UUID templateId) {
+        plans.remove(templateId);
+    }
+}
@@ -0,0 +1,186 @@
+package viettel.dac.backend.execution.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import viettel.dac.backend.execution.exception.ExecutionException;
+import viettel.dac.backend.execution.exception.RateLimitExceededException;
+import viettel.dac.backend.execution.exception.TimeoutException;
+import viettel.dac.backend.execution.http.ApiHttpResponse;
+import viettel.dac.backend.template.entity.RetryPolicy;
+import viettel.dac.backend.template.enums.HttpMethod;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs API calls under the retry policy of their template.
+ * Backoff delays are scheduled on the execution scheduler, so no thread sleeps between attempts.
+ */
+@Component
+@Slf4j
+public class ApiRetryExecutor {
+
+    private final TaskScheduler executionScheduler;
+
+    @Autowired
+    public ApiRetryExecutor(@Qualifier("executionScheduler") TaskScheduler executionScheduler) {
+        this.executionScheduler = executionScheduler;
+    }
+
+    /**
+     * Run attempts until one succeeds or is not retryable, the policy is exhausted, the next retry
+     * would start after {@code deadlineNanos} (a {@link System#nanoTime()} value), or the returned
+     * future is cancelled. The latency of every attempt is appended to {@code attemptLatenciesMs}.
+     * Cancelling the returned future, or completing it exceptionally, aborts the current attempt
+     * and any scheduled retry.
+     */
+    public CompletableFuture<ApiHttpResponse> execute(RetryPolicy policy, HttpMethod httpMethod, long deadlineNanos,
+                                                      Supplier<CompletableFuture<ApiHttpResponse>> attempt,
+                                                      List<Long> attemptLatenciesMs) {
+        RetryRun run = new RetryRun(policy, httpMethod, deadlineNanos, attempt, attemptLatenciesMs);
+        run.attempt(1);
+        return run.result;
+    }
+
+    private final class RetryRun {
+
+        private final RetryPolicy policy;
+        private final HttpMethod httpMethod;
+        private final long deadlineNanos;
+        private final Supplier<CompletableFuture<ApiHttpResponse>> attempt;
+        private final List<Long> attemptLatenciesMs;
+
+        private final CompletableFuture<ApiHttpResponse> result = new CompletableFuture<>();
+        // The running attempt or the scheduled retry
+        private final AtomicReference<Future<?>> pending = new AtomicReference<>();
+
+        private RetryRun(RetryPolicy policy, HttpMethod httpMethod, long deadlineNanos,
+                         Supplier<CompletableFuture<ApiHttpResponse>> attempt, List<Long> attemptLatenciesMs) {
+            this.policy = policy;
+            this.httpMethod = httpMethod;
+            this.deadlineNanos = deadlineNanos;
+            this.attempt = attempt;
+            this.attemptLatenciesMs = attemptLatenciesMs;
+
+            // Cancelled, or timed out by the caller's deadline
+            result.whenComplete((response, ex) -> {
+                Future<?> current = pending.get();
+                if (ex != null && current != null) {
+                    current.cancel(true);
+                }
+            });
+        }
+
+        private void attempt(int attemptNumber) {
+            if (result.isDone()) {
+                return;
+            }
+
+            long startNanos = System.nanoTime();
+            CompletableFuture<ApiHttpResponse> call = attempt.get();
+            setPending(call);
+
+            call.whenComplete((response, ex) -> {
+                attemptLatenciesMs.add((System.nanoTime() - startNanos) / 1_000_000);
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+
+                long delayMs = retryDelayMs(attemptNumber, response, cause);
+                if (delayMs < 0) {
+                    if (cause != null) {
+                        result.completeExceptionally(cause);
+                    } else {
+                        result.complete(response);
+                    }
+                    return;
+                }
+
+                log.debug("Attempt {} failed ({}), retrying in {} ms", attemptNumber,
+                        cause != null ? cause.getMessage() : "status " + response.getStatusCode(), delayMs);
+                setPending(executionScheduler.schedule(() -> attempt(attemptNumber + 1), Instant.now().plusMillis(delayMs)));
+            });
+        }
+
+        private void setPending(Future<?> future) {
+            pending.set(future);
+            // The run may have ended while the future was being created
+            if (result.isCompletedExceptionally()) {
+                future.cancel(true);
+            }
+        }
+
+        /**
+         * Delay before the next attempt, or -1 if the outcome is final.
+         */
+        private long retryDelayMs(int attemptNumber, ApiHttpResponse response, Throwable cause) {
+            if (policy == null || attemptNumber >= policy.getMaxAttempts() || !policy.allowsRetry(httpMethod)) {
+                return -1;
+            }
+
+            if (cause != null && !isRetryable(cause)) {
+                return -1;
+            }
+            if (cause == null && !policy.getRetryableStatusCodes().contains(response.getStatusCode())) {
+                return -1;
+            }
+
+            long backoffMs = policy.backoffMs(attemptNumber);
+            long delayMs = backoffMs - (long) (backoffMs * policy.getJitter() * ThreadLocalRandom.current().nextDouble());
+
+            // Honour Retry-After from 429 and 503 responses, within the policy's maximum backoff
+            if (response != null) {
+                long retryAfterMs = retryAfterMs(response.getHeaders());
+                if (retryAfterMs > delayMs) {
+                    delayMs = Math.min(retryAfterMs, policy.getMaxBackoffMs());
+                }
+            }
+
+            // A retry that could not start before the deadline would only time out
+            if (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs) - deadlineNanos >= 0) {
+                return -1;
+            }
+            return delayMs;
+        }
+
+        private boolean isRetryable(Throwable cause) {
+            if (cause instanceof CancellationException || cause instanceof java.util.concurrent.TimeoutException
+                    || cause instanceof RateLimitExceededException) {
+                // Cancelled, the total deadline of the call has passed, or the rate limit would delay it too long
+                return false;
+            }
+            if (cause instanceof TimeoutException) {
+                return policy.isRetryOnTimeout();
+            }
+            return cause instanceof ExecutionException && policy.isRetryOnConnectionError();
+        }
+
+        private long retryAfterMs(Map<String, String> headers) {
+            if (headers == null) {
+                return -1;
+            }
+            for (Map.Entry<String, String> header : headers.entrySet()) {
+                if (HttpHeaders.RETRY_AFTER.equalsIgnoreCase(header.getKey())) {
+                    try {
+                        return Long.parseLong(header.getValue().trim()) * 1000;
+                    } catch (NumberFormatException e) {
+                        // HTTP-date values are ignored
+                        return -1;
+                    }
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -1,5 +1,51 @@
 package viettel.dac.backend.execution.engine;
 
-public class DefaultExecutionStrategy {
-    //TODO: Implement Execution Strategy
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import viettel.dac.backend.execution.entity.BaseExecution;
+import viettel.dac.backend.execution.exception.ExecutionException;
+import viettel.dac.backend.execution.exception.InvalidParameterException;
+import viettel.dac.backend.template.entity.BaseTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Fallback strategy for template types without a specialized plugin.
+ * Such templates cannot be executed, so executions fail with an explanatory message.
+ */
+@Component
+@Slf4j
+public class DefaultExecutionStrategy implements ExecutionStrategy {
+
+    @Override
+    public String getTemplateType() {
+        return "DEFAULT";
+    }
+
+    @Override
+    public void validate(BaseTemplate template, Map<String, Object> parameters) throws ExecutionException {
+        if (template == null) {
+            throw new InvalidParameterException("Template cannot be null");
+        }
+    }
+
+    @Override
+    public BaseExecution execute(BaseTemplate template, Map<String, Object> parameters, BaseExecution execution) throws ExecutionException {
+        log.warn("No execution strategy registered for template type: {}", template.getTemplateType());
+        execution.markAsFailed("No execution strategy registered for template type: " + template.getTemplateType());
+        return execution;
+    }
+
+    @Override
+    public CompletableFuture<BaseExecution> executeAsync(BaseTemplate template, Map<String, Object> parameters, BaseExecution execution) {
+        return CompletableFuture.completedFuture(execute(template, parameters, execution));
+    }
+
+    @Override
+    public boolean cancelExecution(UUID executionId) {
+        // Nothing is ever in flight
+        return false;
+    }
 }
@@ -5,10 +5,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import viettel.dac.backend.common.exception.ResourceNotFoundException;
 import viettel.dac.backend.execution.entity.BaseExecution;
-import viettel.dac.backend.execution.repository.ExecutionRepository;
 import viettel.dac.backend.plugin.service.PluginService;
 import viettel.dac.backend.template.entity.BaseTemplate;
-import viettel.dac.backend.template.repository.TemplateRepository;
 
 import java.util.Map;
 import java.util.UUID;
@@ -18,64 +16,74 @@ import java.util.concurrent.CompletableFuture;
 @Slf4j
 public class ExecutionEngine {
 
-    private final TemplateRepository templateRepository;
-    private final ExecutionRepository executionRepository;
+    private final TemplateSnapshotCache templateSnapshotCache;
     private final PluginService pluginService;
+    private final InFlightExecutionRegistry inFlightExecutionRegistry;
+    private final ExecutionStateWriter executionStateWriter;
+    private final FairExecutionScheduler fairExecutionScheduler;
 
     @Autowired
     public ExecutionEngine(
-            TemplateRepository templateRepository,
-            ExecutionRepository executionRepository,
-            PluginService pluginService) {
-        this.templateRepository = templateRepository;
-        this.executionRepository = executionRepository;
+            TemplateSnapshotCache templateSnapshotCache,
+            PluginService pluginService,
+            InFlightExecutionRegistry inFlightExecutionRegistry,
+            ExecutionStateWriter executionStateWriter,
+            FairExecutionScheduler fairExecutionScheduler) {
+        this.templateSnapshotCache = templateSnapshotCache;
         this.pluginService = pluginService;
+        this.inFlightExecutionRegistry = inFlightExecutionRegistry;
+        this.executionStateWriter = executionStateWriter;
+        this.fairExecutionScheduler = fairExecutionScheduler;
     }
 
     /**
-     * Execute a template with the given parameters.
+     * Load a template and validate the parameters against it.
      */
-    public CompletableFuture<BaseExecution> execute(UUID executionId, UUID templateId, Map<String, Object> parameters) {
-        // Get the template
-        BaseTemplate template = templateRepository.findById(templateId)
+    public BaseTemplate validate(UUID templateId, Map<String, Object> parameters) {
+        // Get the template snapshot
+        BaseTemplate template = templateSnapshotCache.find(templateId)
                 .orElseThrow(() -> new ResourceNotFoundException("Template not found with ID: " + templateId));
 
-        // Get the execution record
-        BaseExecution execution = executionRepository.findById(executionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Execution not found with ID: " + executionId));
-
-        // Get the appropriate execution strategy for the template type through plugin system
-        ExecutionStrategy strategy = pluginService.getExecutionStrategy(template.getTemplateType().name());
-
         // Validate the template and parameters
-        strategy.validate(template, parameters);
+        getStrategy(template).validate(template, parameters);
+
+        return template;
+    }
 
+    /**
+     * Execute an already loaded and validated template for an existing execution record.
+     * Callers hand over the template and the execution as loaded; neither is read again.
+     * The final state is persisted through the {@link ExecutionStateWriter}.
+     */
+    public CompletableFuture<BaseExecution> dispatch(BaseTemplate template, BaseExecution execution, Map<String, Object> parameters) {
         // Execute the template asynchronously
-        return strategy.executeAsync(template, parameters, execution)
-                .thenApply(executionRepository::save)
+        return getStrategy(template).executeAsync(template, parameters, execution)
                 .exceptionally(ex -> {
                     log.error("Error during execution: {}", ex.getMessage(), ex);
                     execution.markAsFailed(ex.getMessage());
-                    return executionRepository.save(execution);
-                });
+                    return execution;
+                })
+                .thenCompose(executionStateWriter::writeFinal);
+    }
+
+    /**
+     * Get the appropriate execution strategy for the template type through plugin system.
+     */
+    public ExecutionStrategy getStrategy(BaseTemplate template) {
+        return pluginService.getExecutionStrategy(template.getTemplateType().name());
     }
 
     /**
      * Cancel an ongoing execution.
+     * A running execution is aborted by its owning strategy, and one still queued in the scheduler
+     * is removed from the queue; any other execution that has not started yet is dropped when it does.
+     *
+     * @return true if running or queued work was stopped on this instance
      */
     public boolean cancelExecution(UUID executionId) {
-        // Get the execution record
-        BaseExecution execution = executionRepository.findById(executionId)
-                .orElseThrow(() -> new ResourceNotFoundException("Execution not found with ID: " + executionId));
-
-        // Try all registered plugin strategies to cancel the execution
-        for (String type : pluginService.getAllPluginTypes()) {
-            ExecutionStrategy strategy = pluginService.getExecutionStrategy(type);
-            if (strategy.cancelExecution(executionId)) {
-                return true;
-            }
-        }
-
-        return false;
+        return inFlightExecutionRegistry.getOwner(executionId)
+                .map(strategy -> strategy.cancelExecution(executionId))
+                .orElseGet(() -> fairExecutionScheduler.cancel(executionId)
+                        || inFlightExecutionRegistry.cancel(executionId));
     }
 }
\ No newline at end of file
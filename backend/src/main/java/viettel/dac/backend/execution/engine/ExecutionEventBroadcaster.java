@@ -0,0 +1,340 @@
+package viettel.dac.backend.execution.engine;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import viettel.dac.backend.common.exception.ResourceNotFoundException;
+import viettel.dac.backend.execution.dto.ExecutionEventDto;
+import viettel.dac.backend.execution.enums.ExecutionStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Pushes execution status transitions to Server-Sent Events subscribers, for one execution or for
+ * all executions of a user. Streams run on servlet async requests, so an open stream holds no
+ * request thread.
+ * <p>
+ * Transitions are published on {@value #EVENT_CHANNEL} once they are committed, and every backend
+ * instance delivers them to the streams it holds, whichever instance ran the execution. When Redis
+ * is unavailable they are delivered on this instance only. Idle streams get a comment every
+ * {@code heartbeatInterval} milliseconds, which keeps proxies from closing them and detects clients
+ * that went away.
+ * <p>
+ * Writing to a stream blocks while the client is slow, so every stream has its own queue, drained
+ * in order by at most one thread of {@code executionEventExecutor} at a time. Listener and scheduler
+ * threads only enqueue. A stream whose client falls {@code maxQueued} events behind is closed; the
+ * client reconnects and starts again from the current state.
+ */
+@Component
+@Slf4j
+public class ExecutionEventBroadcaster implements MessageListener {
+
+    static final String EVENT_CHANNEL = "execution-events";
+    private static final String EVENT_NAME = "execution";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final TaskScheduler executionScheduler;
+    private final Executor eventExecutor;
+
+    private final Map<UUID, Set<Subscription>> executionSubscriptions = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<Subscription>> userSubscriptions = new ConcurrentHashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private ScheduledFuture<?> heartbeat;
+
+    private final Counter publishedCounter;
+    private final Counter deliveredCounter;
+
+    @Value("${tool-template.execution.events.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${tool-template.execution.events.timeout:1800000}")
+    private long timeoutMs = 1800000;
+
+    @Value("${tool-template.execution.events.heartbeat-interval:15000}")
+    private long heartbeatIntervalMs = 15000;
+
+    @Value("${tool-template.execution.events.max-queued:1000}")
+    private int maxQueued = 1000;
+
+    @Autowired
+    public ExecutionEventBroadcaster(
+            RedisTemplate<String, Object> redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            ObjectMapper objectMapper,
+            @Qualifier("executionScheduler") TaskScheduler executionScheduler,
+            @Qualifier("executionEventExecutor") Executor eventExecutor,
+            MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.executionScheduler = executionScheduler;
+        this.eventExecutor = eventExecutor;
+
+        this.publishedCounter = Counter.builder("execution.events.published")
+                .description("Execution status transitions published to event streams")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("execution.events.delivered")
+                .description("Execution status events sent to subscribers of this instance")
+                .register(meterRegistry);
+        Gauge.builder("execution.events.subscribers", subscriptions, Set::size)
+                .description("Open execution event streams on this instance")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        listenerContainer.addMessageListener(this, new ChannelTopic(EVENT_CHANNEL));
+        heartbeat = executionScheduler.scheduleAtFixedRate(this::sendHeartbeats, Duration.ofMillis(heartbeatIntervalMs));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (heartbeat != null) {
+            heartbeat.cancel(false);
+        }
+        subscriptions.forEach(Subscription::complete);
+    }
+
+    /**
+     * Stream the transitions of one execution, starting with its current state, until it is final.
+     *
+     * @param currentState loads the current state; read after subscribing so no transition is missed
+     */
+    public SseEmitter subscribeExecution(UUID executionId, Supplier<Optional<ExecutionEventDto>> currentState) {
+        Subscription subscription = new Subscription(executionId, null);
+        register(executionSubscriptions, executionId, subscription);
+
+        Optional<ExecutionEventDto> current;
+        try {
+            current = currentState.get();
+        } catch (RuntimeException e) {
+            subscription.complete();
+            throw e;
+        }
+        if (current.isEmpty()) {
+            subscription.complete();
+            throw new ResourceNotFoundException("Execution not found with ID: " + executionId);
+        }
+        subscription.send(current.get());
+        return subscription.emitter;
+    }
+
+    /**
+     * Stream the transitions of every execution of the user until the client disconnects.
+     */
+    public SseEmitter subscribeUser(UUID userId) {
+        Subscription subscription = new Subscription(null, userId);
+        register(userSubscriptions, userId, subscription);
+        return subscription.emitter;
+    }
+
+    /**
+     * Publish committed transitions to every instance, as one message.
+     */
+    public void publish(List<ExecutionEventDto> events) {
+        if (!enabled || events.isEmpty()) {
+            return;
+        }
+        publishedCounter.increment(events.size());
+        try {
+            redisTemplate.convertAndSend(EVENT_CHANNEL, objectMapper.writeValueAsString(events));
+        } catch (Exception e) {
+            log.warn("Redis unavailable, {} execution events delivered on this instance only: {}", events.size(), e.getMessage());
+            deliver(events);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        if (subscriptions.isEmpty()) {
+            return;
+        }
+        Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        try {
+            deliver(objectMapper.readValue(String.valueOf(payload), new TypeReference<List<ExecutionEventDto>>() {
+            }));
+        } catch (Exception e) {
+            log.warn("Ignoring malformed execution events: {}", e.getMessage());
+        }
+    }
+
+    private void deliver(List<ExecutionEventDto> events) {
+        for (ExecutionEventDto event : events) {
+            Set<Subscription> byExecution = executionSubscriptions.get(event.getExecutionId());
+            if (byExecution != null) {
+                byExecution.forEach(subscription -> subscription.send(event));
+            }
+            Set<Subscription> byUser = event.getUserId() != null ? userSubscriptions.get(event.getUserId()) : null;
+            if (byUser != null) {
+                byUser.forEach(subscription -> subscription.send(event));
+            }
+        }
+    }
+
+    private void sendHeartbeats() {
+        subscriptions.forEach(Subscription::heartbeat);
+    }
+
+    private void register(Map<UUID, Set<Subscription>> index, UUID key, Subscription subscription) {
+        index.computeIfAbsent(key, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        subscriptions.add(subscription);
+    }
+
+    private void unregister(Map<UUID, Set<Subscription>> index, UUID key, Subscription subscription) {
+        index.computeIfPresent(key, (id, set) -> {
+            set.remove(subscription);
+            return set.isEmpty() ? null : set;
+        });
+        subscriptions.remove(subscription);
+    }
+
+    private static boolean isFinal(ExecutionStatus status) {
+        return status != ExecutionStatus.PENDING && status != ExecutionStatus.RUNNING;
+    }
+
+    /**
+     * One open stream. A stream of a single execution ends after its final state.
+     */
+    private final class Subscription {
+        private final UUID executionId;
+        private final UUID userId;
+        private final SseEmitter emitter;
+        private final BlockingQueue<Outgoing> queue = new LinkedBlockingQueue<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Subscription(UUID executionId, UUID userId) {
+            this.executionId = executionId;
+            this.userId = userId;
+            this.emitter = new SseEmitter(timeoutMs);
+            emitter.onCompletion(this::close);
+            emitter.onTimeout(this::complete);
+            emitter.onError(ex -> close());
+        }
+
+        private void send(ExecutionEventDto event) {
+            enqueue(new Outgoing(SseEmitter.event()
+                    .name(EVENT_NAME)
+                    .id(event.getExecutionId() + ":" + event.getStatus())
+                    .data(event, MediaType.APPLICATION_JSON),
+                    false, executionId != null && isFinal(event.getStatus())));
+        }
+
+        private void heartbeat() {
+            // A stream with queued events is not idle
+            if (queue.isEmpty()) {
+                enqueue(new Outgoing(SseEmitter.event().comment("heartbeat"), true, false));
+            }
+        }
+
+        private void enqueue(Outgoing outgoing) {
+            if (closed.get()) {
+                return;
+            }
+            if (queue.size() >= maxQueued) {
+                log.debug("Closing execution event stream of a client {} events behind", queue.size());
+                complete();
+                return;
+            }
+            queue.add(outgoing);
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (!draining.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                eventExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                complete();
+            }
+        }
+
+        private void drain() {
+            Outgoing outgoing;
+            while ((outgoing = queue.poll()) != null) {
+                if (closed.get()) {
+                    queue.clear();
+                    break;
+                }
+                try {
+                    emitter.send(outgoing.event());
+                } catch (Exception e) {
+                    // The client went away
+                    close();
+                    continue;
+                }
+                if (!outgoing.heartbeat()) {
+                    deliveredCounter.increment();
+                }
+                if (outgoing.last()) {
+                    complete();
+                }
+            }
+            draining.set(false);
+            // Events added after the last poll but before the flag was cleared
+            if (!queue.isEmpty()) {
+                scheduleDrain();
+            }
+        }
+
+        private void complete() {
+            if (close()) {
+                emitter.complete();
+            }
+        }
+
+        private boolean close() {
+            if (!closed.compareAndSet(false, true)) {
+                return false;
+            }
+            queue.clear();
+            if (executionId != null) {
+                unregister(executionSubscriptions, executionId, this);
+            } else {
+                unregister(userSubscriptions, userId, this);
+            }
+            return true;
+        }
+    }
+
+    private record Outgoing(SseEmitter.SseEventBuilder event, boolean heartbeat, boolean last) {
+    }
+}
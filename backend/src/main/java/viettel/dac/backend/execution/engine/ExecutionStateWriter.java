@@ -0,0 +1,361 @@
+package viettel.dac.backend.execution.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import viettel.dac.backend.execution.dto.ExecutionEventDto;
+import viettel.dac.backend.execution.entity.BaseExecution;
+import viettel.dac.backend.execution.exception.ExecutionException;
+import viettel.dac.backend.execution.repository.ExecutionStateJdbcRepository;
+import viettel.dac.backend.execution.repository.ExecutionStateJdbcRepository.ExecutionState;
+import viettel.dac.backend.execution.repository.ExecutionStateJdbcRepository.WriteResult;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind persistence of execution state. Once the pending row of an execution is inserted,
+ * its transitions run in memory and are handed to this writer, which keeps only the latest state
+ * of every execution and group-commits them: a single thread writes up to {@code batchSize}
+ * states per transaction, as soon as a batch is full or the oldest state has waited
+ * {@code maxDelay} milliseconds.
+ * <p>
+ * With {@code finalState=durable} the future of a final state completes once it is committed;
+ * with {@code async} it completes at once, and final states still queued are lost if the
+ * instance dies. States of rows that are not visible yet, because the transaction inserting them
+ * has not committed, are retried; failed batches are retried until the database is back, while
+ * new executions are refused once {@code maxPending} states are queued. Queueing never blocks, as
+ * transitions are written from HTTP client callbacks; the states of executions already admitted
+ * are always taken. Written states are published to the execution event streams.
+ * <p>
+ * The write-behind thread only writes: futures are completed, and events published, on the
+ * callback executor, because their continuations call Redis and the database and may queue
+ * further states themselves.
+ */
+@Component
+@Slf4j
+public class ExecutionStateWriter {
+
+    private final ExecutionStateJdbcRepository executionStateJdbcRepository;
+    private final ExecutionEventBroadcaster executionEventBroadcaster;
+    private final Executor callbackExecutor;
+
+    private final Object lock = new Object();
+    // Guarded by lock; insertion order is queueing order
+    private final LinkedHashMap<UUID, PendingState> pending = new LinkedHashMap<>();
+    private volatile boolean running;
+    private volatile Thread flusher;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter droppedCounter;
+
+    @Value("${tool-template.execution.write-behind.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${tool-template.execution.write-behind.max-delay:20}")
+    private long maxDelayMs = 20;
+
+    @Value("${tool-template.execution.write-behind.max-pending:50000}")
+    private int maxPending = 50000;
+
+    @Value("${tool-template.execution.write-behind.final-state:durable}")
+    private String finalState = "durable";
+
+    @Value("${tool-template.execution.write-behind.retry-delay:200}")
+    private long retryDelayMs = 200;
+
+    // Attempts for a state whose row is not visible
+    @Value("${tool-template.execution.write-behind.max-attempts:25}")
+    private int maxAttempts = 25;
+
+    @Autowired
+    public ExecutionStateWriter(ExecutionStateJdbcRepository executionStateJdbcRepository,
+                                ExecutionEventBroadcaster executionEventBroadcaster,
+                                @Qualifier("writeBehindCallbackExecutor") Executor callbackExecutor,
+                                MeterRegistry meterRegistry) {
+        this.executionStateJdbcRepository = executionStateJdbcRepository;
+        this.executionEventBroadcaster = executionEventBroadcaster;
+        this.callbackExecutor = callbackExecutor;
+
+        this.flushTimer = Timer.builder("execution.write_behind.flush")
+                .description("Time to write one batch of execution states")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("execution.write_behind.batch_size")
+                .description("Execution states written per transaction")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("execution.write_behind.dropped")
+                .description("Execution states given up on because their row never became visible")
+                .register(meterRegistry);
+        Gauge.builder("execution.write_behind.pending", this, ExecutionStateWriter::pendingCount)
+                .description("Execution states waiting to be written")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::run, "execution-write-behind");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        synchronized (lock) {
+            running = false;
+            lock.notifyAll();
+        }
+        // Queued states are written before the data source closes
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        if (pendingCount() > 0) {
+            log.error("{} execution states were not written before shutdown", pendingCount());
+        }
+    }
+
+    /**
+     * Queue a transition of the execution, replacing its state still waiting to be written.
+     */
+    public void write(BaseExecution execution) {
+        enqueue(ExecutionState.of(execution));
+    }
+
+    /**
+     * Queue the final state of the execution. Depending on the durability setting, the returned
+     * future completes with the execution once the state is committed, or at once.
+     */
+    public CompletableFuture<BaseExecution> writeFinal(BaseExecution execution) {
+        CompletableFuture<Boolean> written = enqueue(ExecutionState.of(execution));
+        if (!"durable".equalsIgnoreCase(finalState)) {
+            return CompletableFuture.completedFuture(execution);
+        }
+        return written.thenApply(ignored -> execution);
+    }
+
+    /**
+     * Queue a final state decided outside the running execution, such as a cancellation. The
+     * returned future completes once the state is committed, whatever the durability setting, with
+     * false if the execution reached another final status first.
+     */
+    public CompletableFuture<Boolean> writeTerminal(BaseExecution execution) {
+        return enqueue(ExecutionState.of(execution));
+    }
+
+    private CompletableFuture<Boolean> enqueue(ExecutionState state) {
+        synchronized (lock) {
+            PendingState queued = pending.get(state.id());
+            if (queued != null && queued.state.isFinal()) {
+                // The first final state wins, as it does in the database
+                return queued.state.status() == state.status()
+                        ? queued.written : CompletableFuture.completedFuture(false);
+            }
+            if (queued != null) {
+                queued.state = state;
+                return queued.written;
+            }
+
+            PendingState added = new PendingState(state, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs));
+            pending.put(state.id(), added);
+            // Wake the writer when it waits on an empty queue, or when a batch is ready now
+            if (pending.size() == 1 || pending.size() >= flushSize() || maxDelayMs <= 0) {
+                lock.notifyAll();
+            }
+            return added.written;
+        }
+    }
+
+    /**
+     * Whether {@code maxPending} states are queued, in which case no new executions should be
+     * admitted until the database catches up.
+     */
+    public boolean isSaturated() {
+        return pendingCount() >= maxPending;
+    }
+
+    /**
+     * Queued states that are written at once, without waiting for {@code maxDelay}; lower than
+     * the batch size when new executions are refused before a batch fills up.
+     */
+    private int flushSize() {
+        return Math.min(batchSize, maxPending);
+    }
+
+    private int pendingCount() {
+        synchronized (lock) {
+            return pending.size();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            List<PendingState> batch;
+            try {
+                batch = nextBatch();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == null) {
+                return;
+            }
+            flush(batch);
+        }
+    }
+
+    /**
+     * Wait for a full batch or the first state that is due, and take it off the queue.
+     * Returns null once the writer is stopped and everything is written.
+     */
+    private List<PendingState> nextBatch() throws InterruptedException {
+        synchronized (lock) {
+            while (true) {
+                if (pending.isEmpty()) {
+                    if (!running) {
+                        return null;
+                    }
+                    lock.wait();
+                    continue;
+                }
+
+                long now = System.nanoTime();
+                long earliestDue = Long.MAX_VALUE;
+                for (PendingState queued : pending.values()) {
+                    earliestDue = Math.min(earliestDue, queued.dueNanos);
+                }
+                if (running && pending.size() < flushSize() && earliestDue > now) {
+                    TimeUnit.NANOSECONDS.timedWait(lock, earliestDue - now);
+                    continue;
+                }
+
+                // Retried states wait for their delay even when the batch is full
+                List<PendingState> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+                Iterator<PendingState> iterator = pending.values().iterator();
+                while (iterator.hasNext() && batch.size() < batchSize) {
+                    PendingState queued = iterator.next();
+                    if (queued.attempts == 0 || queued.dueNanos <= now || !running) {
+                        batch.add(queued);
+                        iterator.remove();
+                    }
+                }
+                if (batch.isEmpty()) {
+                    TimeUnit.NANOSECONDS.timedWait(lock, Math.max(earliestDue - now, 1));
+                    continue;
+                }
+                return batch;
+            }
+        }
+    }
+
+    private void flush(List<PendingState> batch) {
+        List<ExecutionState> states = new ArrayList<>(batch.size());
+        batch.forEach(queued -> states.add(queued.state));
+
+        WriteResult result;
+        Timer.Sample sample = Timer.start();
+        try {
+            result = executionStateJdbcRepository.writeStates(states);
+        } catch (Exception e) {
+            log.warn("Error writing {} execution states, retrying: {}", batch.size(), e.getMessage());
+            batch.forEach(queued -> retry(queued, false));
+            return;
+        } finally {
+            sample.stop(flushTimer);
+        }
+        batchSizeSummary.record(batch.size());
+
+        List<ExecutionEventDto> events = new ArrayList<>(batch.size());
+        List<CompletableFuture<Boolean>> applied = new ArrayList<>(batch.size());
+        List<CompletableFuture<Boolean>> skipped = new ArrayList<>();
+        for (PendingState queued : batch) {
+            ExecutionState state = queued.state;
+            if (result.notVisible().contains(state.id())) {
+                retry(queued, true);
+                continue;
+            }
+            if (result.alreadyFinal().contains(state.id())) {
+                skipped.add(queued.written);
+            } else {
+                events.add(toEvent(state));
+                applied.add(queued.written);
+            }
+        }
+
+        if (!events.isEmpty()) {
+            callbackExecutor.execute(() -> executionEventBroadcaster.publish(events));
+        }
+        // One task per future, so one slow continuation does not hold up the others
+        applied.forEach(future -> callbackExecutor.execute(() -> future.complete(true)));
+        skipped.forEach(future -> callbackExecutor.execute(() -> future.complete(false)));
+    }
+
+    private static ExecutionEventDto toEvent(ExecutionState state) {
+        return ExecutionEventDto.builder()
+                .executionId(state.id())
+                .userId(state.userId())
+                .templateId(state.templateId())
+                .batchId(state.batchId())
+                .status(state.status())
+                .startTime(state.startTime())
+                .endTime(state.endTime())
+                .errorMessage(state.errorMessage())
+                .build();
+    }
+
+    private void retry(PendingState queued, boolean rowNotVisible) {
+        UUID executionId = queued.state.id();
+        synchronized (lock) {
+            PendingState newer = pending.get(executionId);
+            if (newer != null) {
+                // Superseded while being written; its waiters follow the newer state
+                newer.written.whenComplete((written, ex) -> {
+                    if (ex != null) {
+                        queued.written.completeExceptionally(ex);
+                    } else {
+                        queued.written.complete(written);
+                    }
+                });
+                return;
+            }
+
+            queued.attempts++;
+            if (!running || (rowNotVisible && queued.attempts >= maxAttempts)) {
+                droppedCounter.increment();
+                log.error("Execution {} state {} was not written: {}", executionId, queued.state.status(),
+                        rowNotVisible ? "execution row not found" : "writer stopped");
+                ExecutionException failure = new ExecutionException("State of execution " + executionId + " could not be persisted");
+                callbackExecutor.execute(() -> queued.written.completeExceptionally(failure));
+                return;
+            }
+            queued.dueNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryDelayMs);
+            pending.put(executionId, queued);
+        }
+    }
+
+    private static final class PendingState {
+        private ExecutionState state;
+        private long dueNanos;
+        private int attempts;
+        // Completes with false if the row was already final
+        private final CompletableFuture<Boolean> written = new CompletableFuture<>();
+
+        private PendingState(ExecutionState state, long dueNanos) {
+            this.state = state;
+            this.dueNanos = dueNanos;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package viettel.dac.backend.execution.engine;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import viettel.dac.backend.execution.entity.BaseExecution;
+import viettel.dac.backend.template.entity.IntegrationTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Queues submitted executions with the fair scheduler once their record is committed, so the
+ * engine never sees an execution that is not visible yet, and nothing is dispatched for a
+ * submission that rolled back. The template and execution are handed over as loaded.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExecutionSubmissionListener {
+
+    private final ExecutionEngine executionEngine;
+    private final FairExecutionScheduler fairExecutionScheduler;
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onExecutionSubmitted(ExecutionSubmittedEvent event) {
+        try {
+            Supplier<CompletableFuture<BaseExecution>> task =
+                    () -> executionEngine.dispatch(event.template(), event.execution(), event.parameters());
+            // Integration steps are queued themselves, so the integration does not hold a running slot
+            complete(event.template() instanceof IntegrationTemplate
+                    ? fairExecutionScheduler.submitCoordinator(event.execution(), event.priority(), task)
+                    : fairExecutionScheduler.submit(event.execution(), event.priority(), task), event);
+        } catch (Exception e) {
+            // The request has already returned the pending execution, which must not stay pending
+            log.error("Error queueing execution {}: {}", event.execution().getId(), e.getMessage(), e);
+            complete(fairExecutionScheduler.failUnstarted(event.execution(), e), event);
+        }
+    }
+
+    private static void complete(CompletableFuture<BaseExecution> execution, ExecutionSubmittedEvent event) {
+        execution.whenComplete((result, ex) -> {
+            if (ex != null) {
+                event.completion().completeExceptionally(ex);
+            } else {
+                event.completion().complete(result);
+            }
+        });
+    }
+}
@@ -0,0 +1,18 @@
+package viettel.dac.backend.execution.engine;
+
+import viettel.dac.backend.execution.entity.BaseExecution;
+import viettel.dac.backend.execution.enums.ExecutionPriority;
+import viettel.dac.backend.template.entity.BaseTemplate;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A pending execution whose record is being inserted, with the template it was validated against.
+ * Published inside the inserting transaction and dispatched once it commits; {@code completion}
+ * completes with the execution once it has finished.
+ */
+public record ExecutionSubmittedEvent(BaseTemplate template, BaseExecution execution,
+                                      Map<String, Object> parameters, ExecutionPriority priority,
+                                      CompletableFuture<BaseExecution> completion) {
+}
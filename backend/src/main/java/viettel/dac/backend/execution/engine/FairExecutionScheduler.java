@@ -0,0 +1,515 @@
+package viettel.dac.backend.execution.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import viettel.dac.backend.common.config.ExecutionQuotaProperties;
+import viettel.dac.backend.common.exception.QuotaExceededException;
+import viettel.dac.backend.execution.entity.BaseExecution;
+import viettel.dac.backend.execution.enums.ExecutionPriority;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Schedules executions by priority class and fairly between users.
+ * <p>
+ * The next execution comes from the highest priority class that has capacity, where a class gains
+ * one level for every {@code agingMs} its oldest execution has waited, so bulk work is never starved.
+ * Each class may use the capacity that is not reserved for the other classes.
+ * <p>
+ * Within a class every user has its own queue and executions are started in weighted fair queuing
+ * order: each execution gets a virtual finish time of {@code 1 / weight} after the previous one of
+ * the same user, and the earliest finish time among the users below their concurrency limit goes next.
+ * Daily and concurrency limits are counted in {@link UserQuotaCounters}.
+ * <p>
+ * A queued execution that is cancelled is dropped from its queue, and its daily quota is given back.
+ * Coordinators, such as integrations whose steps are queued here as well, only hold a running slot
+ * until they have started.
+ * <p>
+ * When the execution executor is saturated the execution stays at the head of its queue and is
+ * started once capacity frees up. An execution that fails to start is written as FAILED, and its
+ * daily quota is given back.
+ */
+@Component
+@Slf4j
+public class FairExecutionScheduler {
+
+    private final ExecutionQuotaProperties properties;
+    private final UserQuotaCounters quotaCounters;
+    private final Executor executionTaskExecutor;
+    private final TaskScheduler executionScheduler;
+    private final ExecutionStateWriter executionStateWriter;
+
+    // Guarded by this
+    private final Map<ExecutionPriority, PriorityClass> classes = new EnumMap<>(ExecutionPriority.class);
+    private final Map<UUID, Integer> runningByUser = new HashMap<>();
+    private final Map<UUID, Integer> queuedByUser = new HashMap<>();
+    private final Map<UUID, QueuedTask> queuedByExecution = new HashMap<>();
+    private int running;
+    private int queued;
+
+    private final Counter rejectedCounter;
+
+    @Value("${tool-template.execution.quotas.poll-interval:500}")
+    private long pollIntervalMs = 500;
+
+    @Autowired
+    public FairExecutionScheduler(ExecutionQuotaProperties properties,
+                                  UserQuotaCounters quotaCounters,
+                                  @Qualifier("executionTaskExecutor") Executor executionTaskExecutor,
+                                  @Qualifier("executionScheduler") TaskScheduler executionScheduler,
+                                  ExecutionStateWriter executionStateWriter,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.quotaCounters = quotaCounters;
+        this.executionTaskExecutor = executionTaskExecutor;
+        this.executionScheduler = executionScheduler;
+        this.executionStateWriter = executionStateWriter;
+
+        for (ExecutionPriority priority : ExecutionPriority.values()) {
+            Timer waitTimer = Timer.builder("execution.scheduler.queue.wait")
+                    .description("Time executions wait in the scheduler queue")
+                    .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry);
+            classes.put(priority, new PriorityClass(priority, waitTimer));
+        }
+
+        this.rejectedCounter = Counter.builder("execution.scheduler.rejected")
+                .description("Executions rejected because of a user quota")
+                .register(meterRegistry);
+        Gauge.builder("execution.scheduler.queued", this, FairExecutionScheduler::getQueuedCount)
+                .description("Executions waiting in the per-user queues")
+                .register(meterRegistry);
+        Gauge.builder("execution.scheduler.running", this, FairExecutionScheduler::getRunningCount)
+                .description("Executions started by the scheduler and not finished yet")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Slots held by other instances are freed without a local completion, and waiting executions
+     * age, so queued work is also re-checked periodically.
+     */
+    @PostConstruct
+    public void init() {
+        executionScheduler.scheduleWithFixedDelay(this::drain, Duration.ofMillis(pollIntervalMs));
+    }
+
+    /**
+     * Admit {@code executions} new executions of the user, counting them against the daily quota.
+     * Call before creating the execution records. Within a transaction the quota is given back if
+     * it rolls back; otherwise call {@link #releaseAdmission} when the records cannot be created.
+     *
+     * @throws QuotaExceededException if the user's queue is full, the daily quota is used up or
+     *                                 execution states cannot be written as fast as they are queued
+     */
+    public void admit(UUID userId, int executions) {
+        synchronized (this) {
+            if (queuedByUser.getOrDefault(userId, 0) >= properties.getMaxQueuedPerUser()) {
+                rejectedCounter.increment();
+                throw new QuotaExceededException("Too many queued executions for user " + userId,
+                        properties.getQueueFullRetryAfterSeconds());
+            }
+        }
+
+        // Shed new work here rather than blocking the threads that write transitions
+        if (executionStateWriter.isSaturated()) {
+            rejectedCounter.increment();
+            throw new QuotaExceededException("Execution states are not being written fast enough, try again later",
+                    properties.getQueueFullRetryAfterSeconds());
+        }
+
+        if (!quotaCounters.tryAcquireDaily(userId, executions)) {
+            rejectedCounter.increment();
+            ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+            ZonedDateTime midnight = LocalDate.now(ZoneOffset.UTC).plusDays(1).atStartOfDay(ZoneOffset.UTC);
+            throw new QuotaExceededException("Daily execution quota of " + properties.dailyLimitOf(userId)
+                    + " exceeded for user " + userId, Math.max(1, Duration.between(now, midnight).toSeconds()));
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            LocalDate admittedOn = LocalDate.now(ZoneOffset.UTC);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        quotaCounters.releaseDaily(userId, admittedOn, executions);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Give back the daily quota of admitted executions whose records could not be created.
+     */
+    public void releaseAdmission(UUID userId, int executions) {
+        quotaCounters.releaseDaily(userId, LocalDate.now(ZoneOffset.UTC), executions);
+    }
+
+    /**
+     * Queue an admitted execution. The task is started on the execution executor once its priority
+     * class has capacity, the user has a free running slot and it is the user's turn.
+     */
+    public CompletableFuture<BaseExecution> submit(BaseExecution execution, ExecutionPriority priority,
+                                                   Supplier<CompletableFuture<BaseExecution>> task) {
+        return submit(execution, priority, task, false);
+    }
+
+    /**
+     * Queue an admitted execution that only coordinates executions queued here themselves, such as
+     * an integration and its steps. It gives its running slot back as soon as it has started, so
+     * it never holds up the executions it waits for.
+     */
+    public CompletableFuture<BaseExecution> submitCoordinator(BaseExecution execution, ExecutionPriority priority,
+                                                              Supplier<CompletableFuture<BaseExecution>> task) {
+        return submit(execution, priority, task, true);
+    }
+
+    private CompletableFuture<BaseExecution> submit(BaseExecution execution, ExecutionPriority priority,
+                                                    Supplier<CompletableFuture<BaseExecution>> task,
+                                                    boolean coordinator) {
+        UUID userId = execution.getUserId();
+        CompletableFuture<BaseExecution> result = new CompletableFuture<>();
+        synchronized (this) {
+            PriorityClass priorityClass = classes.get(priority != null ? priority : ExecutionPriority.NORMAL);
+            UserQueue queue = priorityClass.users.computeIfAbsent(userId, id -> new UserQueue(properties.weightOf(id)));
+            double start = Math.max(priorityClass.virtualTime, queue.lastFinishTag);
+            queue.lastFinishTag = start + 1.0 / queue.weight;
+            QueuedTask queuedTask = new QueuedTask(execution, userId, priorityClass, task, result,
+                    queue.lastFinishTag, System.nanoTime(), LocalDate.now(ZoneOffset.UTC), coordinator);
+            queue.tasks.add(queuedTask);
+            queuedByExecution.put(execution.getId(), queuedTask);
+            priorityClass.queued++;
+            queuedByUser.merge(userId, 1, Integer::sum);
+            queued++;
+        }
+        drain();
+        return result;
+    }
+
+    /**
+     * Drop a queued execution that has not started, giving back its daily quota. Its future is
+     * cancelled.
+     *
+     * @return false if the execution is not queued on this instance
+     */
+    public boolean cancel(UUID executionId) {
+        QueuedTask queuedTask;
+        synchronized (this) {
+            queuedTask = queuedByExecution.remove(executionId);
+            if (queuedTask == null) {
+                return false;
+            }
+            PriorityClass priorityClass = queuedTask.priorityClass();
+            UserQueue queue = priorityClass.users.get(queuedTask.userId());
+            if (queue != null) {
+                queue.tasks.remove(queuedTask);
+                if (queue.tasks.isEmpty()) {
+                    priorityClass.users.remove(queuedTask.userId());
+                }
+            }
+            priorityClass.queued--;
+            queuedByUser.computeIfPresent(queuedTask.userId(), (id, count) -> count > 1 ? count - 1 : null);
+            queued--;
+        }
+
+        log.debug("Dropped queued execution {} of user {}", executionId, queuedTask.userId());
+        quotaCounters.releaseDaily(queuedTask.userId(), queuedTask.admittedOn(), 1);
+        queuedTask.result().cancel(false);
+        return true;
+    }
+
+    /**
+     * Fail an admitted execution that could not be queued: its final state is written and its
+     * daily quota given back. If it was queued after all, it is dropped from its queue.
+     *
+     * @return the failed execution, once its final state is committed
+     */
+    public CompletableFuture<BaseExecution> failUnstarted(BaseExecution execution, Throwable cause) {
+        if (!cancel(execution.getId())) {
+            quotaCounters.releaseDaily(execution.getUserId(), LocalDate.now(ZoneOffset.UTC), 1);
+        }
+        return writeFailed(execution, cause);
+    }
+
+    public synchronized int getQueuedCount() {
+        return queued;
+    }
+
+    public synchronized int getRunningCount() {
+        return running;
+    }
+
+    /**
+     * Start queued executions while there is capacity.
+     */
+    private void drain() {
+        // Users whose running slots are all taken, possibly on other instances
+        Set<UUID> blocked = new HashSet<>();
+        while (true) {
+            PriorityClass priorityClass;
+            UUID userId;
+            synchronized (this) {
+                if (running >= properties.getMaxRunning()) {
+                    return;
+                }
+                priorityClass = selectClass(blocked);
+                if (priorityClass == null) {
+                    return;
+                }
+                userId = selectUser(priorityClass, blocked);
+            }
+
+            UserQuotaCounters.Store slot = quotaCounters.tryAcquireRunning(userId);
+            if (slot == null) {
+                blocked.add(userId);
+                continue;
+            }
+
+            QueuedTask next;
+            synchronized (this) {
+                UserQueue queue = priorityClass.users.get(userId);
+                next = queue != null ? queue.tasks.poll() : null;
+                if (next == null || availableCapacity(priorityClass) <= 0) {
+                    // Another thread got there first
+                    if (next != null) {
+                        queue.tasks.addFirst(next);
+                    }
+                    quotaCounters.releaseRunning(userId, slot);
+                    continue;
+                }
+                if (queue.tasks.isEmpty()) {
+                    priorityClass.users.remove(userId);
+                }
+                queuedByExecution.remove(next.execution().getId());
+                priorityClass.virtualTime = Math.max(priorityClass.virtualTime, next.finishTag() - 1.0 / queue.weight);
+                priorityClass.queued--;
+                priorityClass.running++;
+                queuedByUser.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+                runningByUser.merge(userId, 1, Integer::sum);
+                queued--;
+                running++;
+            }
+            if (!start(priorityClass, userId, slot, next)) {
+                // The executor is saturated; retried when an execution finishes or on the next poll
+                requeue(priorityClass, userId, slot, next);
+                return;
+            }
+            priorityClass.waitTimer.record(System.nanoTime() - next.enqueuedNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Put a task the executor did not accept back at the head of its user's queue.
+     */
+    private void requeue(PriorityClass priorityClass, UUID userId, UserQuotaCounters.Store slot, QueuedTask queuedTask) {
+        synchronized (this) {
+            UserQueue queue = priorityClass.users.computeIfAbsent(userId, id -> {
+                UserQueue recreated = new UserQueue(properties.weightOf(id));
+                recreated.lastFinishTag = queuedTask.finishTag();
+                return recreated;
+            });
+            queue.tasks.addFirst(queuedTask);
+            queuedByExecution.put(queuedTask.execution().getId(), queuedTask);
+            priorityClass.queued++;
+            priorityClass.running--;
+            queuedByUser.merge(userId, 1, Integer::sum);
+            runningByUser.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+            queued++;
+            running--;
+        }
+        quotaCounters.releaseRunning(userId, slot);
+    }
+
+    /**
+     * The class to start from next: the best aged priority among the classes with capacity and
+     * with a user that can take another running slot.
+     */
+    private PriorityClass selectClass(Set<UUID> blocked) {
+        long now = System.nanoTime();
+        PriorityClass selected = null;
+        double best = Double.MAX_VALUE;
+        for (PriorityClass priorityClass : classes.values()) {
+            if (priorityClass.queued == 0 || availableCapacity(priorityClass) <= 0
+                    || selectUser(priorityClass, blocked) == null) {
+                continue;
+            }
+            double waitedMs = (now - priorityClass.oldestEnqueuedNanos()) / 1_000_000.0;
+            double agedRank = priorityClass.priority.ordinal() - waitedMs / Math.max(1, properties.getAgingMs());
+            if (agedRank < best) {
+                best = agedRank;
+                selected = priorityClass;
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Free slots for the class: everything not running and not reserved for the other classes.
+     */
+    private int availableCapacity(PriorityClass priorityClass) {
+        int available = properties.getMaxRunning() - running;
+        for (PriorityClass other : classes.values()) {
+            if (other != priorityClass) {
+                available -= Math.max(0, properties.reservedCapacityOf(other.priority) - other.running);
+            }
+        }
+        return available;
+    }
+
+    /**
+     * The user whose head task has the earliest finish time, among those below their concurrency limit.
+     */
+    private UUID selectUser(PriorityClass priorityClass, Set<UUID> blocked) {
+        UUID selected = null;
+        double earliest = Double.MAX_VALUE;
+        for (Map.Entry<UUID, UserQueue> entry : priorityClass.users.entrySet()) {
+            QueuedTask head = entry.getValue().tasks.peek();
+            if (head == null || head.finishTag() >= earliest || blocked.contains(entry.getKey())
+                    || runningByUser.getOrDefault(entry.getKey(), 0) >= properties.maxConcurrentOf(entry.getKey())) {
+                continue;
+            }
+            selected = entry.getKey();
+            earliest = head.finishTag();
+        }
+        return selected;
+    }
+
+    /**
+     * Hand the task to the execution executor.
+     *
+     * @return false if the executor did not accept it
+     */
+    private boolean start(PriorityClass priorityClass, UUID userId, UserQuotaCounters.Store slot, QueuedTask queuedTask) {
+        try {
+            executionTaskExecutor.execute(() -> {
+                CompletableFuture<BaseExecution> execution;
+                try {
+                    execution = queuedTask.task().get();
+                } catch (Exception e) {
+                    log.error("Error starting queued execution {} of user {}: {}",
+                            queuedTask.execution().getId(), userId, e.getMessage(), e);
+                    finish(priorityClass, userId, slot);
+                    quotaCounters.releaseDaily(userId, queuedTask.admittedOn(), 1);
+                    forward(writeFailed(queuedTask.execution(), e), queuedTask.result());
+                    return;
+                }
+                if (queuedTask.coordinator()) {
+                    finish(priorityClass, userId, slot);
+                }
+                execution.whenComplete((result, ex) -> {
+                    if (!queuedTask.coordinator()) {
+                        finish(priorityClass, userId, slot);
+                    }
+                    if (ex != null) {
+                        queuedTask.result().completeExceptionally(ex);
+                    } else {
+                        queuedTask.result().complete(result);
+                    }
+                });
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.debug("Execution executor saturated, execution {} stays queued", queuedTask.execution().getId());
+            return false;
+        }
+    }
+
+    private CompletableFuture<BaseExecution> writeFailed(BaseExecution execution, Throwable cause) {
+        execution.markAsFailed("Execution could not be started: " + cause.getMessage());
+        return executionStateWriter.writeTerminal(execution).thenApply(written -> execution);
+    }
+
+    private static void forward(CompletableFuture<BaseExecution> source, CompletableFuture<BaseExecution> target) {
+        source.whenComplete((result, ex) -> {
+            if (ex != null) {
+                target.completeExceptionally(ex);
+            } else {
+                target.complete(result);
+            }
+        });
+    }
+
+    private void finish(PriorityClass priorityClass, UUID userId, UserQuotaCounters.Store slot) {
+        quotaCounters.releaseRunning(userId, slot);
+        synchronized (this) {
+            running--;
+            priorityClass.running--;
+            runningByUser.computeIfPresent(userId, (id, count) -> count > 1 ? count - 1 : null);
+        }
+        drain();
+    }
+
+    private static final class PriorityClass {
+        private final ExecutionPriority priority;
+        private final Timer waitTimer;
+        private final Map<UUID, UserQueue> users = new HashMap<>();
+        private double virtualTime;
+        private int queued;
+        private int running;
+
+        private PriorityClass(ExecutionPriority priority, Timer waitTimer) {
+            this.priority = priority;
+            this.waitTimer = waitTimer;
+        }
+
+        private long oldestEnqueuedNanos() {
+            QueuedTask oldest = null;
+            for (UserQueue queue : users.values()) {
+                QueuedTask head = queue.tasks.peek();
+                if (head != null && (oldest == null || head.enqueuedNanos() - oldest.enqueuedNanos() < 0)) {
+                    oldest = head;
+                }
+            }
+            return oldest != null ? oldest.enqueuedNanos() : System.nanoTime();
+        }
+    }
+
+    private static final class UserQueue {
+        private final int weight;
+        private final Deque<QueuedTask> tasks = new ArrayDeque<>();
+        private double lastFinishTag;
+
+        private UserQueue(int weight) {
+            this.weight = Math.max(1, weight);
+        }
+    }
+
+    private record QueuedTask(BaseExecution execution,
+                              UUID userId,
+                              PriorityClass priorityClass,
+                              Supplier<CompletableFuture<BaseExecution>> task,
+                              CompletableFuture<BaseExecution> result,
+                              double finishTag,
+                              long enqueuedNanos,
+                              LocalDate admittedOn,
+                              boolean coordinator) {
+    }
+}
@@ -0,0 +1,110 @@
+package viettel.dac.backend.execution.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+
+/**
+ * Registry of executions that are currently running, mapping each execution ID to the
+ * handle of its in-flight work and the strategy that owns it.
+ * Cancelling a registered execution aborts its in-flight work immediately; cancelling one
+ * that has not started yet is remembered for a bounded time so it is dropped when it starts.
+ * Executions still waiting in the {@link FairExecutionScheduler} are dropped from its queue instead.
+ */
+@Component
+@Slf4j
+public class InFlightExecutionRegistry {
+
+    private final Map<UUID, InFlightExecution> running = new ConcurrentHashMap<>();
+    private final Map<UUID, Long> pendingCancellations = new ConcurrentHashMap<>();
+
+    @Value("${tool-template.execution.cancellation-ttl:300000}")
+    private long cancellationTtlMs;
+
+    /**
+     * Register the in-flight work of an execution.
+     * If a cancellation was requested before the execution started, the work is cancelled right away.
+     *
+     * @return false if the execution was cancelled before it started
+     */
+    public boolean register(UUID executionId, ExecutionStrategy strategy, Future<?> handle) {
+        running.put(executionId, new InFlightExecution(strategy, handle));
+        purgeExpiredCancellations();
+
+        if (pendingCancellations.remove(executionId) != null) {
+            abort(executionId);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Remove an execution once it has finished, whatever its outcome.
+     */
+    public void complete(UUID executionId) {
+        running.remove(executionId);
+        pendingCancellations.remove(executionId);
+    }
+
+    /**
+     * Check whether a cancellation was requested for an execution that has not started,
+     * consuming the request.
+     */
+    public boolean consumeCancellation(UUID executionId) {
+        return pendingCancellations.remove(executionId) != null;
+    }
+
+    public Optional<ExecutionStrategy> getOwner(UUID executionId) {
+        return Optional.ofNullable(running.get(executionId)).map(InFlightExecution::strategy);
+    }
+
+    public boolean isRunning(UUID executionId) {
+        return running.containsKey(executionId);
+    }
+
+    /**
+     * Cancel an execution: abort its in-flight work if it is running, otherwise remember the
+     * request until the execution starts or the cancellation TTL expires.
+     *
+     * @return true if in-flight work was aborted
+     */
+    public boolean cancel(UUID executionId) {
+        if (abort(executionId)) {
+            return true;
+        }
+
+        purgeExpiredCancellations();
+        pendingCancellations.put(executionId, System.currentTimeMillis());
+
+        // The execution may have registered between the two checks
+        if (running.containsKey(executionId) && pendingCancellations.remove(executionId) != null) {
+            return abort(executionId);
+        }
+        return false;
+    }
+
+    private boolean abort(UUID executionId) {
+        InFlightExecution inFlight = running.remove(executionId);
+        if (inFlight == null) {
+            return false;
+        }
+
+        log.debug("Aborting in-flight execution {}", executionId);
+        inFlight.handle().cancel(true);
+        return true;
+    }
+
+    private void purgeExpiredCancellations() {
+        long cutoff = System.currentTimeMillis() - cancellationTtlMs;
+        pendingCancellations.values().removeIf(requestedAt -> requestedAt < cutoff);
+    }
+
+    private record InFlightExecution(ExecutionStrategy strategy, Future<?> handle) {
+    }
+}
@@ -0,0 +1,439 @@
+package viettel.dac.backend.execution.engine;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import viettel.dac.backend.execution.entity.ApiExecution;
+import viettel.dac.backend.execution.entity.BaseExecution;
+import viettel.dac.backend.execution.entity.IntegrationExecution;
+import viettel.dac.backend.execution.entity.IntegrationStepState;
+import viettel.dac.backend.execution.enums.ExecutionPriority;
+import viettel.dac.backend.execution.enums.ExecutionStatus;
+import viettel.dac.backend.execution.enums.StepStatus;
+import viettel.dac.backend.execution.exception.ExecutionException;
+import viettel.dac.backend.execution.exception.InvalidParameterException;
+import viettel.dac.backend.execution.http.ResponseBodyStore;
+import viettel.dac.backend.execution.repository.ExecutionRepository;
+import viettel.dac.backend.execution.repository.IntegrationExecutionJdbcRepository;
+import viettel.dac.backend.template.entity.ApiTemplate;
+import viettel.dac.backend.template.entity.BaseTemplate;
+import viettel.dac.backend.template.entity.IntegrationStep;
+import viettel.dac.backend.template.entity.IntegrationTemplate;
+import viettel.dac.backend.template.enums.TemplateType;
+
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes INTEGRATION templates: a DAG of template invocations.
+ * A step is queued with the {@link FairExecutionScheduler} as soon as all of its dependencies have
+ * completed, so independent branches run in parallel within the user's quotas. Step outputs are
+ * extracted by JSON pointer and bound to the parameters of later steps, and each step transition
+ * is persisted to the integration execution.
+ */
+@Component
+@Slf4j
+public class IntegrationExecutionStrategy implements ExecutionStrategy {
+
+    private final ExecutionEngine executionEngine;
+    private final FairExecutionScheduler fairExecutionScheduler;
+    private final TemplateSnapshotCache templateSnapshotCache;
+    private final ExecutionRepository executionRepository;
+    private final IntegrationExecutionJdbcRepository integrationExecutionJdbcRepository;
+    private final InFlightExecutionRegistry inFlightExecutionRegistry;
+    private final ExecutionStateWriter executionStateWriter;
+    private final ResponseBodyStore responseBodyStore;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public IntegrationExecutionStrategy(
+            ExecutionEngine executionEngine,
+            FairExecutionScheduler fairExecutionScheduler,
+            TemplateSnapshotCache templateSnapshotCache,
+            ExecutionRepository executionRepository,
+            IntegrationExecutionJdbcRepository integrationExecutionJdbcRepository,
+            InFlightExecutionRegistry inFlightExecutionRegistry,
+            ExecutionStateWriter executionStateWriter,
+            ResponseBodyStore responseBodyStore,
+            ObjectMapper objectMapper) {
+        this.executionEngine = executionEngine;
+        this.fairExecutionScheduler = fairExecutionScheduler;
+        this.templateSnapshotCache = templateSnapshotCache;
+        this.executionRepository = executionRepository;
+        this.integrationExecutionJdbcRepository = integrationExecutionJdbcRepository;
+        this.inFlightExecutionRegistry = inFlightExecutionRegistry;
+        this.executionStateWriter = executionStateWriter;
+        this.responseBodyStore = responseBodyStore;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String getTemplateType() {
+        return TemplateType.INTEGRATION.name();
+    }
+
+    @Override
+    public void validate(BaseTemplate template, Map<String, Object> parameters) throws ExecutionException {
+        if (template == null) {
+            throw new InvalidParameterException("Template cannot be null");
+        }
+
+        if (!(template instanceof IntegrationTemplate)) {
+            throw new InvalidParameterException("Template is not an integration template");
+        }
+
+        IntegrationGraph graph = IntegrationGraph.of(((IntegrationTemplate) template).getSteps());
+        loadStepTemplates(graph);
+    }
+
+    @Override
+    public BaseExecution execute(BaseTemplate template, Map<String, Object> parameters, BaseExecution execution) throws ExecutionException {
+        if (!(template instanceof IntegrationTemplate)) {
+            throw new InvalidParameterException("Template is not an integration template");
+        }
+
+        // Wait for all steps to finish
+        return executeAsync(template, parameters, execution).join();
+    }
+
+    @Override
+    public CompletableFuture<BaseExecution> executeAsync(BaseTemplate template, Map<String, Object> parameters, BaseExecution execution) {
+        if (!(template instanceof IntegrationTemplate)) {
+            execution.markAsFailed("Template is not an integration template");
+            return CompletableFuture.completedFuture(execution);
+        }
+
+        // Create or get IntegrationExecution instance
+        IntegrationExecution integrationExecution;
+        if (execution instanceof IntegrationExecution) {
+            integrationExecution = (IntegrationExecution) execution;
+        } else {
+            // If we have a base execution, create a new integration execution with the same ID
+            integrationExecution = new IntegrationExecution();
+            integrationExecution.setId(execution.getId());
+            integrationExecution.setTemplateId(execution.getTemplateId());
+            integrationExecution.setUserId(execution.getUserId());
+            integrationExecution.setStatus(execution.getStatus());
+            integrationExecution.setBatchId(execution.getBatchId());
+            integrationExecution.setCreatedAt(execution.getCreatedAt());
+            integrationExecution.setCreatedBy(execution.getCreatedBy());
+        }
+
+        // Mark as running
+        integrationExecution.markAsRunning();
+
+        // Check if the execution is already cancelled
+        if (inFlightExecutionRegistry.consumeCancellation(integrationExecution.getId())) {
+            integrationExecution.markAsCancelled();
+            return CompletableFuture.completedFuture(integrationExecution);
+        }
+        executionStateWriter.write(integrationExecution);
+
+        IntegrationRun run;
+        try {
+            IntegrationGraph graph = IntegrationGraph.of(((IntegrationTemplate) template).getSteps());
+            run = new IntegrationRun(graph, loadStepTemplates(graph), integrationExecution, parameters);
+        } catch (Exception e) {
+            log.error("Error preparing integration execution: {}", e.getMessage(), e);
+            integrationExecution.markAsFailed(e.getMessage());
+            return CompletableFuture.completedFuture(integrationExecution);
+        }
+
+        return run.start();
+    }
+
+    @Override
+    public boolean cancelExecution(UUID executionId) {
+        return inFlightExecutionRegistry.cancel(executionId);
+    }
+
+    private Map<UUID, BaseTemplate> loadStepTemplates(IntegrationGraph graph) {
+        Set<UUID> templateIds = graph.getTemplateIds();
+        Map<UUID, BaseTemplate> templates = templateSnapshotCache.findAll(templateIds);
+
+        for (IntegrationStep step : graph.getSteps()) {
+            BaseTemplate stepTemplate = templates.get(step.getTemplateId());
+            if (stepTemplate == null) {
+                throw new InvalidParameterException("Step '" + step.getId() + "' references unknown template: " + step.getTemplateId());
+            }
+            // Nested integrations are not supported; they would allow recursive templates
+            if (stepTemplate instanceof IntegrationTemplate) {
+                throw new InvalidParameterException("Step '" + step.getId() + "' cannot reference another integration template");
+            }
+        }
+
+        return templates;
+    }
+
+    /**
+     * State of one integration execution while its steps run.
+     */
+    private final class IntegrationRun {
+
+        private final IntegrationGraph graph;
+        private final Map<UUID, BaseTemplate> stepTemplates;
+        private final IntegrationExecution execution;
+        private final JsonNode input;
+
+        private final Map<String, IntegrationStepState> stepStates = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> remainingDependencies = new ConcurrentHashMap<>();
+        private final Set<String> blockedSteps = ConcurrentHashMap.newKeySet();
+        private final Map<String, JsonNode> outputs = new ConcurrentHashMap<>();
+        private final Map<String, UUID> runningSteps = new ConcurrentHashMap<>();
+        private final AtomicInteger finishedSteps = new AtomicInteger();
+
+        // Completes when every step has finished; cancelling it aborts the running steps
+        private final CompletableFuture<Void> finished = new CompletableFuture<>();
+
+        private IntegrationRun(IntegrationGraph graph, Map<UUID, BaseTemplate> stepTemplates,
+                               IntegrationExecution execution, Map<String, Object> parameters) {
+            this.graph = graph;
+            this.stepTemplates = stepTemplates;
+            this.execution = execution;
+            this.input = objectMapper.valueToTree(parameters != null ? parameters : Map.of());
+        }
+
+        CompletableFuture<BaseExecution> start() {
+            for (IntegrationStep step : graph.getSteps()) {
+                stepStates.put(step.getId(), IntegrationStepState.builder().status(StepStatus.PENDING).build());
+                remainingDependencies.put(step.getId(), new AtomicInteger(graph.getDependencies(step.getId()).size()));
+            }
+            integrationExecutionJdbcRepository.initStepStates(execution.getId(), new LinkedHashMap<>(stepStates));
+
+            finished.whenComplete((result, ex) -> {
+                if (finished.isCancelled()) {
+                    runningSteps.values().forEach(executionEngine::cancelExecution);
+                }
+            });
+
+            CompletableFuture<BaseExecution> completion = finished
+                    .handle((result, ex) -> complete(ex))
+                    .whenComplete((result, ex) -> inFlightExecutionRegistry.complete(execution.getId()));
+
+            if (inFlightExecutionRegistry.register(execution.getId(), IntegrationExecutionStrategy.this, finished)) {
+                for (IntegrationStep step : graph.getSteps()) {
+                    if (graph.getDependencies(step.getId()).isEmpty()) {
+                        launch(step);
+                    }
+                }
+            }
+
+            return completion;
+        }
+
+        private void launch(IntegrationStep step) {
+            if (finished.isDone()) {
+                return;
+            }
+
+            BaseTemplate stepTemplate = stepTemplates.get(step.getTemplateId());
+            Map<String, Object> parameters;
+            BaseExecution child;
+            try {
+                parameters = resolveParameters(step);
+                executionEngine.getStrategy(stepTemplate).validate(stepTemplate, parameters);
+                // Steps count against the user's quotas like any other execution
+                fairExecutionScheduler.admit(execution.getUserId(), 1);
+            } catch (Exception e) {
+                finishStep(step, StepStatus.FAILED, null, e.getMessage());
+                return;
+            }
+            try {
+                child = executionRepository.save(newStepExecution(stepTemplate));
+            } catch (Exception e) {
+                fairExecutionScheduler.releaseAdmission(execution.getUserId(), 1);
+                finishStep(step, StepStatus.FAILED, null, e.getMessage());
+                return;
+            }
+
+            runningSteps.put(step.getId(), child.getId());
+            updateStepState(step.getId(), IntegrationStepState.builder()
+                    .status(StepStatus.RUNNING)
+                    .executionId(child.getId())
+                    .startTime(Instant.now())
+                    .build());
+
+            fairExecutionScheduler.submit(child, ExecutionPriority.NORMAL,
+                            () -> executionEngine.dispatch(stepTemplate, child, parameters))
+                    .whenComplete((result, ex) -> {
+                        runningSteps.remove(step.getId());
+                        onStepExecuted(step, child, result, ex);
+                    });
+
+            // The run may have been cancelled while the step was starting
+            if (finished.isCancelled()) {
+                executionEngine.cancelExecution(child.getId());
+            }
+        }
+
+        private BaseExecution newStepExecution(BaseTemplate stepTemplate) {
+            BaseExecution child = stepTemplate instanceof ApiTemplate ? new ApiExecution() : new BaseExecution();
+            child.setTemplateId(stepTemplate.getId());
+            child.setUserId(execution.getUserId());
+            child.setStatus(ExecutionStatus.PENDING);
+            child.setCreatedBy(execution.getUserId());
+            return child;
+        }
+
+        private void onStepExecuted(IntegrationStep step, BaseExecution child, BaseExecution result, Throwable ex) {
+            if (ex != null) {
+                Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+                if (cause instanceof CancellationException) {
+                    // Dropped from the scheduler queue before it started
+                    child.markAsCancelled();
+                    executionStateWriter.writeTerminal(child);
+                    finishStep(step, StepStatus.CANCELLED, null, "Cancelled before it started");
+                } else {
+                    finishStep(step, StepStatus.FAILED, null, cause.getMessage());
+                }
+                return;
+            }
+
+            if (result.getStatus() == ExecutionStatus.CANCELLED) {
+                finishStep(step, StepStatus.CANCELLED, null, result.getErrorMessage());
+            } else if (result.getStatus() != ExecutionStatus.COMPLETED) {
+                finishStep(step, StepStatus.FAILED, null, result.getErrorMessage());
+            } else if (result instanceof ApiExecution apiResult) {
+                if (Boolean.FALSE.equals(apiResult.getSuccessful())) {
+                    finishStep(step, StepStatus.FAILED, null, "API returned status code " + apiResult.getStatusCode());
+                } else if (apiResult.getResponseBodyRef() != null) {
+                    finishSpilledStep(step, apiResult);
+                } else {
+                    finishStep(step, StepStatus.COMPLETED, apiResult.getResponseBody(), null);
+                }
+            } else {
+                finishStep(step, StepStatus.COMPLETED, result.getResult(), null);
+            }
+        }
+
+        /**
+         * Complete a step whose response body was too large to keep on the execution, reading its
+         * output back from the response body store.
+         */
+        private void finishSpilledStep(IntegrationStep step, ApiExecution apiResult) {
+            JsonNode output;
+            try (InputStream body = responseBodyStore.open(apiResult.getResponseBodyRef()).getInputStream()) {
+                output = objectMapper.readTree(body);
+            } catch (Exception e) {
+                finishStep(step, StepStatus.FAILED, null, "Response body of " + apiResult.getResponseBodySize()
+                        + " bytes was spilled to the response body store and could not be read as JSON: " + e.getMessage());
+                return;
+            }
+            finishStep(step, StepStatus.COMPLETED, output, null);
+        }
+
+        private void finishStep(IntegrationStep step, StepStatus status, Object output, String errorMessage) {
+            if (status == StepStatus.COMPLETED) {
+                outputs.put(step.getId(), objectMapper.valueToTree(output));
+            }
+
+            IntegrationStepState current = stepStates.get(step.getId());
+            updateStepState(step.getId(), current.toBuilder()
+                    .status(status)
+                    .endTime(Instant.now())
+                    .errorMessage(errorMessage)
+                    .build());
+
+            // Release dependents; those with an unsuccessful dependency are skipped
+            for (String dependentId : graph.getDependents(step.getId())) {
+                if (status != StepStatus.COMPLETED) {
+                    blockedSteps.add(dependentId);
+                }
+                if (remainingDependencies.get(dependentId).decrementAndGet() == 0) {
+                    IntegrationStep dependent = graph.getStep(dependentId);
+                    if (blockedSteps.contains(dependentId)) {
+                        finishStep(dependent, StepStatus.SKIPPED, null, "Skipped because an upstream step did not complete");
+                    } else {
+                        launch(dependent);
+                    }
+                }
+            }
+
+            if (finishedSteps.incrementAndGet() == graph.size()) {
+                finished.complete(null);
+            }
+        }
+
+        private Map<String, Object> resolveParameters(IntegrationStep step) throws JsonProcessingException {
+            Map<String, Object> parameters = new HashMap<>();
+            if (step.getParameters() != null) {
+                parameters.putAll(step.getParameters());
+            }
+
+            if (step.getBindings() != null) {
+                for (Map.Entry<String, IntegrationStep.StepBinding> entry : step.getBindings().entrySet()) {
+                    IntegrationStep.StepBinding binding = entry.getValue();
+                    JsonNode source = binding.getStep() != null ? outputs.get(binding.getStep()) : input;
+                    JsonNode value = binding.getPointer() != null && !binding.getPointer().isEmpty()
+                            ? source.at(binding.getPointer()) : source;
+
+                    if (value.isMissingNode()) {
+                        throw new InvalidParameterException("Pointer '" + binding.getPointer() + "' of parameter '" +
+                                entry.getKey() + "' did not match " +
+                                (binding.getStep() != null ? "the output of step '" + binding.getStep() + "'" : "the input"));
+                    }
+                    parameters.put(entry.getKey(), objectMapper.treeToValue(value, Object.class));
+                }
+            }
+
+            return parameters;
+        }
+
+        private void updateStepState(String stepId, IntegrationStepState state) {
+            stepStates.put(stepId, state);
+            try {
+                integrationExecutionJdbcRepository.updateStepState(execution.getId(), stepId, state);
+            } catch (Exception e) {
+                // The full step states are written with the final state of the execution
+                log.warn("Error persisting state of step {} of execution {}: {}", stepId, execution.getId(), e.getMessage());
+            }
+        }
+
+        private BaseExecution complete(Throwable ex) {
+            if (ex instanceof CancellationException) {
+                stepStates.replaceAll((id, state) -> state.getStatus() == StepStatus.PENDING
+                        ? state.toBuilder().status(StepStatus.CANCELLED).endTime(Instant.now()).build()
+                        : state);
+                execution.setStepStates(new LinkedHashMap<>(stepStates));
+                execution.markAsCancelled();
+                return execution;
+            }
+
+            execution.setStepStates(new LinkedHashMap<>(stepStates));
+
+            List<String> failedSteps = graph.getSteps().stream()
+                    .map(IntegrationStep::getId)
+                    .filter(id -> stepStates.get(id).getStatus() != StepStatus.COMPLETED)
+                    .toList();
+            if (!failedSteps.isEmpty()) {
+                execution.markAsFailed("Steps did not complete: " + String.join(", ", failedSteps));
+                return execution;
+            }
+
+            // The outputs of the final steps form the result
+            Map<String, Object> result = new LinkedHashMap<>();
+            for (IntegrationStep step : graph.getSteps()) {
+                if (graph.isSink(step.getId())) {
+                    result.put(step.getId(), objectMapper.convertValue(outputs.get(step.getId()), Object.class));
+                }
+            }
+            execution.markAsCompleted(result);
+            return execution;
+        }
+    }
+}
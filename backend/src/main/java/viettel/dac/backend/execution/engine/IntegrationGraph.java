@@ -0,0 +1,152 @@
+package viettel.dac.backend.execution.engine;
+
+import viettel.dac.backend.execution.exception.InvalidParameterException;
+import viettel.dac.backend.template.entity.IntegrationStep;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Validated dependency graph of the steps of an INTEGRATION template.
+ * Step IDs are unique, dependencies exist, the graph is acyclic and every binding reads
+ * from the integration input or from an upstream step.
+ */
+public final class IntegrationGraph {
+
+    private final Map<String, IntegrationStep> steps;
+    private final Map<String, List<String>> dependents;
+
+    private IntegrationGraph(Map<String, IntegrationStep> steps, Map<String, List<String>> dependents) {
+        this.steps = steps;
+        this.dependents = dependents;
+    }
+
+    public static IntegrationGraph of(List<IntegrationStep> stepList) {
+        if (stepList == null || stepList.isEmpty()) {
+            throw new InvalidParameterException("Integration template must have at least one step");
+        }
+
+        Map<String, IntegrationStep> steps = new LinkedHashMap<>();
+        for (IntegrationStep step : stepList) {
+            if (step.getId() == null || step.getId().isBlank()) {
+                throw new InvalidParameterException("Every integration step must have an ID");
+            }
+            if (step.getTemplateId() == null) {
+                throw new InvalidParameterException("Step '" + step.getId() + "' must reference a template");
+            }
+            if (steps.put(step.getId(), step) != null) {
+                throw new InvalidParameterException("Duplicate step ID: " + step.getId());
+            }
+        }
+
+        Map<String, List<String>> dependents = new HashMap<>();
+        Map<String, Integer> remaining = new HashMap<>();
+        for (IntegrationStep step : steps.values()) {
+            dependents.putIfAbsent(step.getId(), new ArrayList<>());
+            for (String dependency : dependenciesOf(step)) {
+                if (!steps.containsKey(dependency) || dependency.equals(step.getId())) {
+                    throw new InvalidParameterException("Step '" + step.getId() + "' depends on unknown step: " + dependency);
+                }
+                dependents.computeIfAbsent(dependency, id -> new ArrayList<>()).add(step.getId());
+            }
+            remaining.put(step.getId(), dependenciesOf(step).size());
+        }
+
+        // Walk the steps in topological order, collecting the ancestors of each step
+        Map<String, Set<String>> ancestors = new HashMap<>();
+        Deque<String> ready = new ArrayDeque<>();
+        remaining.forEach((id, count) -> {
+            if (count == 0) {
+                ready.add(id);
+            }
+        });
+
+        int visited = 0;
+        while (!ready.isEmpty()) {
+            String id = ready.poll();
+            visited++;
+
+            Set<String> stepAncestors = new HashSet<>();
+            for (String dependency : dependenciesOf(steps.get(id))) {
+                stepAncestors.add(dependency);
+                stepAncestors.addAll(ancestors.get(dependency));
+            }
+            ancestors.put(id, stepAncestors);
+            validateBindings(steps.get(id), stepAncestors);
+
+            for (String dependent : dependents.get(id)) {
+                if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+                    ready.add(dependent);
+                }
+            }
+        }
+
+        if (visited != steps.size()) {
+            throw new InvalidParameterException("Integration steps contain a dependency cycle");
+        }
+
+        return new IntegrationGraph(steps, dependents);
+    }
+
+    public Collection<IntegrationStep> getSteps() {
+        return steps.values();
+    }
+
+    public IntegrationStep getStep(String id) {
+        return steps.get(id);
+    }
+
+    public int size() {
+        return steps.size();
+    }
+
+    public List<String> getDependencies(String id) {
+        return dependenciesOf(steps.get(id));
+    }
+
+    public List<String> getDependents(String id) {
+        return dependents.get(id);
+    }
+
+    /**
+     * Steps no other step depends on; their outputs form the integration result.
+     */
+    public boolean isSink(String id) {
+        return dependents.get(id).isEmpty();
+    }
+
+    public Set<UUID> getTemplateIds() {
+        Set<UUID> templateIds = new HashSet<>();
+        steps.values().forEach(step -> templateIds.add(step.getTemplateId()));
+        return templateIds;
+    }
+
+    private static List<String> dependenciesOf(IntegrationStep step) {
+        return step.getDependsOn() != null ? step.getDependsOn() : List.of();
+    }
+
+    private static void validateBindings(IntegrationStep step, Set<String> ancestors) {
+        if (step.getBindings() == null) {
+            return;
+        }
+
+        step.getBindings().forEach((parameter, binding) -> {
+            if (binding == null) {
+                throw new InvalidParameterException("Binding of parameter '" + parameter + "' in step '" + step.getId() + "' is empty");
+            }
+            if (binding.getStep() != null && !ancestors.contains(binding.getStep())) {
+                throw new InvalidParameterException("Parameter '" + parameter + "' of step '" + step.getId() +
+                        "' is bound to step '" + binding.getStep() + "', which is not upstream of it");
+            }
+        });
+    }
+}
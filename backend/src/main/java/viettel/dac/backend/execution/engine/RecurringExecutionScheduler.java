@@ -0,0 +1,407 @@
+package viettel.dac.backend.execution.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.netty.util.HashedWheelTimer;
+import io.netty.util.Timeout;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+import viettel.dac.backend.common.exception.QuotaExceededException;
+import viettel.dac.backend.execution.entity.BaseExecution;
+import viettel.dac.backend.execution.entity.ExecutionSchedule;
+import viettel.dac.backend.execution.enums.ExecutionStatus;
+import viettel.dac.backend.execution.repository.ExecutionRepository;
+import viettel.dac.backend.execution.repository.ExecutionScheduleJdbcRepository;
+import viettel.dac.backend.execution.repository.ExecutionScheduleRepository;
+import viettel.dac.backend.template.entity.ApiTemplate;
+import viettel.dac.backend.template.entity.BaseTemplate;
+import viettel.dac.backend.template.entity.IntegrationTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs execution schedules in-process.
+ * <p>
+ * Every instance periodically renews its leases in {@code execution_schedules} and claims schedules
+ * whose lease is free or expired, so each schedule is run by one instance at a time. Leased schedules
+ * are armed on a {@link HashedWheelTimer}; a due run creates the execution record directly and queues
+ * it with the {@link FairExecutionScheduler}, without going through the HTTP API.
+ * <p>
+ * A run is skipped while the previous execution of the schedule is still pending or running, and runs
+ * missed while no instance held the lease are collapsed into a single catch-up run. After a takeover,
+ * a previous execution older than its timeout plus the lease duration is taken to be orphaned by the
+ * failed owner and no longer holds up the schedule.
+ */
+@Component
+@Slf4j
+public class RecurringExecutionScheduler {
+
+    private final ExecutionScheduleRepository scheduleRepository;
+    private final ExecutionScheduleJdbcRepository scheduleJdbcRepository;
+    private final ExecutionRepository executionRepository;
+    private final ExecutionEngine executionEngine;
+    private final FairExecutionScheduler fairExecutionScheduler;
+    private final Executor executionTaskExecutor;
+    private final TaskScheduler executionScheduler;
+
+    private final String nodeId;
+    private final Map<UUID, ArmedSchedule> armed = new ConcurrentHashMap<>();
+    private HashedWheelTimer timer;
+
+    private final Counter runsCounter;
+    private final Counter skippedCounter;
+
+    @Value("${tool-template.execution.schedules.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${tool-template.execution.schedules.lease-duration:30000}")
+    private long leaseDurationMs = 30000;
+
+    @Value("${tool-template.execution.schedules.max-leased:1000}")
+    private int maxLeased = 1000;
+
+    @Value("${tool-template.execution.schedules.tick-duration:100}")
+    private long tickDurationMs = 100;
+
+    @Value("${tool-template.execution.default-timeout:60000}")
+    private int defaultTimeoutMs = 60000;
+
+    @Autowired
+    public RecurringExecutionScheduler(ExecutionScheduleRepository scheduleRepository,
+                                       ExecutionScheduleJdbcRepository scheduleJdbcRepository,
+                                       ExecutionRepository executionRepository,
+                                       ExecutionEngine executionEngine,
+                                       FairExecutionScheduler fairExecutionScheduler,
+                                       @Qualifier("executionTaskExecutor") Executor executionTaskExecutor,
+                                       @Qualifier("executionScheduler") TaskScheduler executionScheduler,
+                                       MeterRegistry meterRegistry) {
+        this.scheduleRepository = scheduleRepository;
+        this.scheduleJdbcRepository = scheduleJdbcRepository;
+        this.executionRepository = executionRepository;
+        this.executionEngine = executionEngine;
+        this.fairExecutionScheduler = fairExecutionScheduler;
+        this.executionTaskExecutor = executionTaskExecutor;
+        this.executionScheduler = executionScheduler;
+        this.nodeId = hostName() + "/" + UUID.randomUUID();
+
+        this.runsCounter = Counter.builder("execution.schedule.runs")
+                .description("Scheduled executions started")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("execution.schedule.skipped")
+                .description("Scheduled runs skipped because the previous run was still active or a quota was exceeded")
+                .register(meterRegistry);
+        Gauge.builder("execution.schedule.leased", armed, Map::size)
+                .description("Execution schedules leased by this instance")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            log.info("Execution schedules are disabled on this instance");
+            return;
+        }
+        timer = new HashedWheelTimer(runnable -> {
+            Thread thread = new Thread(runnable, "execution-schedule-timer");
+            thread.setDaemon(true);
+            return thread;
+        }, tickDurationMs, TimeUnit.MILLISECONDS, 512);
+
+        // Renew well before the lease expires
+        executionScheduler.scheduleWithFixedDelay(this::syncLeases, Duration.ofMillis(leaseDurationMs / 3));
+        log.info("Execution schedules run on this instance as {}", nodeId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (timer == null) {
+            return;
+        }
+        timer.stop();
+        armed.clear();
+        try {
+            // Let another instance take over right away
+            scheduleJdbcRepository.releaseLeases(nodeId);
+        } catch (Exception e) {
+            log.warn("Error releasing execution schedule leases: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Next run of a schedule strictly after {@code after}.
+     */
+    public static Instant nextRunAfter(ExecutionSchedule schedule, Instant after) {
+        if (schedule.getCronExpression() != null) {
+            ZonedDateTime next = CronExpression.parse(schedule.getCronExpression())
+                    .next(after.atZone(ZoneId.of(schedule.getTimeZone())));
+            return next != null ? next.toInstant() : null;
+        }
+        return after.plusMillis(schedule.getFixedRateMs());
+    }
+
+    /**
+     * Renew and claim leases, then arm new or edited schedules and disarm the ones no longer leased.
+     */
+    void syncLeases() {
+        List<ExecutionScheduleJdbcRepository.LeasedSchedule> leased;
+        try {
+            leased = scheduleJdbcRepository.acquireLeases(nodeId, leaseDurationMs, maxLeased);
+        } catch (Exception e) {
+            log.error("Error renewing execution schedule leases: {}", e.getMessage(), e);
+            return;
+        }
+        // Leases are valid until the next renewal plus a margin
+        long leaseValidUntilNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(leaseDurationMs * 2 / 3);
+
+        Set<UUID> leasedIds = new HashSet<>();
+        for (ExecutionScheduleJdbcRepository.LeasedSchedule lease : leased) {
+            leasedIds.add(lease.id());
+            ArmedSchedule current = armed.get(lease.id());
+            if (current != null && Objects.equals(current.lastModifiedAt, lease.lastModifiedAt())) {
+                current.leaseValidUntilNanos = leaseValidUntilNanos;
+                continue;
+            }
+            if (current != null) {
+                disarm(lease.id());
+            }
+            arm(lease.id(), lease.lastModifiedAt(), leaseValidUntilNanos);
+        }
+
+        for (UUID scheduleId : armed.keySet()) {
+            if (!leasedIds.contains(scheduleId)) {
+                log.info("Lease of execution schedule {} lost or schedule disabled, disarming", scheduleId);
+                disarm(scheduleId);
+            }
+        }
+    }
+
+    private void arm(UUID scheduleId, Instant lastModifiedAt, long leaseValidUntilNanos) {
+        ExecutionSchedule schedule = scheduleRepository.findById(scheduleId).orElse(null);
+        if (schedule == null || !schedule.isEnabled()) {
+            return;
+        }
+
+        BaseTemplate template;
+        try {
+            template = executionEngine.validate(schedule.getTemplateId(), schedule.getParameters());
+        } catch (Exception e) {
+            // Retried on the next lease renewal
+            log.warn("Execution schedule {} not armed: {}", scheduleId, e.getMessage());
+            return;
+        }
+
+        ArmedSchedule armedSchedule = new ArmedSchedule(schedule, template, lastModifiedAt);
+        armedSchedule.leaseValidUntilNanos = leaseValidUntilNanos;
+        armed.put(scheduleId, armedSchedule);
+
+        // A run missed while the schedule had no owner is made up once, right away
+        Instant nextRunAt = schedule.getNextRunAt() != null ? schedule.getNextRunAt() : nextRunAfter(schedule, Instant.now());
+        schedule(armedSchedule, nextRunAt);
+    }
+
+    private void disarm(UUID scheduleId) {
+        ArmedSchedule armedSchedule = armed.remove(scheduleId);
+        if (armedSchedule != null && armedSchedule.timeout != null) {
+            armedSchedule.timeout.cancel();
+        }
+    }
+
+    private void schedule(ArmedSchedule armedSchedule, Instant runAt) {
+        if (runAt == null) {
+            log.info("Execution schedule {} has no further runs", armedSchedule.schedule.getId());
+            return;
+        }
+        long delayMs = Math.max(0, Duration.between(Instant.now(), runAt).toMillis());
+        armedSchedule.nextRunAt = runAt;
+        // The wheel thread only hands the run over to the execution executor
+        armedSchedule.timeout = timer.newTimeout(timeout -> handOver(armedSchedule), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void handOver(ArmedSchedule armedSchedule) {
+        try {
+            executionTaskExecutor.execute(() -> run(armedSchedule));
+        } catch (RejectedExecutionException e) {
+            // Retried on the next tick while the executor is saturated, keeping the schedule's phase
+            if (armed.get(armedSchedule.schedule.getId()) == armedSchedule) {
+                armedSchedule.timeout = timer.newTimeout(timeout -> handOver(armedSchedule),
+                        tickDurationMs, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private void run(ArmedSchedule armedSchedule) {
+        ExecutionSchedule schedule = armedSchedule.schedule;
+        if (armed.get(schedule.getId()) != armedSchedule) {
+            return;
+        }
+        if (System.nanoTime() - armedSchedule.leaseValidUntilNanos > 0) {
+            log.warn("Lease of execution schedule {} not renewed in time, skipping run", schedule.getId());
+            disarm(schedule.getId());
+            return;
+        }
+
+        Instant now = Instant.now();
+        Instant nextRunAt = nextRunAfter(schedule, fixedRateAnchor(armedSchedule, now));
+        UUID executionId = null;
+        try {
+            if (isPreviousRunActive(armedSchedule)) {
+                skippedCounter.increment();
+                log.info("Previous run of execution schedule {} is still active, skipping", schedule.getId());
+            } else {
+                executionId = start(armedSchedule);
+            }
+        } catch (QuotaExceededException e) {
+            skippedCounter.increment();
+            log.warn("Execution schedule {} skipped: {}", schedule.getId(), e.getMessage());
+        } catch (Exception e) {
+            log.error("Error running execution schedule {}: {}", schedule.getId(), e.getMessage(), e);
+        }
+
+        boolean stillOwned;
+        try {
+            stillOwned = scheduleJdbcRepository.recordRun(schedule.getId(), nodeId,
+                    executionId != null ? now : null, nextRunAt, executionId);
+        } catch (Exception e) {
+            log.error("Error recording run of execution schedule {}: {}", schedule.getId(), e.getMessage(), e);
+            stillOwned = true;
+        }
+        if (!stillOwned) {
+            disarm(schedule.getId());
+            return;
+        }
+        if (armed.get(schedule.getId()) == armedSchedule) {
+            schedule(armedSchedule, nextRunAt);
+        }
+    }
+
+    /**
+     * Fixed-rate schedules keep their phase; runs that are already in the past are skipped.
+     */
+    private Instant fixedRateAnchor(ArmedSchedule armedSchedule, Instant now) {
+        ExecutionSchedule schedule = armedSchedule.schedule;
+        if (schedule.getFixedRateMs() == null || armedSchedule.nextRunAt == null) {
+            return now;
+        }
+        long rateMs = schedule.getFixedRateMs();
+        long behindMs = Duration.between(armedSchedule.nextRunAt, now).toMillis();
+        return behindMs <= 0 ? armedSchedule.nextRunAt : armedSchedule.nextRunAt.plusMillis(behindMs / rateMs * rateMs);
+    }
+
+    private boolean isPreviousRunActive(ArmedSchedule armedSchedule) {
+        if (armedSchedule.lastRun != null) {
+            return !armedSchedule.lastRun.isDone();
+        }
+        // After a takeover the previous run may belong to another instance, or to one that failed
+        UUID lastExecutionId = armedSchedule.schedule.getLastExecutionId();
+        return lastExecutionId != null && executionRepository.findById(lastExecutionId)
+                .map(execution -> (execution.getStatus() == ExecutionStatus.PENDING
+                        || execution.getStatus() == ExecutionStatus.RUNNING)
+                        && !isOrphaned(execution, armedSchedule))
+                .orElse(false);
+    }
+
+    /**
+     * A previous run that has been pending or running for longer than its timeout plus a lease
+     * cannot belong to a live instance: its owner would have timed it out or kept the lease.
+     */
+    private boolean isOrphaned(BaseExecution execution, ArmedSchedule armedSchedule) {
+        BaseTemplate template = armedSchedule.template;
+        Instant since = execution.getStartTime() != null ? execution.getStartTime() : execution.getCreatedAt();
+        if (since == null) {
+            return false;
+        }
+        long timeoutMs = template instanceof ApiTemplate apiTemplate
+                && apiTemplate.getTimeout() != null && apiTemplate.getTimeout() > 0
+                ? apiTemplate.getTimeout() : defaultTimeoutMs;
+        if (Duration.between(since, Instant.now()).toMillis() <= timeoutMs + leaseDurationMs) {
+            return false;
+        }
+        log.warn("Previous run {} of execution schedule {} is still {} after its owner lost the lease, "
+                + "taking it as orphaned", execution.getId(), armedSchedule.schedule.getId(), execution.getStatus());
+        return true;
+    }
+
+    private UUID start(ArmedSchedule armedSchedule) {
+        ExecutionSchedule schedule = armedSchedule.schedule;
+
+        // Template edits are picked up once the cached copy is older than a lease
+        if (System.nanoTime() - armedSchedule.templateLoadedAtNanos > TimeUnit.MILLISECONDS.toNanos(leaseDurationMs)) {
+            armedSchedule.template = executionEngine.validate(schedule.getTemplateId(), schedule.getParameters());
+            armedSchedule.templateLoadedAtNanos = System.nanoTime();
+        }
+        BaseTemplate template = armedSchedule.template;
+
+        fairExecutionScheduler.admit(schedule.getUserId(), 1);
+
+        BaseExecution execution = new BaseExecution();
+        execution.setTemplateId(schedule.getTemplateId());
+        execution.setUserId(schedule.getUserId());
+        execution.setStatus(ExecutionStatus.PENDING);
+        BaseExecution savedExecution;
+        try {
+            savedExecution = executionRepository.save(execution);
+        } catch (RuntimeException e) {
+            fairExecutionScheduler.releaseAdmission(schedule.getUserId(), 1);
+            throw e;
+        }
+
+        Supplier<CompletableFuture<BaseExecution>> task =
+                () -> executionEngine.dispatch(template, savedExecution, schedule.getParameters());
+        armedSchedule.lastRun = template instanceof IntegrationTemplate
+                ? fairExecutionScheduler.submitCoordinator(savedExecution, schedule.getPriority(), task)
+                : fairExecutionScheduler.submit(savedExecution, schedule.getPriority(), task);
+        runsCounter.increment();
+        log.debug("Execution schedule {} started execution {}", schedule.getId(), savedExecution.getId());
+        return savedExecution.getId();
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    private static final class ArmedSchedule {
+        private final ExecutionSchedule schedule;
+        private final Instant lastModifiedAt;
+        private volatile BaseTemplate template;
+        private volatile long templateLoadedAtNanos;
+        private volatile long leaseValidUntilNanos;
+        private volatile Instant nextRunAt;
+        private volatile Timeout timeout;
+        private volatile CompletableFuture<BaseExecution> lastRun;
+
+        private ArmedSchedule(ExecutionSchedule schedule, BaseTemplate template, Instant lastModifiedAt) {
+            this.schedule = schedule;
+            this.template = template;
+            this.templateLoadedAtNanos = System.nanoTime();
+            this.lastModifiedAt = lastModifiedAt;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package viettel.dac.backend.execution.engine;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import viettel.dac.backend.execution.http.ApiHttpResponse;
+import viettel.dac.backend.template.entity.ApiTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight coalescing of identical concurrent API executions.
+ * Executions of the same template version with the same canonicalized parameters share the upstream
+ * request of the first one (the leader) while it is in flight. Every caller gets its own future, and
+ * the shared request is only cancelled once all callers have cancelled.
+ */
+@Component
+@Slf4j
+public class RequestCoalescer {
+
+    private final ObjectMapper canonicalMapper;
+    private final Map<String, SharedCall> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leadersCounter;
+    private final Counter coalescedCounter;
+
+    @Autowired
+    public RequestCoalescer(ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        // Map keys are sorted so that parameter order does not change the key
+        this.canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+        this.leadersCounter = Counter.builder("execution.coalescing.leaders")
+                .description("Upstream requests made on behalf of coalesced executions")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("execution.coalescing.coalesced")
+                .description("Executions that joined an in-flight upstream request instead of making their own")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Join the in-flight request for the same template and parameters, or make it.
+     */
+    public CoalescedCall execute(ApiTemplate template, Map<String, Object> parameters, UUID executionId,
+                                 Supplier<CompletableFuture<ApiHttpResponse>> call, List<Long> attemptLatenciesMs) {
+        String key;
+        try {
+            // Versions are not bumped on edits, so the modification time tells template revisions apart
+            key = template.getId() + ":" + template.getVersion() + ":" + template.getLastModifiedAt() + ":"
+                    + canonicalMapper.writeValueAsString(parameters != null ? new TreeMap<>(parameters) : Map.of());
+        } catch (JsonProcessingException e) {
+            log.debug("Parameters of execution {} cannot be canonicalized, not coalescing: {}", executionId, e.getMessage());
+            return new CoalescedCall(call.get(), null, attemptLatenciesMs);
+        }
+
+        while (true) {
+            SharedCall shared = inFlight.get(key);
+            if (shared == null) {
+                SharedCall created = new SharedCall(executionId, attemptLatenciesMs);
+                if (inFlight.putIfAbsent(key, created) != null) {
+                    continue;
+                }
+                leadersCounter.increment();
+                CompletableFuture<ApiHttpResponse> caller = created.join();
+                created.start(call, () -> inFlight.remove(key, created));
+                return new CoalescedCall(caller, null, attemptLatenciesMs);
+            }
+
+            CompletableFuture<ApiHttpResponse> caller = shared.join();
+            if (caller != null) {
+                coalescedCounter.increment();
+                return new CoalescedCall(caller, shared.leaderExecutionId, shared.attemptLatenciesMs);
+            }
+            // The shared call finished or was cancelled before we could join, start over
+            inFlight.remove(key, shared);
+        }
+    }
+
+    /**
+     * The future for one caller, the leader execution if the request was shared, and the attempt
+     * latencies of the upstream request.
+     */
+    public record CoalescedCall(CompletableFuture<ApiHttpResponse> response, UUID leaderExecutionId,
+                                List<Long> attemptLatenciesMs) {
+    }
+
+    private static final class SharedCall {
+        private final UUID leaderExecutionId;
+        private final List<Long> attemptLatenciesMs;
+        private final List<CompletableFuture<ApiHttpResponse>> callers = new CopyOnWriteArrayList<>();
+        private CompletableFuture<ApiHttpResponse> request;
+        private int activeCallers;
+        private boolean closed;
+
+        private SharedCall(UUID leaderExecutionId, List<Long> attemptLatenciesMs) {
+            this.leaderExecutionId = leaderExecutionId;
+            this.attemptLatenciesMs = attemptLatenciesMs;
+        }
+
+        /**
+         * A new future completed with the shared result, or null once the call can no longer be joined.
+         */
+        private synchronized CompletableFuture<ApiHttpResponse> join() {
+            if (closed) {
+                return null;
+            }
+            CompletableFuture<ApiHttpResponse> caller = new CompletableFuture<>();
+            callers.add(caller);
+            activeCallers++;
+            caller.whenComplete((response, ex) -> {
+                if (caller.isCancelled()) {
+                    leave();
+                }
+            });
+            return caller;
+        }
+
+        private void start(Supplier<CompletableFuture<ApiHttpResponse>> call, Runnable onDone) {
+            CompletableFuture<ApiHttpResponse> started = call.get();
+            synchronized (this) {
+                request = started;
+                if (closed) {
+                    // Every caller cancelled while the request was being created
+                    started.cancel(true);
+                }
+            }
+            started.whenComplete((response, ex) -> {
+                synchronized (this) {
+                    closed = true;
+                }
+                onDone.run();
+                for (CompletableFuture<ApiHttpResponse> caller : callers) {
+                    if (ex != null) {
+                        caller.completeExceptionally(ex);
+                    } else {
+                        caller.complete(response);
+                    }
+                }
+            });
+        }
+
+        private void leave() {
+            CompletableFuture<ApiHttpResponse> toCancel = null;
+            synchronized (this) {
+                activeCallers--;
+                if (activeCallers == 0 && !closed) {
+                    closed = true;
+                    toCancel = request;
+                }
+            }
+            if (toCancel != null) {
+                toCancel.cancel(true);
+            }
+        }
+    }
+}
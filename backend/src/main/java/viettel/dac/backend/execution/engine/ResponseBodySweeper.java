@@ -0,0 +1,101 @@
+package viettel.dac.backend.execution.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import viettel.dac.backend.common.config.ApiClientProperties;
+import viettel.dac.backend.execution.http.ResponseBodyStore;
+import viettel.dac.backend.execution.repository.ApiExecutionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Deletes spilled response bodies no execution refers to any more, such as those of executions
+ * removed by the result retention or deleted by their owner. Only bodies older than
+ * {@code sweepMinAge} are deleted, so a body whose execution state is still waiting to be written
+ * is kept. Every instance sweeps the store it writes to.
+ */
+@Component
+@Slf4j
+public class ResponseBodySweeper {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ApiClientProperties properties;
+    private final ResponseBodyStore responseBodyStore;
+    private final ApiExecutionRepository apiExecutionRepository;
+    private final TaskScheduler executionScheduler;
+
+    private final Counter deletedCounter;
+
+    @Autowired
+    public ResponseBodySweeper(ApiClientProperties properties,
+                               ResponseBodyStore responseBodyStore,
+                               ApiExecutionRepository apiExecutionRepository,
+                               @Qualifier("executionScheduler") TaskScheduler executionScheduler,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.responseBodyStore = responseBodyStore;
+        this.apiExecutionRepository = apiExecutionRepository;
+        this.executionScheduler = executionScheduler;
+
+        this.deletedCounter = Counter.builder("execution.response_store.deleted")
+                .description("Stored response bodies deleted because no execution refers to them")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        long intervalMs = properties.getResponse().getSweepInterval();
+        if (intervalMs > 0) {
+            executionScheduler.scheduleWithFixedDelay(this::sweep, Instant.now().plusMillis(intervalMs),
+                    Duration.ofMillis(intervalMs));
+        }
+    }
+
+    void sweep() {
+        Instant cutoff = Instant.now().minusMillis(properties.getResponse().getSweepMinAge());
+        int deleted = 0;
+        try (Stream<String> stored = responseBodyStore.findStoredBefore(cutoff)) {
+            Iterator<String> refs = stored.iterator();
+            List<String> batch = new ArrayList<>(BATCH_SIZE);
+            while (refs.hasNext()) {
+                batch.add(refs.next());
+                if (batch.size() == BATCH_SIZE || !refs.hasNext()) {
+                    deleted += deleteUnreferenced(batch, cutoff);
+                    batch.clear();
+                }
+            }
+            responseBodyStore.discardTempFilesBefore(cutoff);
+        } catch (Exception e) {
+            log.error("Error sweeping the response body store: {}", e.getMessage(), e);
+        }
+        if (deleted > 0) {
+            log.info("Deleted {} stored response bodies no execution refers to", deleted);
+        }
+    }
+
+    private int deleteUnreferenced(List<String> refs, Instant cutoff) {
+        Set<String> referenced = apiExecutionRepository.findReferencedResponseBodies(refs);
+        int deleted = 0;
+        for (String ref : refs) {
+            // Bodies stored again since the cutoff are kept, as a new execution may refer to them
+            if (!referenced.contains(ref) && responseBodyStore.delete(ref, cutoff)) {
+                deletedCounter.increment();
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,351 @@
+package viettel.dac.backend.execution.engine;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import viettel.dac.backend.template.entity.BaseTemplate;
+import viettel.dac.backend.template.repository.TemplateRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Execution-ready template snapshots by template id, so executions of hot templates do not query
+ * the database. Snapshots are detached copies of the template without its tags, shared by all
+ * executions, and must not be modified. They are looked up in a bounded in-process tier, then in
+ * Redis, and loaded from the database on a miss.
+ * <p>
+ * Updates and deletes invalidate the template on every backend instance: the local tier is
+ * cleared at once, and after the transaction commits the Redis entry is removed and the template
+ * id is published on {@value #INVALIDATION_CHANNEL}. Local entries also expire after
+ * {@code localTimeToLive} seconds, which bounds staleness if a message is lost.
+ */
+@Component
+@Slf4j
+public class TemplateSnapshotCache implements MessageListener {
+
+    static final String INVALIDATION_CHANNEL = "template-invalidations";
+    private static final String REDIS_KEY_PREFIX = "template-snapshot:";
+
+    private final TemplateRepository templateRepository;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ApiRenderPlanCache apiRenderPlanCache;
+    private final ObjectMapper snapshotMapper;
+
+    private final boolean enabled;
+    private final long localTimeToLiveMs;
+    private final Duration redisTimeToLive;
+    private final LocalTier localTier;
+
+    // Bumped on every invalidation; loads that overlap one are not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter databaseLoads;
+
+    @Autowired
+    public TemplateSnapshotCache(
+            TemplateRepository templateRepository,
+            RedisTemplate<String, Object> redisTemplate,
+            RedisMessageListenerContainer listenerContainer,
+            ApiRenderPlanCache apiRenderPlanCache,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${tool-template.cache.snapshot.enabled:true}") boolean enabled,
+            @Value("${tool-template.cache.snapshot.max-entries:1000}") int maxEntries,
+            @Value("${tool-template.cache.snapshot.local-time-to-live:60}") long localTimeToLive,
+            @Value("${tool-template.cache.snapshot.redis-time-to-live:${tool-template.cache.template-time-to-live:300}}") long redisTimeToLive) {
+        this.templateRepository = templateRepository;
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.apiRenderPlanCache = apiRenderPlanCache;
+        this.snapshotMapper = objectMapper.copy()
+                .addMixIn(BaseTemplate.class, SnapshotMixin.class)
+                .registerModule(new JavaTimeModule())
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        this.enabled = enabled;
+        this.localTimeToLiveMs = localTimeToLive * 1000;
+        this.redisTimeToLive = Duration.ofSeconds(redisTimeToLive);
+        this.localTier = new LocalTier(maxEntries);
+
+        this.localHits = lookupCounter(meterRegistry, "local");
+        this.redisHits = lookupCounter(meterRegistry, "redis");
+        this.databaseLoads = lookupCounter(meterRegistry, "database");
+        Gauge.builder("execution.template_cache.entries", localTier, LocalTier::size)
+                .description("Template snapshots held in the in-process tier")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("execution.template_cache.lookups")
+                .description("Template lookups on the execution path by where the snapshot was found")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    /**
+     * Find the snapshot of a template, active or not.
+     */
+    public Optional<BaseTemplate> find(UUID templateId) {
+        if (!enabled) {
+            return templateRepository.findById(templateId).map(this::snapshot);
+        }
+
+        long now = System.currentTimeMillis();
+        BaseTemplate template = localTier.get(templateId, now);
+        if (template != null) {
+            localHits.increment();
+            return Optional.of(template);
+        }
+
+        long generation = invalidations.get();
+        template = fromRedis(templateId);
+        if (template != null) {
+            redisHits.increment();
+            storeLocally(template, generation);
+            return Optional.of(template);
+        }
+
+        Optional<BaseTemplate> loaded = templateRepository.findById(templateId).map(this::snapshot);
+        databaseLoads.increment();
+        loaded.ifPresent(snapshot -> store(snapshot, generation));
+        return loaded;
+    }
+
+    /**
+     * Find the snapshots of several templates. Unknown ids are left out of the result.
+     */
+    public Map<UUID, BaseTemplate> findAll(Collection<UUID> templateIds) {
+        Map<UUID, BaseTemplate> templates = new HashMap<>();
+        if (!enabled) {
+            templateRepository.findAllById(templateIds).forEach(template -> templates.put(template.getId(), snapshot(template)));
+            return templates;
+        }
+
+        long now = System.currentTimeMillis();
+        List<UUID> missing = new ArrayList<>();
+        for (UUID templateId : templateIds) {
+            BaseTemplate template = localTier.get(templateId, now);
+            if (template != null) {
+                localHits.increment();
+                templates.put(templateId, template);
+            } else {
+                missing.add(templateId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return templates;
+        }
+
+        long generation = invalidations.get();
+        List<UUID> notInRedis = new ArrayList<>();
+        List<Object> cached = multiGetFromRedis(missing);
+        for (int i = 0; i < missing.size(); i++) {
+            BaseTemplate template = cached != null ? fromJson(missing.get(i), cached.get(i)) : null;
+            if (template != null) {
+                redisHits.increment();
+                templates.put(template.getId(), template);
+                storeLocally(template, generation);
+            } else {
+                notInRedis.add(missing.get(i));
+            }
+        }
+
+        if (!notInRedis.isEmpty()) {
+            templateRepository.findAllById(notInRedis).forEach(template -> {
+                BaseTemplate snapshot = snapshot(template);
+                databaseLoads.increment();
+                templates.put(snapshot.getId(), snapshot);
+                store(snapshot, generation);
+            });
+        }
+        return templates;
+    }
+
+    /**
+     * Invalidate a template that is being updated or deleted, on this and every other instance.
+     * Within a transaction the shared entries are dropped once it commits, so no instance can
+     * reload the previous state in between.
+     */
+    public void invalidate(UUID templateId) {
+        evictLocally(templateId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateShared(templateId);
+                }
+            });
+        } else {
+            invalidateShared(templateId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        try {
+            evictLocally(UUID.fromString(String.valueOf(payload)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed template invalidation: {}", payload);
+        }
+    }
+
+    private void invalidateShared(UUID templateId) {
+        // Also catches a reload that raced with the transaction
+        evictLocally(templateId);
+        try {
+            redisTemplate.delete(REDIS_KEY_PREFIX + templateId);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, templateId.toString());
+        } catch (Exception e) {
+            log.warn("Redis unavailable, template {} invalidated on this instance only: {}", templateId, e.getMessage());
+        }
+    }
+
+    private void evictLocally(UUID templateId) {
+        invalidations.incrementAndGet();
+        localTier.remove(templateId);
+        apiRenderPlanCache.evict(templateId);
+    }
+
+    private void store(BaseTemplate snapshot, long generation) {
+        if (invalidations.get() != generation) {
+            return;
+        }
+        storeLocally(snapshot, generation);
+        try {
+            redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + snapshot.getId(),
+                    snapshotMapper.writeValueAsString(snapshot), redisTimeToLive);
+        } catch (Exception e) {
+            log.warn("Redis unavailable, template snapshot {} kept locally: {}", snapshot.getId(), e.getMessage());
+        }
+    }
+
+    private void storeLocally(BaseTemplate snapshot, long generation) {
+        if (invalidations.get() == generation) {
+            localTier.put(snapshot.getId(), snapshot, System.currentTimeMillis() + localTimeToLiveMs);
+        }
+    }
+
+    private BaseTemplate fromRedis(UUID templateId) {
+        try {
+            return fromJson(templateId, redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + templateId));
+        } catch (Exception e) {
+            log.warn("Redis unavailable, loading template {} from the database: {}", templateId, e.getMessage());
+            return null;
+        }
+    }
+
+    private List<Object> multiGetFromRedis(List<UUID> templateIds) {
+        try {
+            return redisTemplate.opsForValue().multiGet(templateIds.stream().map(id -> REDIS_KEY_PREFIX + id).toList());
+        } catch (Exception e) {
+            log.warn("Redis unavailable, loading templates {} from the database: {}", templateIds, e.getMessage());
+            return null;
+        }
+    }
+
+    private BaseTemplate fromJson(UUID templateId, Object value) {
+        if (!(value instanceof String json)) {
+            return null;
+        }
+        try {
+            return snapshotMapper.readValue(json, BaseTemplate.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable template snapshot {}: {}", templateId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Detached copy of a loaded template, without touching its lazy associations.
+     */
+    private BaseTemplate snapshot(BaseTemplate template) {
+        try {
+            return snapshotMapper.readValue(snapshotMapper.writeValueAsString(template), BaseTemplate.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Template " + template.getId() + " cannot be copied: " + e.getMessage(), e);
+        }
+    }
+
+    // Snapshots carry their concrete template class and leave out the tags
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, property = "@class")
+    @JsonIgnoreProperties({"tags", "hibernateLazyInitializer", "handler"})
+    private abstract static class SnapshotMixin {
+    }
+
+    private static final class LocalTier {
+        private final int maxEntries;
+        private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private LocalTier(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        private synchronized BaseTemplate get(UUID templateId, long now) {
+            Entry entry = entries.get(templateId);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAtMs() <= now) {
+                entries.remove(templateId);
+                return null;
+            }
+            return entry.template();
+        }
+
+        private synchronized void put(UUID templateId, BaseTemplate template, long expiresAtMs) {
+            if (maxEntries <= 0) {
+                return;
+            }
+            entries.put(templateId, new Entry(template, expiresAtMs));
+            if (entries.size() > maxEntries) {
+                entries.remove(entries.keySet().iterator().next());
+            }
+        }
+
+        private synchronized void remove(UUID templateId) {
+            entries.remove(templateId);
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    private record Entry(BaseTemplate template, long expiresAtMs) {
+    }
+}
@@ -0,0 +1,85 @@
+package viettel.dac.backend.execution.engine;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import viettel.dac.backend.execution.exception.ExecutionException;
+import viettel.dac.backend.execution.http.ApiHttpResponse;
+
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breakers for outbound API calls, one per upstream host.
+ * Connection errors, timeouts and 5xx responses count as failures. While a breaker is open,
+ * calls to its host fail immediately with {@link CallNotPermittedException}.
+ * Breakers use the {@code upstream} configuration of {@code resilience4j.circuitbreaker.configs}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UpstreamCircuitBreakers {
+
+    private static final String CONFIG_NAME = "upstream";
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+
+    public CompletableFuture<ApiHttpResponse> execute(String endpoint, Supplier<CompletableFuture<ApiHttpResponse>> call) {
+        CircuitBreaker circuitBreaker = circuitBreakerFor(endpoint);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return CompletableFuture.failedFuture(CallNotPermittedException.createCallNotPermittedException(circuitBreaker));
+        }
+
+        long start = circuitBreaker.getCurrentTimestamp();
+        CompletableFuture<ApiHttpResponse> result = call.get();
+        result.whenComplete((response, ex) -> {
+            long duration = circuitBreaker.getCurrentTimestamp() - start;
+            Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+
+            if (cause instanceof CancellationException) {
+                // A cancelled call says nothing about the upstream
+                circuitBreaker.releasePermission();
+            } else if (cause != null) {
+                circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(), cause);
+            } else if (response.getStatusCode() >= 500) {
+                circuitBreaker.onError(duration, circuitBreaker.getTimestampUnit(),
+                        new ExecutionException("Upstream returned status code " + response.getStatusCode()));
+            } else {
+                circuitBreaker.onSuccess(duration, circuitBreaker.getTimestampUnit());
+            }
+        });
+        return result;
+    }
+
+    private CircuitBreaker circuitBreakerFor(String endpoint) {
+        String host = hostOf(endpoint);
+        if (circuitBreakerRegistry.getConfiguration(CONFIG_NAME).isPresent()) {
+            return circuitBreakerRegistry.circuitBreaker(host, CONFIG_NAME);
+        }
+        return circuitBreakerRegistry.circuitBreaker(host);
+    }
+
+    /**
+     * Breaker name for an endpoint: its host, with the port when one is given.
+     */
+    static String hostOf(String endpoint) {
+        try {
+            UriComponents uri = UriComponentsBuilder.fromUriString(endpoint).build();
+            if (uri.getHost() == null) {
+                return "unknown";
+            }
+            String host = uri.getHost().toLowerCase(Locale.ROOT);
+            return uri.getPort() > 0 ? host + ":" + uri.getPort() : host;
+        } catch (IllegalArgumentException e) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package viettel.dac.backend.execution.engine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+import viettel.dac.backend.common.config.ApiClientProperties;
+import viettel.dac.backend.execution.exception.RateLimitExceededException;
+import viettel.dac.backend.execution.http.ApiHttpResponse;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Token-bucket rate limiting of outbound API calls, per upstream host and optionally per template.
+ * A call that finds its bucket empty reserves the next token and is delayed on the execution
+ * scheduler instead of being sent early. With {@code tool-template.api.rate-limiting.store=redis}
+ * the buckets live in Redis so every backend instance draws from the same budget.
+ */
+@Component
+@Slf4j
+public class UpstreamRateLimiter {
+
+    private static final String REDIS_KEY_PREFIX = "rate-limit:";
+
+    private final ApiClientProperties properties;
+    private final TaskScheduler executionScheduler;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final DefaultRedisScript<Long> tokenBucketScript;
+    private final DefaultRedisScript<Long> tokenRefundScript;
+    private final Map<String, TokenBucket> localBuckets = new ConcurrentHashMap<>();
+
+    private final Timer waitTimer;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public UpstreamRateLimiter(ApiClientProperties properties,
+                               @Qualifier("executionScheduler") TaskScheduler executionScheduler,
+                               RedisTemplate<String, Object> redisTemplate,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.executionScheduler = executionScheduler;
+        this.redisTemplate = redisTemplate;
+
+        this.tokenBucketScript = new DefaultRedisScript<>();
+        this.tokenBucketScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/token-bucket.lua")));
+        this.tokenBucketScript.setResultType(Long.class);
+        this.tokenRefundScript = new DefaultRedisScript<>();
+        this.tokenRefundScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/token-bucket-refund.lua")));
+        this.tokenRefundScript.setResultType(Long.class);
+
+        this.waitTimer = Timer.builder("execution.rate_limit.wait")
+                .description("Time API calls were delayed by rate limits")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("execution.rate_limit.rejected")
+                .description("API calls failed because the rate limit delay exceeded the max wait")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Send the call once the host and template limits allow it.
+     * Fails with {@link RateLimitExceededException} when the delay would exceed the max wait, or
+     * {@code remainingMs}, what is left of the call's deadline.
+     * Cancelling the returned future cancels a delayed call before or after it is sent.
+     */
+    public CompletableFuture<ApiHttpResponse> execute(UUID templateId, String endpoint, long remainingMs,
+                                                      Supplier<CompletableFuture<ApiHttpResponse>> call) {
+        long delayMs;
+        try {
+            delayMs = reserve(templateId, endpoint, Math.min(properties.getRateLimiting().getMaxWaitMs(), remainingMs));
+        } catch (RateLimitExceededException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+
+        waitTimer.record(delayMs, TimeUnit.MILLISECONDS);
+        if (delayMs == 0) {
+            return call.get();
+        }
+
+        log.debug("Rate limit delays call to {} by {} ms", endpoint, delayMs);
+        CompletableFuture<ApiHttpResponse> result = new CompletableFuture<>();
+        AtomicReference<Future<?>> pending = new AtomicReference<>();
+        pending.set(executionScheduler.schedule(() -> {
+            if (result.isDone()) {
+                return;
+            }
+            CompletableFuture<ApiHttpResponse> request = call.get();
+            pending.set(request);
+            request.whenComplete((response, ex) -> {
+                if (ex != null) {
+                    result.completeExceptionally(ex);
+                } else {
+                    result.complete(response);
+                }
+            });
+            if (result.isCancelled()) {
+                request.cancel(true);
+            }
+        }, Instant.now().plusMillis(delayMs)));
+
+        result.whenComplete((response, ex) -> {
+            if (result.isCancelled()) {
+                pending.get().cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Reserve a token from every bucket that applies and return the longest delay.
+     * A call rejected by one bucket gives back the tokens it already reserved from the others.
+     */
+    private long reserve(UUID templateId, String endpoint, long maxWaitMs) {
+        long delayMs = 0;
+        String hostKey = null;
+        ApiClientProperties.RateLimit hostLimit = null;
+
+        UriComponents uri = parse(endpoint);
+        if (uri != null) {
+            ApiClientProperties.HostSettings hostSettings = properties.findHostSettings(uri.getHost(), uri.getPort());
+            if (hostSettings != null && hostSettings.getRateLimit() != null) {
+                hostLimit = hostSettings.getRateLimit();
+                hostKey = "host:" + UpstreamCircuitBreakers.hostOf(endpoint);
+                if (hostLimit.isPerTemplate()) {
+                    hostKey += ":template:" + templateId;
+                }
+                delayMs = Math.max(delayMs, reserve(hostKey, hostLimit, maxWaitMs, "host " + uri.getHost()));
+            }
+        }
+
+        ApiClientProperties.RateLimit templateLimit = properties.getRateLimiting().getTemplates().get(templateId);
+        if (templateLimit != null) {
+            try {
+                delayMs = Math.max(delayMs, reserve("template:" + templateId, templateLimit, maxWaitMs, "template " + templateId));
+            } catch (RateLimitExceededException e) {
+                if (hostKey != null) {
+                    refund(hostKey, hostLimit);
+                }
+                throw e;
+            }
+        }
+        return delayMs;
+    }
+
+    private long reserve(String key, ApiClientProperties.RateLimit limit, long maxWaitMs, String description) {
+        if (limit.getPermitsPerSecond() <= 0) {
+            return 0;
+        }
+
+        long delayMs = "redis".equalsIgnoreCase(properties.getRateLimiting().getStore())
+                ? reserveInRedis(key, limit, maxWaitMs)
+                : reserveLocally(key, limit, maxWaitMs);
+        if (delayMs < 0) {
+            throw new RateLimitExceededException("Rate limit of " + description + " would delay the request by more than "
+                    + maxWaitMs + " ms");
+        }
+        return delayMs;
+    }
+
+    private void refund(String key, ApiClientProperties.RateLimit limit) {
+        if (limit.getPermitsPerSecond() <= 0) {
+            return;
+        }
+
+        if ("redis".equalsIgnoreCase(properties.getRateLimiting().getStore())) {
+            try {
+                Long refunded = redisTemplate.execute(tokenRefundScript, new StringRedisSerializer(),
+                        new GenericToStringSerializer<>(Long.class), List.of(REDIS_KEY_PREFIX + key),
+                        String.valueOf(limit.effectiveBurst()));
+                if (refunded != null && refunded == 1) {
+                    return;
+                }
+            } catch (Exception e) {
+                log.warn("Redis rate limiter unavailable, refunding the local bucket for {}: {}", key, e.getMessage());
+            }
+        }
+        // The token may have come from the local bucket if Redis was unavailable when it was reserved
+        TokenBucket bucket = localBuckets.get(key);
+        if (bucket != null) {
+            bucket.refund(limit.effectiveBurst());
+        }
+    }
+
+    private long reserveInRedis(String key, ApiClientProperties.RateLimit limit, long maxWaitMs) {
+        try {
+            Long delayMs = redisTemplate.execute(tokenBucketScript, new StringRedisSerializer(),
+                    new GenericToStringSerializer<>(Long.class), List.of(REDIS_KEY_PREFIX + key),
+                    String.valueOf(limit.getPermitsPerSecond()), String.valueOf(limit.effectiveBurst()),
+                    String.valueOf(maxWaitMs));
+            if (delayMs != null) {
+                return delayMs;
+            }
+        } catch (Exception e) {
+            log.warn("Redis rate limiter unavailable, using the local bucket for {}: {}", key, e.getMessage());
+        }
+        // Without Redis every instance falls back to its own budget
+        return reserveLocally(key, limit, maxWaitMs);
+    }
+
+    private long reserveLocally(String key, ApiClientProperties.RateLimit limit, long maxWaitMs) {
+        return localBuckets.computeIfAbsent(key, k -> new TokenBucket())
+                .reserve(limit.getPermitsPerSecond(), limit.effectiveBurst(), maxWaitMs);
+    }
+
+    private static UriComponents parse(String endpoint) {
+        try {
+            UriComponents uri = UriComponentsBuilder.fromUriString(endpoint).build();
+            return uri.getHost() != null ? uri : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * In-memory token bucket, the same algorithm as {@code redis/token-bucket.lua}.
+     * Tokens may go negative, so later callers wait behind earlier reservations.
+     */
+    static final class TokenBucket {
+
+        private final LongSupplier nanoTime;
+        private double tokens = Double.NaN;
+        private long lastRefillNanos;
+
+        TokenBucket() {
+            this(System::nanoTime);
+        }
+
+        TokenBucket(LongSupplier nanoTime) {
+            this.nanoTime = nanoTime;
+        }
+
+        synchronized long reserve(double permitsPerSecond, int burst, long maxWaitMs) {
+            long now = nanoTime.getAsLong();
+            if (Double.isNaN(tokens)) {
+                tokens = burst;
+            } else {
+                tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1e9 * permitsPerSecond);
+            }
+            lastRefillNanos = now;
+
+            long waitMs = 0;
+            if (tokens < 1) {
+                waitMs = (long) Math.ceil((1 - tokens) * 1000 / permitsPerSecond);
+                if (waitMs > maxWaitMs) {
+                    return -1;
+                }
+            }
+            tokens -= 1;
+            return waitMs;
+        }
+
+        /**
+         * Give back a token reserved by a call that was not sent.
+         */
+        synchronized void refund(int burst) {
+            if (!Double.isNaN(tokens)) {
+                tokens = Math.min(burst, tokens + 1);
+            }
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package viettel.dac.backend.execution.engine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scripting.support.ResourceScriptSource;
+import org.springframework.stereotype.Component;
+import viettel.dac.backend.common.config.ExecutionQuotaProperties;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user execution counters: executions started today and executions running now.
+ * With {@code tool-template.execution.quotas.store=redis} the counters are kept in Redis so the
+ * limits hold across instances; when Redis is unreachable the local counters are used instead.
+ * Running counters expire if not refreshed, so slots held by a crashed instance are freed.
+ * A slot is released in the store that granted it, and counters never go below zero, so a release
+ * after Redis failed over or the counter expired cannot hand out extra slots.
+ */
+@Component
+@Slf4j
+public class UserQuotaCounters {
+
+    private static final String DAILY_KEY_PREFIX = "quota:daily:";
+    private static final String RUNNING_KEY_PREFIX = "quota:running:";
+    private static final long DAILY_TTL_SECONDS = Duration.ofDays(2).toSeconds();
+    private static final long RUNNING_TTL_SECONDS = Duration.ofMinutes(30).toSeconds();
+
+    private final ExecutionQuotaProperties properties;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final DefaultRedisScript<Long> boundedIncrementScript;
+    private final DefaultRedisScript<Long> flooredDecrementScript;
+    private final Map<String, AtomicLong> localCounters = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserQuotaCounters(ExecutionQuotaProperties properties, RedisTemplate<String, Object> redisTemplate) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+
+        this.boundedIncrementScript = new DefaultRedisScript<>();
+        this.boundedIncrementScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/bounded-increment.lua")));
+        this.boundedIncrementScript.setResultType(Long.class);
+
+        this.flooredDecrementScript = new DefaultRedisScript<>();
+        this.flooredDecrementScript.setScriptSource(new ResourceScriptSource(new ClassPathResource("redis/floored-decrement.lua")));
+        this.flooredDecrementScript.setResultType(Long.class);
+    }
+
+    /**
+     * Count {@code executions} against today's (UTC) quota of the user.
+     *
+     * @return false if that would exceed the daily limit, in which case nothing is counted
+     */
+    public boolean tryAcquireDaily(UUID userId, int executions) {
+        String key = DAILY_KEY_PREFIX + userId + ":" + LocalDate.now(ZoneOffset.UTC);
+        return tryIncrement(key, executions, properties.dailyLimitOf(userId), DAILY_TTL_SECONDS) != null;
+    }
+
+    /**
+     * Give back {@code executions} of the user's quota for the given (UTC) day, for executions that
+     * were admitted but never started. The quota is given back in the configured store.
+     */
+    public void releaseDaily(UUID userId, LocalDate day, int executions) {
+        decrement(DAILY_KEY_PREFIX + userId + ":" + day, executions, useRedis() ? Store.REDIS : Store.LOCAL);
+    }
+
+    /**
+     * Take a running slot of the user.
+     *
+     * @return the store that granted the slot, to release it in, or null if the user already runs
+     * its maximum number of executions
+     */
+    public Store tryAcquireRunning(UUID userId) {
+        return tryIncrement(RUNNING_KEY_PREFIX + userId, 1, properties.maxConcurrentOf(userId), RUNNING_TTL_SECONDS);
+    }
+
+    /**
+     * Release a running slot in the store that granted it.
+     */
+    public void releaseRunning(UUID userId, Store store) {
+        decrement(RUNNING_KEY_PREFIX + userId, 1, store);
+    }
+
+    private Store tryIncrement(String key, long increment, long limit, long ttlSeconds) {
+        if (useRedis()) {
+            try {
+                Long value = redisTemplate.execute(boundedIncrementScript, new StringRedisSerializer(),
+                        new GenericToStringSerializer<>(Long.class), List.of(key),
+                        String.valueOf(increment), String.valueOf(limit), String.valueOf(ttlSeconds));
+                if (value != null) {
+                    return value >= 0 ? Store.REDIS : null;
+                }
+            } catch (Exception e) {
+                log.warn("Redis quota counters unavailable, using local counter {}: {}", key, e.getMessage());
+            }
+        }
+
+        AtomicLong counter = localCounters.computeIfAbsent(key, k -> new AtomicLong());
+        long current;
+        do {
+            current = counter.get();
+            if (current + increment > limit) {
+                return null;
+            }
+        } while (!counter.compareAndSet(current, current + increment));
+        return Store.LOCAL;
+    }
+
+    private void decrement(String key, long decrement, Store store) {
+        if (store == Store.REDIS) {
+            try {
+                redisTemplate.execute(flooredDecrementScript, new StringRedisSerializer(),
+                        new GenericToStringSerializer<>(Long.class), List.of(key), String.valueOf(decrement));
+            } catch (Exception e) {
+                // The counter expires if it is not refreshed
+                log.warn("Redis quota counters unavailable, counter {} not decremented: {}", key, e.getMessage());
+            }
+            return;
+        }
+        localCounters.computeIfPresent(key, (k, counter) -> {
+            counter.updateAndGet(value -> Math.max(0, value - decrement));
+            return counter;
+        });
+    }
+
+    private boolean useRedis() {
+        return "redis".equalsIgnoreCase(properties.getStore());
+    }
+
+    /**
+     * Where a counter was incremented.
+     */
+    public enum Store {
+        REDIS,
+        LOCAL
+    }
+}
@@ -7,6 +7,7 @@ import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
 import java.util.Map;
+import java.util.UUID;
 
 @Entity
 @Table(name = "api_executions")
@@ -30,12 +31,30 @@ public class ApiExecution extends BaseExecution {
     @Column(name = "response_body", columnDefinition = "jsonb")
     private Object responseBody;
 
+    // Set instead of responseBody when the body was spilled to the response body store
+    @Column(name = "response_body_ref")
+    private String responseBodyRef;
+
+    // Base URL of the instance whose store holds the spilled body, if configured
+    @Column(name = "response_body_node")
+    private String responseBodyNode;
+
+    @Column(name = "response_body_size")
+    private Long responseBodySize;
+
+    @Column(name = "response_body_preview")
+    private String responseBodyPreview;
+
     @Column(name = "response_time_ms")
     private Long responseTimeMs;
 
     @Column(name = "successful")
     private Boolean successful;
 
+    // Execution whose upstream request this one shared, when coalesced
+    @Column(name = "coalesced_with")
+    private UUID coalescedWith;
+
     @PrePersist
     public void prePersist() {
         if (this.getExecutionType() == null) {
@@ -57,6 +57,9 @@ public class BaseExecution extends BaseEntity {
     @Column(name = "execution_type", insertable = false, updatable = false)
     private String executionType;
 
+    @Column(name = "batch_id", updatable = false)
+    private UUID batchId;
+
     @Transient
     public Long getDurationMs() {
         if (startTime != null && endTime != null) {
@@ -88,6 +91,12 @@ public class BaseExecution extends BaseEntity {
         this.errorMessage = "Execution timed out";
     }
 
+    public void markAsCircuitOpen(String errorMessage) {
+        this.status = ExecutionStatus.CIRCUIT_OPEN;
+        this.endTime = Instant.now();
+        this.errorMessage = errorMessage;
+    }
+
     public void markAsCancelled() {
         this.status = ExecutionStatus.CANCELLED;
         this.endTime = Instant.now();
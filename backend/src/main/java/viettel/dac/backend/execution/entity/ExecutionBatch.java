@@ -0,0 +1,33 @@
+package viettel.dac.backend.execution.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import viettel.dac.backend.common.domain.BaseEntity;
+
+import java.util.UUID;
+
+@Entity
+@Table(name = "execution_batches")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class ExecutionBatch extends BaseEntity {
+
+    @Id
+    private UUID id;
+
+    @Column(name = "template_id", nullable = false)
+    private UUID templateId;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "total_count", nullable = false)
+    private int totalCount;
+
+    @Column(name = "parallelism", nullable = false)
+    private int parallelism;
+}
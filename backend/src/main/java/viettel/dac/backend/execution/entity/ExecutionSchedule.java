@@ -0,0 +1,72 @@
+package viettel.dac.backend.execution.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import viettel.dac.backend.common.domain.BaseEntity;
+import viettel.dac.backend.execution.enums.ExecutionPriority;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A recurring execution of a template, on a cron expression or at a fixed rate.
+ * The lease columns are maintained by {@link viettel.dac.backend.execution.repository.ExecutionScheduleJdbcRepository}.
+ */
+@Entity
+@Table(name = "execution_schedules")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class ExecutionSchedule extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "template_id", nullable = false)
+    private UUID templateId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "cron_expression")
+    private String cronExpression;
+
+    @Column(name = "time_zone", nullable = false)
+    @Builder.Default
+    private String timeZone = "UTC";
+
+    @Column(name = "fixed_rate_ms")
+    private Long fixedRateMs;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "parameters", columnDefinition = "jsonb")
+    private Map<String, Object> parameters;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "priority", nullable = false)
+    @Builder.Default
+    private ExecutionPriority priority = ExecutionPriority.NORMAL;
+
+    @Column(name = "enabled", nullable = false)
+    @Builder.Default
+    private boolean enabled = true;
+
+    @Column(name = "next_run_at")
+    private Instant nextRunAt;
+
+    @Column(name = "last_run_at", insertable = false, updatable = false)
+    private Instant lastRunAt;
+
+    @Column(name = "last_execution_id", insertable = false, updatable = false)
+    private UUID lastExecutionId;
+}
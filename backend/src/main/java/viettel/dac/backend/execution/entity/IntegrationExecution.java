@@ -0,0 +1,32 @@
+package viettel.dac.backend.execution.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.Map;
+
+@Entity
+@Table(name = "integration_executions")
+@DiscriminatorValue("INTEGRATION")
+@PrimaryKeyJoinColumn(name = "execution_id")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class IntegrationExecution extends BaseExecution {
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "step_states", columnDefinition = "jsonb")
+    private Map<String, IntegrationStepState> stepStates;
+
+    @PrePersist
+    public void prePersist() {
+        if (this.getExecutionType() == null) {
+            this.setExecutionType("INTEGRATION");
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package viettel.dac.backend.execution.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.backend.execution.enums.StepStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Status of one step of an integration execution, stored in the step_states column.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntegrationStepState {
+    private StepStatus status;
+    private UUID executionId;
+    private Instant startTime;
+    private Instant endTime;
+    private String errorMessage;
+}
@@ -0,0 +1,10 @@
+package viettel.dac.backend.execution.enums;
+
+/**
+ * Priority classes of queued executions, highest first.
+ */
+public enum ExecutionPriority {
+    INTERACTIVE,
+    NORMAL,
+    BULK;
+}
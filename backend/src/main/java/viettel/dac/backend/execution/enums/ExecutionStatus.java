@@ -6,5 +6,6 @@ public enum ExecutionStatus {
     COMPLETED,
     FAILED,
     TIMEOUT,
-    CANCELLED;
+    CANCELLED,
+    CIRCUIT_OPEN;
 }
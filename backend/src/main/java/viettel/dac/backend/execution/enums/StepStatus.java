@@ -0,0 +1,10 @@
+package viettel.dac.backend.execution.enums;
+
+public enum StepStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    SKIPPED,
+    CANCELLED;
+}
@@ -0,0 +1,8 @@
+package viettel.dac.backend.execution.exception;
+
+public class RateLimitExceededException extends ExecutionException {
+
+    public RateLimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,215 @@
+package viettel.dac.backend.execution.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.UriComponentsBuilder;
+import viettel.dac.backend.common.config.ApiClientProperties;
+import viettel.dac.backend.execution.exception.ExecutionException;
+import viettel.dac.backend.execution.exception.TimeoutException;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking HTTP client for API template executions.
+ * Requests are multiplexed over the I/O reactor of the shared {@link CloseableHttpAsyncClient},
+ * so an in-flight call does not hold a worker thread while waiting for the upstream.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ApiHttpClient {
+
+    private final CloseableHttpAsyncClient httpAsyncClient;
+    private final ObjectMapper objectMapper;
+    private final ApiClientProperties properties;
+    private final ResponseBodyStore responseBodyStore;
+
+    @Value("${tool-template.execution.default-timeout:60000}")
+    private int defaultTimeoutMs = 60000;
+
+    /**
+     * Send the request and complete the returned future when the whole response has arrived.
+     * Bodies above {@code tool-template.api.response.max-in-memory-size} are streamed to the
+     * {@link ResponseBodyStore} instead of being buffered.
+     * Non-2xx responses complete normally; connection problems complete exceptionally with
+     * {@link TimeoutException} or {@link ExecutionException}, and exceeding the total deadline
+     * with {@link java.util.concurrent.TimeoutException}. Cancelling the returned future
+     * aborts the underlying exchange.
+     */
+    public CompletableFuture<ApiHttpResponse> execute(ApiRequestContext context) {
+        long totalTimeoutMs = totalTimeoutMs(context);
+        return execute(context, totalTimeoutMs).orTimeout(totalTimeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Send one attempt of a call whose total deadline is enforced by the caller, as
+     * {@link #execute(ApiRequestContext)} does. Connect and read timeouts never exceed
+     * {@code remainingMs}, what is left of the deadline.
+     */
+    public CompletableFuture<ApiHttpResponse> execute(ApiRequestContext context, long remainingMs) {
+        AsyncRequestProducer request;
+        try {
+            request = buildRequest(context, remainingMs);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(
+                    new ExecutionException("Error executing API request: " + e.getMessage(), e));
+        }
+
+        CompletableFuture<ApiHttpResponse> result = new CompletableFuture<>();
+        long startNanos = System.nanoTime();
+
+        ApiClientProperties.Response responseSettings = properties.getResponse();
+        Future<ApiHttpResponse> exchange = httpAsyncClient.execute(
+                request,
+                new SpillingResponseConsumer(responseBodyStore,
+                        responseSettings.getMaxInMemorySize(), responseSettings.getPreviewSize(), startNanos),
+                new FutureCallback<>() {
+                    @Override
+                    public void completed(ApiHttpResponse response) {
+                        result.complete(response);
+                    }
+
+                    @Override
+                    public void failed(Exception ex) {
+                        result.completeExceptionally(translateException(ex));
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        result.cancel(false);
+                    }
+                });
+
+        // Abort the exchange when the returned future is cancelled or misses its deadline
+        result.whenComplete((response, ex) -> {
+            if (ex != null) {
+                exchange.cancel(true);
+            }
+        });
+
+        return result;
+    }
+
+    /**
+     * Total deadline of the call: the template timeout, or the default execution timeout.
+     */
+    public long totalTimeoutMs(ApiRequestContext context) {
+        return context.getTimeout() != null && context.getTimeout() > 0 ? context.getTimeout() : defaultTimeoutMs;
+    }
+
+    @SuppressWarnings("deprecation")
+    private RequestConfig requestConfig(ApiRequestContext context, URI uri, long remainingMs) {
+        long timeoutMs = Math.max(1, Math.min(totalTimeoutMs(context), remainingMs));
+
+        // Connect and read timeouts never exceed what is left of the total deadline
+        int connectTimeoutMs = properties.getConnectTimeout();
+        ApiClientProperties.HostSettings hostSettings = properties.findHostSettings(uri.getHost(), uri.getPort());
+        if (hostSettings != null && hostSettings.getConnectTimeout() != null) {
+            connectTimeoutMs = hostSettings.getConnectTimeout();
+        }
+        long readTimeoutMs = context.getTimeout() != null && context.getTimeout() > 0
+                ? timeoutMs : Math.min(timeoutMs, properties.getReadTimeout());
+
+        return RequestConfig.custom()
+                // Per-request connect timeout is deprecated in favour of ConnectionConfig, which is per route
+                .setConnectTimeout(Timeout.ofMilliseconds(Math.min(timeoutMs, connectTimeoutMs)))
+                .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                .setRedirectsEnabled(!Boolean.FALSE.equals(context.getFollowRedirects()))
+                .build();
+    }
+
+    // Package-private for the request build benchmark
+    AsyncRequestProducer buildRequest(ApiRequestContext context) throws IOException {
+        return buildRequest(context, totalTimeoutMs(context));
+    }
+
+    private AsyncRequestProducer buildRequest(ApiRequestContext context, long remainingMs) throws IOException {
+        // Build the URI with query parameters
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString(context.getEndpoint());
+        if (context.getQueryParams() != null && !context.getQueryParams().isEmpty()) {
+            context.getQueryParams().forEach((key, value) -> {
+                if (value != null) {
+                    uriBuilder.queryParam(key, value.toString());
+                }
+            });
+        }
+        URI uri = uriBuilder.build().toUri();
+
+        SimpleHttpRequest request = SimpleRequestBuilder.create(context.getHttpMethod().name())
+                .setUri(uri)
+                .build();
+        request.setConfig(requestConfig(context, uri, remainingMs));
+
+        // Add headers
+        String contentTypeHeader = null;
+        if (context.getHeaders() != null) {
+            for (Map.Entry<String, String> header : context.getHeaders().entrySet()) {
+                request.addHeader(header.getKey(), header.getValue());
+                if (HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey())) {
+                    contentTypeHeader = header.getValue();
+                }
+            }
+        }
+
+        // Serialize the request body, strings as-is and everything else as JSON; compiled bodies are
+        // rendered straight into the pages written to the connection
+        Object body = context.getRequestBody();
+        AsyncEntityProducer entity = null;
+        if (body != null) {
+            ContentType contentType;
+            if (contentTypeHeader != null) {
+                contentType = ContentType.parse(contentTypeHeader);
+            } else {
+                contentType = body instanceof String ? ContentType.TEXT_PLAIN : ContentType.APPLICATION_JSON;
+            }
+
+            if (body instanceof String) {
+                entity = new BasicAsyncEntityProducer(((String) body).getBytes(charsetOf(contentType)), contentType);
+            } else if (body instanceof StreamingJsonBody) {
+                entity = ((StreamingJsonBody) body).toEntityProducer(objectMapper, contentType);
+            } else {
+                entity = new BasicAsyncEntityProducer(objectMapper.writeValueAsBytes(body), contentType);
+            }
+        }
+
+        return new BasicRequestProducer(request, entity);
+    }
+
+    private Throwable translateException(Exception ex) {
+        if (ex instanceof InterruptedIOException) {
+            // Connect and socket timeouts
+            return new TimeoutException("API request timed out: " + ex.getMessage(), ex);
+        }
+        return new ExecutionException("Error connecting to API: " + ex.getMessage(), ex);
+    }
+
+    private static Charset charsetOf(ContentType contentType) {
+        if (contentType != null && contentType.getCharset() != null) {
+            return contentType.getCharset();
+        }
+        return StandardCharsets.UTF_8;
+    }
+}
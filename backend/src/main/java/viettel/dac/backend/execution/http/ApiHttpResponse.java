@@ -0,0 +1,41 @@
+package viettel.dac.backend.execution.http;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.With;
+
+import java.util.Map;
+
+/**
+ * Response of an outbound API call, with multi-valued headers already joined.
+ * Bodies above the in-memory threshold are not held here: {@code body} is null and
+ * {@code bodyRef} points to the content in the {@link ResponseBodyStore}.
+ * Responses that went through the {@link ApiResponseCache} carry how the cache answered.
+ */
+@Getter
+@AllArgsConstructor
+public class ApiHttpResponse {
+    private final int statusCode;
+    private final Map<String, String> headers;
+    private final String contentType;
+    private final String body;
+    private final String bodyRef;
+    private final long bodySize;
+    private final String bodyPreview;
+    private final long responseTimeMs;
+    @With
+    private final ResponseCacheStatus cacheStatus;
+
+    public ApiHttpResponse(int statusCode, Map<String, String> headers, String contentType, String body,
+                           String bodyRef, long bodySize, String bodyPreview, long responseTimeMs) {
+        this(statusCode, headers, contentType, body, bodyRef, bodySize, bodyPreview, responseTimeMs, null);
+    }
+
+    public boolean isSuccessful() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    public boolean isSpilled() {
+        return bodyRef != null;
+    }
+}
@@ -0,0 +1,22 @@
+package viettel.dac.backend.execution.http;
+
+import lombok.Getter;
+import lombok.Setter;
+import viettel.dac.backend.template.enums.HttpMethod;
+
+import java.util.Map;
+
+/**
+ * A fully substituted outbound request, ready to be sent by {@link ApiHttpClient}.
+ */
+@Getter
+@Setter
+public class ApiRequestContext {
+    private String endpoint;
+    private HttpMethod httpMethod;
+    private Map<String, String> headers;
+    private Map<String, Object> queryParams;
+    private Object requestBody;
+    private Integer timeout;
+    private Boolean followRedirects;
+}
@@ -0,0 +1,539 @@
+package viettel.dac.backend.execution.http;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import viettel.dac.backend.common.config.ApiClientProperties;
+import viettel.dac.backend.template.entity.ApiTemplate;
+import viettel.dac.backend.template.entity.CachePolicy;
+import viettel.dac.backend.template.enums.HttpMethod;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Shared cache of upstream responses for GET templates, following the HTTP caching rules of a
+ * shared cache: Cache-Control and Expires decide what is stored and for how long, unless the
+ * template's {@link CachePolicy} overrides the freshness lifetime. Stale entries with an ETag or
+ * Last-Modified are revalidated with a conditional request and reused on 304 Not Modified.
+ * Only bodies held in memory are cached; spilled bodies always go to the upstream.
+ * No heuristic freshness is applied: responses without explicit freshness are only kept for
+ * revalidation.
+ */
+@Component
+@Slf4j
+public class ApiResponseCache {
+
+    private static final String REDIS_KEY_PREFIX = "response-cache:";
+
+    // Status codes that are cacheable by default (RFC 9110, section 15.1)
+    private static final Set<Integer> CACHEABLE_STATUS_CODES = Set.of(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501);
+
+    private static final List<String> CONDITIONAL_HEADERS = List.of(HttpHeaders.IF_NONE_MATCH, HttpHeaders.IF_MODIFIED_SINCE,
+            HttpHeaders.IF_MATCH, HttpHeaders.IF_UNMODIFIED_SINCE, HttpHeaders.IF_RANGE, HttpHeaders.RANGE);
+
+    private final ApiClientProperties.ResponseCache settings;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final LocalTier localTier;
+    private final Map<ResponseCacheStatus, Counter> requestCounters = new EnumMap<>(ResponseCacheStatus.class);
+
+    @Autowired
+    public ApiResponseCache(ApiClientProperties properties,
+                            RedisTemplate<String, Object> redisTemplate,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this.settings = properties.getResponseCache();
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.localTier = new LocalTier(settings.getMaxEntries(), settings.getMaxSize());
+
+        for (ResponseCacheStatus status : ResponseCacheStatus.values()) {
+            requestCounters.put(status, Counter.builder("execution.response_cache.requests")
+                    .description("Cacheable API requests by how the response cache answered them")
+                    .tag("result", status.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("execution.response_cache.entries", localTier, LocalTier::entryCount)
+                .description("Responses held in the in-memory tier of the response cache")
+                .register(meterRegistry);
+        Gauge.builder("execution.response_cache.size", localTier, LocalTier::totalWeight)
+                .description("Approximate bytes held in the in-memory tier of the response cache")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Answer the request from the cache when a fresh entry exists, otherwise call the upstream,
+     * conditionally if a stale entry can be revalidated, and store the response when it is cacheable.
+     * Responses of cacheable requests carry their {@link ResponseCacheStatus}; other requests are
+     * passed through unchanged. Cancelling the returned future cancels the upstream call.
+     */
+    public CompletableFuture<ApiHttpResponse> execute(ApiTemplate template, ApiRequestContext context,
+                                                      Function<ApiRequestContext, CompletableFuture<ApiHttpResponse>> call) {
+        Map<String, String> requestDirectives = directives(header(context.getHeaders(), HttpHeaders.CACHE_CONTROL));
+        if (!isCacheable(template, context, requestDirectives)) {
+            return call.apply(context);
+        }
+
+        String key = keyOf(template, context);
+        long now = System.currentTimeMillis();
+        CachedResponse cached = lookup(key, now);
+        if (cached != null && !cached.matchesVary(context.getHeaders())) {
+            cached = null;
+        }
+
+        if (cached != null && cached.isFresh(now) && !requestDirectives.containsKey("no-cache")) {
+            requestCounters.get(ResponseCacheStatus.HIT).increment();
+            return CompletableFuture.completedFuture(cached.toResponse(now, 0, ResponseCacheStatus.HIT));
+        }
+
+        if (cached != null && cached.hasValidator()) {
+            CachedResponse stale = cached;
+            return mapResponse(call.apply(conditional(context, stale)), response -> {
+                if (response.getStatusCode() == 304) {
+                    return revalidated(template, context, key, stale, response);
+                }
+                return stored(template, context, key, response, true);
+            });
+        }
+
+        boolean replacesEntry = cached != null;
+        return mapResponse(call.apply(context), response -> stored(template, context, key, response, replacesEntry));
+    }
+
+    private boolean isCacheable(ApiTemplate template, ApiRequestContext context, Map<String, String> requestDirectives) {
+        CachePolicy policy = template.getCachePolicy();
+        if (!settings.isEnabled() || context.getHttpMethod() != HttpMethod.GET
+                || (policy != null && !policy.isEnabled())
+                || requestDirectives.containsKey("no-store")) {
+            return false;
+        }
+        // Requests that are already conditional or partial are the caller's business
+        return CONDITIONAL_HEADERS.stream().noneMatch(name -> header(context.getHeaders(), name) != null);
+    }
+
+    private ApiHttpResponse stored(ApiTemplate template, ApiRequestContext context, String key,
+                                   ApiHttpResponse response, boolean replacesEntry) {
+        requestCounters.get(ResponseCacheStatus.MISS).increment();
+
+        long now = System.currentTimeMillis();
+        CachedResponse entry = toEntry(template, context, response, now);
+        if (entry != null) {
+            store(key, entry, now);
+        } else if (replacesEntry) {
+            evict(key);
+        }
+        return response.withCacheStatus(ResponseCacheStatus.MISS);
+    }
+
+    private ApiHttpResponse revalidated(ApiTemplate template, ApiRequestContext context, String key,
+                                        CachedResponse stale, ApiHttpResponse notModified) {
+        requestCounters.get(ResponseCacheStatus.REVALIDATED).increment();
+
+        // Headers of the 304 response replace the stored ones
+        Map<String, String> headers = new LinkedHashMap<>(stale.headers());
+        notModified.getHeaders().forEach((name, value) -> {
+            headers.keySet().removeIf(name::equalsIgnoreCase);
+            headers.put(name, value);
+        });
+
+        long now = System.currentTimeMillis();
+        ApiHttpResponse merged = new ApiHttpResponse(stale.statusCode(), headers, stale.contentType(), stale.body(),
+                null, stale.bodySize(), null, notModified.getResponseTimeMs());
+        CachedResponse entry = toEntry(template, context, merged, now);
+        if (entry != null) {
+            store(key, entry, now);
+            return entry.toResponse(now, notModified.getResponseTimeMs(), ResponseCacheStatus.REVALIDATED);
+        }
+
+        evict(key);
+        return merged.withCacheStatus(ResponseCacheStatus.REVALIDATED);
+    }
+
+    /**
+     * The cache entry for the response, or null when a shared cache must not store it.
+     */
+    private CachedResponse toEntry(ApiTemplate template, ApiRequestContext context, ApiHttpResponse response,
+                                   long receivedAtMs) {
+        if (response.isSpilled() || !CACHEABLE_STATUS_CODES.contains(response.getStatusCode())) {
+            return null;
+        }
+
+        Map<String, String> headers = response.getHeaders() != null ? response.getHeaders() : Map.of();
+        Map<String, String> directives = directives(header(headers, HttpHeaders.CACHE_CONTROL));
+        if (directives.containsKey("no-store") || directives.containsKey("private")) {
+            return null;
+        }
+        // Authenticated responses are only shared when the upstream says so explicitly
+        if (header(context.getHeaders(), HttpHeaders.AUTHORIZATION) != null && !directives.containsKey("public")
+                && !directives.containsKey("s-maxage") && !directives.containsKey("must-revalidate")) {
+            return null;
+        }
+
+        // Remember the request headers the response varies on
+        Map<String, String> varyValues = new HashMap<>();
+        String vary = header(headers, HttpHeaders.VARY);
+        if (vary != null) {
+            for (String name : vary.split(",")) {
+                String headerName = name.trim().toLowerCase(Locale.ROOT);
+                if (headerName.equals("*")) {
+                    return null;
+                }
+                if (!headerName.isEmpty()) {
+                    varyValues.put(headerName, header(context.getHeaders(), headerName));
+                }
+            }
+        }
+
+        long lifetimeMs = freshnessLifetimeMs(template.getCachePolicy(), headers, directives, receivedAtMs);
+        long ageMs = initialAgeMs(headers, receivedAtMs);
+        String etag = header(headers, HttpHeaders.ETAG);
+        String lastModified = header(headers, HttpHeaders.LAST_MODIFIED);
+        boolean hasValidator = etag != null || lastModified != null;
+        if (lifetimeMs <= ageMs && !hasValidator) {
+            return null;
+        }
+
+        long storedAtMs = receivedAtMs - ageMs;
+        long retainUntilMs = storedAtMs + lifetimeMs + (hasValidator ? settings.getStaleRetentionMs() : 0);
+        return new CachedResponse(response.getStatusCode(), headers, response.getContentType(), response.getBody(),
+                response.getBodySize(), storedAtMs, lifetimeMs, retainUntilMs, etag, lastModified, varyValues);
+    }
+
+    private static long freshnessLifetimeMs(CachePolicy policy, Map<String, String> headers,
+                                            Map<String, String> directives, long receivedAtMs) {
+        if (policy != null && policy.getTtlSeconds() != null) {
+            return policy.getTtlSeconds() * 1000;
+        }
+        if (directives.containsKey("no-cache")) {
+            return 0;
+        }
+
+        Long maxAgeSeconds = deltaSeconds(directives.get("s-maxage"));
+        if (maxAgeSeconds == null) {
+            maxAgeSeconds = deltaSeconds(directives.get("max-age"));
+        }
+        if (maxAgeSeconds != null) {
+            return maxAgeSeconds * 1000;
+        }
+
+        String expires = header(headers, HttpHeaders.EXPIRES);
+        if (expires != null) {
+            // An invalid Expires, such as "0", means already expired
+            Long expiresMs = httpDateMs(expires);
+            Long dateMs = httpDateMs(header(headers, HttpHeaders.DATE));
+            return expiresMs != null ? Math.max(0, expiresMs - (dateMs != null ? dateMs : receivedAtMs)) : 0;
+        }
+        return 0;
+    }
+
+    private static long initialAgeMs(Map<String, String> headers, long receivedAtMs) {
+        Long ageSeconds = deltaSeconds(header(headers, HttpHeaders.AGE));
+        Long dateMs = httpDateMs(header(headers, HttpHeaders.DATE));
+        long apparentAgeMs = dateMs != null ? Math.max(0, receivedAtMs - dateMs) : 0;
+        return Math.max(ageSeconds != null ? ageSeconds * 1000 : 0, apparentAgeMs);
+    }
+
+    private static ApiRequestContext conditional(ApiRequestContext context, CachedResponse stale) {
+        ApiRequestContext conditional = new ApiRequestContext();
+        conditional.setEndpoint(context.getEndpoint());
+        conditional.setHttpMethod(context.getHttpMethod());
+        conditional.setQueryParams(context.getQueryParams());
+        conditional.setRequestBody(context.getRequestBody());
+        conditional.setTimeout(context.getTimeout());
+        conditional.setFollowRedirects(context.getFollowRedirects());
+
+        Map<String, String> headers = context.getHeaders() != null ? new HashMap<>(context.getHeaders()) : new HashMap<>();
+        if (stale.etag() != null) {
+            headers.put(HttpHeaders.IF_NONE_MATCH, stale.etag());
+        }
+        if (stale.lastModified() != null) {
+            headers.put(HttpHeaders.IF_MODIFIED_SINCE, stale.lastModified());
+        }
+        conditional.setHeaders(headers);
+        return conditional;
+    }
+
+    private CachedResponse lookup(String key, long now) {
+        CachedResponse entry = localTier.get(key, now);
+        if (entry != null || !useRedis()) {
+            return entry;
+        }
+
+        try {
+            Object value = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + key);
+            if (value instanceof String json) {
+                entry = objectMapper.readValue(json, CachedResponse.class);
+                localTier.put(key, entry);
+            }
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.warn("Redis response cache unavailable, using the local tier for {}: {}", key, e.getMessage());
+        }
+        return entry;
+    }
+
+    private void store(String key, CachedResponse entry, long now) {
+        localTier.put(key, entry);
+        if (!useRedis() || entry.retainUntilMs() <= now) {
+            return;
+        }
+
+        try {
+            redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + key, objectMapper.writeValueAsString(entry),
+                    Duration.ofMillis(entry.retainUntilMs() - now));
+        } catch (RuntimeException | JsonProcessingException e) {
+            log.warn("Redis response cache unavailable, entry {} kept locally: {}", key, e.getMessage());
+        }
+    }
+
+    private void evict(String key) {
+        localTier.remove(key);
+        if (!useRedis()) {
+            return;
+        }
+
+        try {
+            redisTemplate.delete(REDIS_KEY_PREFIX + key);
+        } catch (RuntimeException e) {
+            log.warn("Redis response cache unavailable, entry {} not evicted: {}", key, e.getMessage());
+        }
+    }
+
+    private boolean useRedis() {
+        return "redis".equalsIgnoreCase(settings.getStore());
+    }
+
+    /**
+     * Apply the function to the upstream response; cancelling the result cancels the upstream call.
+     */
+    private static CompletableFuture<ApiHttpResponse> mapResponse(CompletableFuture<ApiHttpResponse> upstream,
+                                                                  Function<ApiHttpResponse, ApiHttpResponse> function) {
+        CompletableFuture<ApiHttpResponse> result = upstream.thenApply(function);
+        result.whenComplete((response, ex) -> {
+            if (result.isCancelled()) {
+                upstream.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Entries are per template revision, endpoint, query parameters and request headers. Responses are
+     * not shared between templates, nor between requests whose headers differ, since the headers may
+     * carry per-caller credentials such as an API key or a cookie. The template version is chosen by
+     * its author and not bumped by edits, so the last modification time identifies the revision.
+     */
+    private static String keyOf(ApiTemplate template, ApiRequestContext context) {
+        StringBuilder key = new StringBuilder()
+                .append(template.getId()).append(':')
+                .append(template.getVersion()).append(':')
+                .append(template.getLastModifiedAt()).append(':')
+                .append(context.getEndpoint());
+        if (context.getQueryParams() != null) {
+            new TreeMap<>(context.getQueryParams()).forEach((name, value) -> {
+                if (value != null) {
+                    key.append('&').append(name).append('=').append(value);
+                }
+            });
+        }
+        if (context.getHeaders() != null) {
+            // Cache-Control of the request only decides how the cache is used
+            Map<String, String> headers = new TreeMap<>();
+            context.getHeaders().forEach((name, value) -> {
+                if (value != null && !HttpHeaders.CACHE_CONTROL.equalsIgnoreCase(name)) {
+                    headers.put(name.toLowerCase(Locale.ROOT), value);
+                }
+            });
+            headers.forEach((name, value) -> key.append('\n').append(name).append(": ").append(value));
+        }
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(key.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String header(Map<String, String> headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cache-Control directives by lower-case name; directives without an argument map to "".
+     */
+    private static Map<String, String> directives(String cacheControl) {
+        if (cacheControl == null || cacheControl.isBlank()) {
+            return Map.of();
+        }
+
+        Map<String, String> directives = new HashMap<>();
+        for (String part : cacheControl.split(",")) {
+            String directive = part.trim();
+            if (directive.isEmpty()) {
+                continue;
+            }
+            int separator = directive.indexOf('=');
+            String name = (separator < 0 ? directive : directive.substring(0, separator)).trim().toLowerCase(Locale.ROOT);
+            String value = separator < 0 ? "" : directive.substring(separator + 1).trim();
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            directives.putIfAbsent(name, value);
+        }
+        return directives;
+    }
+
+    /**
+     * A delta-seconds value, capped at 2^31 seconds, or null when missing or invalid.
+     */
+    private static Long deltaSeconds(String value) {
+        if (value == null || value.isEmpty() || !value.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        return value.length() > 10 ? 2147483648L : Math.min(Long.parseLong(value), 2147483648L);
+    }
+
+    private static Long httpDateMs(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A stored response. {@code storedAtMs} is when the response was generated by the origin,
+     * so the current age is the time elapsed since then.
+     */
+    record CachedResponse(int statusCode, Map<String, String> headers, String contentType, String body, long bodySize,
+                          long storedAtMs, long lifetimeMs, long retainUntilMs, String etag, String lastModified,
+                          Map<String, String> varyValues) {
+
+        boolean isFresh(long now) {
+            return now - storedAtMs < lifetimeMs;
+        }
+
+        boolean hasValidator() {
+            return etag != null || lastModified != null;
+        }
+
+        boolean matchesVary(Map<String, String> requestHeaders) {
+            if (varyValues == null) {
+                return true;
+            }
+            return varyValues.entrySet().stream()
+                    .allMatch(vary -> Objects.equals(vary.getValue(), header(requestHeaders, vary.getKey())));
+        }
+
+        long weight() {
+            long weight = 256 + (body != null ? 2L * body.length() : 0);
+            if (headers != null) {
+                for (Map.Entry<String, String> header : headers.entrySet()) {
+                    weight += 2L * (header.getKey().length() + (header.getValue() != null ? header.getValue().length() : 0));
+                }
+            }
+            return weight;
+        }
+
+        ApiHttpResponse toResponse(long now, long responseTimeMs, ResponseCacheStatus cacheStatus) {
+            Map<String, String> responseHeaders = new LinkedHashMap<>(headers);
+            responseHeaders.keySet().removeIf(HttpHeaders.AGE::equalsIgnoreCase);
+            responseHeaders.put(HttpHeaders.AGE, Long.toString(Math.max(0, now - storedAtMs) / 1000));
+            return new ApiHttpResponse(statusCode, responseHeaders, contentType, body, null, bodySize, null,
+                    responseTimeMs, cacheStatus);
+        }
+    }
+
+    /**
+     * In-memory LRU tier bounded by entry count and approximate size.
+     */
+    private static final class LocalTier {
+        private final int maxEntries;
+        private final long maxWeight;
+        private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+        private long totalWeight;
+
+        private LocalTier(int maxEntries, long maxWeight) {
+            this.maxEntries = maxEntries;
+            this.maxWeight = maxWeight;
+        }
+
+        private synchronized CachedResponse get(String key, long now) {
+            CachedResponse entry = entries.get(key);
+            if (entry != null && entry.retainUntilMs() <= now) {
+                remove(key);
+                return null;
+            }
+            return entry;
+        }
+
+        private synchronized void put(String key, CachedResponse entry) {
+            remove(key);
+            long weight = entry.weight();
+            if (maxEntries <= 0 || weight > maxWeight) {
+                return;
+            }
+
+            entries.put(key, entry);
+            totalWeight += weight;
+            Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+            while ((entries.size() > maxEntries || totalWeight > maxWeight) && eldest.hasNext()) {
+                totalWeight -= eldest.next().getValue().weight();
+                eldest.remove();
+            }
+        }
+
+        private synchronized void remove(String key) {
+            CachedResponse removed = entries.remove(key);
+            if (removed != null) {
+                totalWeight -= removed.weight();
+            }
+        }
+
+        private synchronized int entryCount() {
+            return entries.size();
+        }
+
+        private synchronized long totalWeight() {
+            return totalWeight;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package viettel.dac.backend.execution.http;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import viettel.dac.backend.common.config.ApiClientProperties;
+import viettel.dac.backend.common.exception.ResourceNotFoundException;
+
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store on local disk for response bodies too large to keep in memory.
+ * Bodies are written to a temporary file while streaming and then moved to a path derived
+ * from their SHA-256 digest, so identical bodies are stored once.
+ * <p>
+ * Each instance only sees the bodies it stored, unless the store directory is a shared volume;
+ * executions record the {@link #getNodeUrl() node} a body is stored on. Bodies are deleted by the
+ * {@code ResponseBodySweeper} once no execution refers to them.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ResponseBodyStore {
+
+    private static final String REF_PREFIX = "sha256:";
+    private static final Pattern DIGEST_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private final ApiClientProperties properties;
+
+    private Path rootDirectory;
+    private Path tempDirectory;
+
+    @PostConstruct
+    public void init() throws IOException {
+        rootDirectory = Paths.get(properties.getResponse().getStoreDirectory()).toAbsolutePath();
+        tempDirectory = rootDirectory.resolve("tmp");
+        Files.createDirectories(tempDirectory);
+        log.info("Response body store at {}", rootDirectory);
+    }
+
+    public Path createTempFile() throws IOException {
+        return Files.createTempFile(tempDirectory, "body-", ".part");
+    }
+
+    /**
+     * Move a fully written temporary file to its content address.
+     *
+     * @return The reference of the stored body
+     */
+    public String commit(Path tempFile, byte[] sha256) throws IOException {
+        String ref = REF_PREFIX + HexFormat.of().formatHex(sha256);
+        Path target = pathOf(ref);
+
+        if (Files.exists(target)) {
+            // Same content is already stored; touched so a running sweep does not take it away
+            Files.deleteIfExists(tempFile);
+            Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+        } else {
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+
+        return ref;
+    }
+
+    public void discard(Path tempFile) {
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            log.warn("Error deleting temporary response body {}: {}", tempFile, e.getMessage());
+        }
+    }
+
+    public Resource open(String ref) {
+        Path path = pathOf(ref);
+        if (path == null) {
+            throw new ResourceNotFoundException("Invalid response body reference: " + ref);
+        }
+        if (!Files.exists(path)) {
+            throw new ResourceNotFoundException("Response body not found: " + ref);
+        }
+        return new FileSystemResource(path);
+    }
+
+    public boolean contains(String ref) {
+        Path path = pathOf(ref);
+        return path != null && Files.exists(path);
+    }
+
+    /**
+     * Base URL of this instance, recorded with the bodies it stores, or null if not configured.
+     */
+    public String getNodeUrl() {
+        String nodeUrl = properties.getResponse().getNodeUrl();
+        return nodeUrl != null && !nodeUrl.isBlank() ? nodeUrl : null;
+    }
+
+    /**
+     * References of the stored bodies last written before {@code cutoff}. The stream must be closed.
+     */
+    public Stream<String> findStoredBefore(Instant cutoff) throws IOException {
+        return Files.walk(rootDirectory, 2)
+                .filter(path -> path.getNameCount() - rootDirectory.getNameCount() == 2
+                        && DIGEST_PATTERN.matcher(path.getFileName().toString()).matches()
+                        && lastModifiedBefore(path, cutoff))
+                .map(path -> REF_PREFIX + path.getFileName());
+    }
+
+    /**
+     * Delete a stored body unless it was written again since {@code cutoff}.
+     *
+     * @return false if the body was kept
+     */
+    public boolean delete(String ref, Instant cutoff) {
+        Path path = pathOf(ref);
+        if (path == null || !lastModifiedBefore(path, cutoff)) {
+            return false;
+        }
+        try {
+            return Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Error deleting response body {}: {}", ref, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Delete temporary files left behind by bodies that were being received when an instance stopped.
+     */
+    public void discardTempFilesBefore(Instant cutoff) throws IOException {
+        try (Stream<Path> tempFiles = Files.list(tempDirectory)) {
+            tempFiles.filter(path -> lastModifiedBefore(path, cutoff)).forEach(this::discard);
+        }
+    }
+
+    private static boolean lastModifiedBefore(Path path, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private Path pathOf(String ref) {
+        String digest = ref != null && ref.startsWith(REF_PREFIX) ? ref.substring(REF_PREFIX.length()) : null;
+        if (digest == null || !DIGEST_PATTERN.matcher(digest).matches()) {
+            return null;
+        }
+        return rootDirectory.resolve(digest.substring(0, 2)).resolve(digest);
+    }
+}
@@ -0,0 +1,13 @@
+package viettel.dac.backend.execution.http;
+
+/**
+ * How the {@link ApiResponseCache} answered a request.
+ */
+public enum ResponseCacheStatus {
+    // Served from a fresh cache entry without contacting the upstream
+    HIT,
+    // A stale entry confirmed by the upstream with 304 Not Modified
+    REVALIDATED,
+    // Fetched from the upstream
+    MISS
+}
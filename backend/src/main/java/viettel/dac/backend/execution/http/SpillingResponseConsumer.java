@@ -0,0 +1,177 @@
+package viettel.dac.backend.execution.http;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.async.methods.AbstractBinResponseConsumer;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams a response body into memory up to a threshold and spills it to the
+ * {@link ResponseBodyStore} once the threshold is exceeded.
+ * Only the first {@code previewSize} bytes of a spilled body stay on the heap.
+ */
+@Slf4j
+class SpillingResponseConsumer extends AbstractBinResponseConsumer<ApiHttpResponse> {
+
+    private static final int CAPACITY_INCREMENT = 64 * 1024;
+
+    private final ResponseBodyStore bodyStore;
+    private final long maxInMemorySize;
+    private final int previewSize;
+    private final long startNanos;
+
+    private int statusCode;
+    private Map<String, String> headers;
+    private ContentType contentType;
+
+    private ByteArrayOutputStream buffer;
+    private long size;
+
+    // Set once the body is spilled
+    private Path tempFile;
+    private FileChannel fileChannel;
+    private MessageDigest digest;
+    private byte[] preview;
+    private String bodyRef;
+
+    SpillingResponseConsumer(ResponseBodyStore bodyStore, long maxInMemorySize, int previewSize, long startNanos) {
+        this.bodyStore = bodyStore;
+        this.maxInMemorySize = maxInMemorySize;
+        this.previewSize = previewSize;
+        this.startNanos = startNanos;
+    }
+
+    @Override
+    protected void start(HttpResponse response, ContentType contentType) {
+        this.statusCode = response.getCode();
+        this.contentType = contentType;
+
+        // Join multi-valued headers, keeping the first-seen order
+        this.headers = new LinkedHashMap<>();
+        for (Header header : response.getHeaders()) {
+            headers.merge(header.getName(), header.getValue(), (existing, value) -> existing + ", " + value);
+        }
+    }
+
+    @Override
+    protected int capacityIncrement() {
+        return CAPACITY_INCREMENT;
+    }
+
+    @Override
+    protected void data(ByteBuffer src, boolean endOfStream) throws IOException {
+        if (buffer == null && fileChannel == null) {
+            buffer = new ByteArrayOutputStream();
+        }
+
+        int length = src.remaining();
+        if (fileChannel == null && size + length > maxInMemorySize) {
+            spill();
+        }
+        size += length;
+
+        if (fileChannel != null) {
+            ByteBuffer chunk = src.duplicate();
+            digest.update(chunk);
+            while (src.hasRemaining()) {
+                fileChannel.write(src);
+            }
+        } else if (src.hasArray()) {
+            buffer.write(src.array(), src.arrayOffset() + src.position(), length);
+            src.position(src.limit());
+        } else {
+            byte[] bytes = new byte[length];
+            src.get(bytes);
+            buffer.write(bytes);
+        }
+
+        if (endOfStream && fileChannel != null) {
+            fileChannel.close();
+            fileChannel = null;
+            bodyRef = bodyStore.commit(tempFile, digest.digest());
+            tempFile = null;
+        }
+    }
+
+    /**
+     * Move the buffered bytes to a temporary file and continue writing there.
+     */
+    private void spill() throws IOException {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("SHA-256 is not available", e);
+        }
+
+        tempFile = bodyStore.createTempFile();
+        fileChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        byte[] buffered = buffer.toByteArray();
+        buffer = null;
+        preview = Arrays.copyOf(buffered, (int) Math.min(previewSize, buffered.length));
+        digest.update(buffered);
+        ByteBuffer bufferedBytes = ByteBuffer.wrap(buffered);
+        while (bufferedBytes.hasRemaining()) {
+            fileChannel.write(bufferedBytes);
+        }
+
+        log.debug("Response body exceeded {} bytes, spilling to {}", maxInMemorySize, tempFile);
+    }
+
+    @Override
+    protected ApiHttpResponse buildResult() {
+        long responseTimeMs = (System.nanoTime() - startNanos) / 1_000_000;
+        Charset charset = contentType != null && contentType.getCharset() != null
+                ? contentType.getCharset() : StandardCharsets.UTF_8;
+
+        String body = null;
+        String bodyPreview = null;
+        if (bodyRef != null) {
+            bodyPreview = new String(preview, charset);
+        } else if (buffer != null) {
+            body = buffer.toString(charset);
+        }
+
+        return new ApiHttpResponse(
+                statusCode,
+                headers,
+                contentType != null ? contentType.toString() : null,
+                body,
+                bodyRef,
+                size,
+                bodyPreview,
+                responseTimeMs);
+    }
+
+    @Override
+    public void releaseResources() {
+        // Remove a partially written body when the exchange fails or is cancelled
+        if (fileChannel != null) {
+            try {
+                fileChannel.close();
+            } catch (IOException e) {
+                log.warn("Error closing spilled response body: {}", e.getMessage());
+            }
+            fileChannel = null;
+        }
+        if (tempFile != null) {
+            bodyStore.discard(tempFile);
+            tempFile = null;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package viettel.dac.backend.execution.http;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import viettel.dac.backend.execution.util.CompiledJson;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A JSON request body that is rendered from its compiled template while it is written, so the
+ * substituted document is never built as a tree or map. Rendering can be repeated, for retries
+ * and hedged requests.
+ */
+public final class StreamingJsonBody {
+
+    private static final int PAGE_SIZE = 8192;
+
+    private final CompiledJson body;
+    private final Map<String, Object> parameters;
+
+    public StreamingJsonBody(CompiledJson body, Map<String, Object> parameters) {
+        this.body = body;
+        this.parameters = parameters;
+    }
+
+    public void writeTo(JsonGenerator generator) throws IOException {
+        body.write(generator, parameters);
+    }
+
+    /**
+     * Render the body as UTF-8 JSON into one array.
+     */
+    public byte[] toBytes(ObjectMapper objectMapper) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(body.estimatedSize(), 32));
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            writeTo(generator);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Render the body as UTF-8 JSON into a repeatable entity of a request. The generator writes into
+     * fixed-size pages that are handed to the connection as they are, so the rendered document is
+     * never grown or copied into one array.
+     */
+    public AsyncEntityProducer toEntityProducer(ObjectMapper objectMapper, ContentType contentType) throws IOException {
+        PagedOutputStream out = new PagedOutputStream(Math.min(Math.max(body.estimatedSize(), 32), PAGE_SIZE));
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            writeTo(generator);
+        }
+        return new PagedEntityProducer(out.flip(), out.size, contentType);
+    }
+
+    private static final class PagedOutputStream extends OutputStream {
+        private final List<ByteBuffer> pages = new ArrayList<>();
+        private ByteBuffer current;
+        private long size;
+
+        private PagedOutputStream(int firstPageSize) {
+            current = ByteBuffer.allocate(firstPageSize);
+            pages.add(current);
+        }
+
+        @Override
+        public void write(int b) {
+            if (!current.hasRemaining()) {
+                nextPage();
+            }
+            current.put((byte) b);
+            size++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            while (length > 0) {
+                if (!current.hasRemaining()) {
+                    nextPage();
+                }
+                int count = Math.min(length, current.remaining());
+                current.put(bytes, offset, count);
+                offset += count;
+                length -= count;
+                size += count;
+            }
+        }
+
+        private void nextPage() {
+            current = ByteBuffer.allocate(PAGE_SIZE);
+            pages.add(current);
+        }
+
+        private List<ByteBuffer> flip() {
+            pages.forEach(ByteBuffer::flip);
+            return pages;
+        }
+    }
+
+    /**
+     * Writes the pages to the connection as far as it accepts them; rewinds when the request is repeated.
+     */
+    private static final class PagedEntityProducer implements AsyncEntityProducer {
+        private final List<ByteBuffer> pages;
+        private final long contentLength;
+        private final String contentType;
+        private int page;
+
+        private PagedEntityProducer(List<ByteBuffer> pages, long contentLength, ContentType contentType) {
+            this.pages = pages;
+            this.contentLength = contentLength;
+            this.contentType = contentType != null ? contentType.toString() : null;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+
+        @Override
+        public long getContentLength() {
+            return contentLength;
+        }
+
+        @Override
+        public String getContentEncoding() {
+            return null;
+        }
+
+        @Override
+        public boolean isChunked() {
+            return false;
+        }
+
+        @Override
+        public Set<String> getTrailerNames() {
+            return null;
+        }
+
+        @Override
+        public synchronized int available() {
+            long remaining = 0;
+            for (int i = page; i < pages.size(); i++) {
+                remaining += pages.get(i).remaining();
+            }
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+
+        @Override
+        public synchronized void produce(DataStreamChannel channel) throws IOException {
+            while (page < pages.size()) {
+                ByteBuffer current = pages.get(page);
+                if (current.hasRemaining()) {
+                    channel.write(current);
+                    if (current.hasRemaining()) {
+                        // The connection is full, produce is called again once it drains
+                        return;
+                    }
+                }
+                page++;
+            }
+            channel.endStream();
+        }
+
+        @Override
+        public void failed(Exception cause) {
+            // Nothing to clean up, the pages are released with the producer
+        }
+
+        @Override
+        public synchronized void releaseResources() {
+            pages.forEach(ByteBuffer::rewind);
+            page = 0;
+        }
+    }
+}
@@ -4,9 +4,12 @@ import org.mapstruct.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import viettel.dac.backend.execution.dto.ExecutionResponseDto;
 import viettel.dac.backend.execution.entity.BaseExecution;
-import viettel.dac.backend.template.repository.TemplateRepository;
+import viettel.dac.backend.execution.entity.IntegrationExecution;
+import viettel.dac.backend.execution.entity.IntegrationStepState;
+import viettel.dac.backend.execution.engine.TemplateSnapshotCache;
 
 
+import java.util.Map;
 import java.util.UUID;
 
 @Mapper(componentModel = "spring",
@@ -15,14 +18,21 @@ import java.util.UUID;
 public abstract class ExecutionMapper {
 
     @Autowired
-    protected TemplateRepository templateRepository;
+    protected TemplateSnapshotCache templateSnapshotCache;
 
     @Mapping(target = "templateName", expression = "java(getTemplateName(execution.getTemplateId()))")
     @Mapping(target = "durationMs", expression = "java(execution.getDurationMs())")
+    @Mapping(target = "steps", expression = "java(getStepStates(execution))")
     public abstract ExecutionResponseDto toDto(BaseExecution execution);
 
+    protected Map<String, IntegrationStepState> getStepStates(BaseExecution execution) {
+        return execution instanceof IntegrationExecution
+                ? ((IntegrationExecution) execution).getStepStates()
+                : null;
+    }
+
     protected String getTemplateName(UUID templateId) {
-        return templateRepository.findById(templateId)
+        return templateSnapshotCache.find(templateId)
                 .map(template -> template.getName())
                 .orElse(null);
     }
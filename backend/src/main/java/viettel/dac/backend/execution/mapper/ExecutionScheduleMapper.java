@@ -0,0 +1,12 @@
+package viettel.dac.backend.execution.mapper;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.ReportingPolicy;
+import viettel.dac.backend.execution.dto.ExecutionScheduleResponseDto;
+import viettel.dac.backend.execution.entity.ExecutionSchedule;
+
+@Mapper(componentModel = "spring", unmappedTargetPolicy = ReportingPolicy.IGNORE)
+public interface ExecutionScheduleMapper {
+
+    ExecutionScheduleResponseDto toDto(ExecutionSchedule schedule);
+}
@@ -9,7 +9,9 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import viettel.dac.backend.execution.entity.ApiExecution;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 @Repository
@@ -24,4 +26,7 @@ public interface ApiExecutionRepository extends JpaRepository<ApiExecution, UUID
 
     @Query("SELECT a FROM ApiExecution a WHERE a.templateId = :templateId")
     Page<ApiExecution> findByTemplateId(@Param("templateId") UUID templateId, Pageable pageable);
+
+    @Query("SELECT DISTINCT a.responseBodyRef FROM ApiExecution a WHERE a.responseBodyRef IN :refs")
+    Set<String> findReferencedResponseBodies(@Param("refs") Collection<String> refs);
 }
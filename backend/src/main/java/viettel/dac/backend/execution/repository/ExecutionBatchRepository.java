@@ -0,0 +1,11 @@
+package viettel.dac.backend.execution.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import viettel.dac.backend.execution.entity.ExecutionBatch;
+
+import java.util.UUID;
+
+@Repository
+public interface ExecutionBatchRepository extends JpaRepository<ExecutionBatch, UUID> {
+}
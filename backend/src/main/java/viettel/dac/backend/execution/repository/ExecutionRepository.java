@@ -7,11 +7,13 @@ import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import viettel.dac.backend.execution.dto.ExecutionEventDto;
 import viettel.dac.backend.execution.entity.BaseExecution;
 import viettel.dac.backend.execution.enums.ExecutionStatus;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -48,6 +50,17 @@ public interface ExecutionRepository extends JpaRepository<BaseExecution, UUID>,
             @Param("endTimeTo") Instant endTimeTo,
             Pageable pageable);
 
+    @Query("SELECT e.userId FROM BaseExecution e WHERE e.id = :id")
+    Optional<UUID> findUserIdById(@Param("id") UUID id);
+
+    @Query("SELECT new viettel.dac.backend.execution.dto.ExecutionEventDto(" +
+            "e.id, e.userId, e.templateId, e.batchId, e.status, e.startTime, e.endTime, e.errorMessage) " +
+            "FROM BaseExecution e WHERE e.id = :id")
+    Optional<ExecutionEventDto> findEventById(@Param("id") UUID id);
+
+    @Query("SELECT e.status, COUNT(e) FROM BaseExecution e WHERE e.batchId = :batchId GROUP BY e.status")
+    List<Object[]> countByStatusForBatch(@Param("batchId") UUID batchId);
+
     List<BaseExecution> findByStatusAndStartTimeBefore(ExecutionStatus status, Instant beforeTime);
 
     List<BaseExecution> findByEndTimeBefore(Instant beforeTime);
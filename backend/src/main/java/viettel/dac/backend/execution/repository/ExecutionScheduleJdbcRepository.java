@@ -0,0 +1,78 @@
+package viettel.dac.backend.execution.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Lease and run bookkeeping for execution schedules.
+ * Lease times use the database clock, so instances with skewed clocks still agree on expiry.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExecutionScheduleJdbcRepository {
+
+    // Renew our own leases first, then claim free or expired ones, up to the limit
+    private static final String ACQUIRE_LEASES =
+            "UPDATE execution_schedules SET lease_owner = ?, lease_expires_at = now() + ? * INTERVAL '1 millisecond' " +
+                    "WHERE id IN (SELECT id FROM execution_schedules " +
+                    "WHERE enabled AND (lease_owner = ? OR lease_owner IS NULL OR lease_expires_at < now()) " +
+                    "ORDER BY CASE WHEN lease_owner = ? THEN 0 ELSE 1 END LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                    "RETURNING id, last_modified_at";
+
+    private static final String RELEASE_LEASES =
+            "UPDATE execution_schedules SET lease_owner = NULL, lease_expires_at = NULL WHERE lease_owner = ?";
+
+    private static final String RECORD_RUN =
+            "UPDATE execution_schedules SET last_run_at = COALESCE(?, last_run_at), next_run_at = ?, " +
+                    "last_execution_id = COALESCE(?, last_execution_id) " +
+                    "WHERE id = ? AND lease_owner = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Renew and claim leases for {@code owner}.
+     *
+     * @return the schedules now leased by the owner
+     */
+    public List<LeasedSchedule> acquireLeases(String owner, long leaseDurationMs, int limit) {
+        return jdbcTemplate.query(ACQUIRE_LEASES,
+                (rs, rowNum) -> new LeasedSchedule(
+                        rs.getObject("id", UUID.class),
+                        rs.getTimestamp("last_modified_at") != null ? rs.getTimestamp("last_modified_at").toInstant() : null),
+                owner, leaseDurationMs, owner, owner, limit);
+    }
+
+    public void releaseLeases(String owner) {
+        jdbcTemplate.update(RELEASE_LEASES, owner);
+    }
+
+    /**
+     * Record a run of a schedule and its next run time. A null run or execution keeps the previous one.
+     *
+     * @return false if the owner no longer holds the lease
+     */
+    public boolean recordRun(UUID scheduleId, String owner, Instant runAt, Instant nextRunAt, UUID executionId) {
+        Object[] args = {
+                runAt != null ? Timestamp.from(runAt) : null,
+                nextRunAt != null ? Timestamp.from(nextRunAt) : null,
+                executionId,
+                scheduleId,
+                owner
+        };
+        int[] argTypes = {Types.TIMESTAMP, Types.TIMESTAMP, Types.OTHER, Types.OTHER, Types.VARCHAR};
+        return jdbcTemplate.update(RECORD_RUN, args, argTypes) > 0;
+    }
+
+    /**
+     * A schedule leased by this instance, with its modification time to detect edits.
+     */
+    public record LeasedSchedule(UUID id, Instant lastModifiedAt) {
+    }
+}
@@ -0,0 +1,15 @@
+package viettel.dac.backend.execution.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import viettel.dac.backend.execution.entity.ExecutionSchedule;
+
+import java.util.UUID;
+
+@Repository
+public interface ExecutionScheduleRepository extends JpaRepository<ExecutionSchedule, UUID> {
+
+    Page<ExecutionSchedule> findByUserId(UUID userId, Pageable pageable);
+}
@@ -0,0 +1,201 @@
+package viettel.dac.backend.execution.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import viettel.dac.backend.execution.entity.ApiExecution;
+import viettel.dac.backend.execution.entity.BaseExecution;
+import viettel.dac.backend.execution.entity.IntegrationExecution;
+import viettel.dac.backend.execution.entity.IntegrationStepState;
+import viettel.dac.backend.execution.enums.ExecutionStatus;
+import viettel.dac.backend.execution.exception.ExecutionException;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Group writes of execution state transitions.
+ * The states of many executions are written with JDBC batches in one transaction; a state never
+ * overwrites an execution that already reached a final status.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ExecutionStateJdbcRepository {
+
+    private static final String UPDATE_EXECUTION =
+            "UPDATE executions SET status = CAST(? AS execution_status), start_time = ?, end_time = ?, " +
+                    "result = CAST(? AS jsonb), error_message = ?, metrics = CAST(? AS jsonb), " +
+                    "execution_type = COALESCE(?, execution_type), last_modified_at = ? " +
+                    "WHERE id = ? AND status IN ('PENDING', 'RUNNING')";
+
+    private static final String UPSERT_API_EXECUTION =
+            "INSERT INTO api_executions (execution_id, status_code, response_headers, response_body, response_body_ref, " +
+                    "response_body_node, response_body_size, response_body_preview, response_time_ms, successful, coalesced_with) " +
+                    "VALUES (?, ?, CAST(? AS jsonb), CAST(? AS jsonb), ?, ?, ?, ?, ?, ?, ?) " +
+                    "ON CONFLICT (execution_id) DO UPDATE SET status_code = EXCLUDED.status_code, " +
+                    "response_headers = EXCLUDED.response_headers, response_body = EXCLUDED.response_body, " +
+                    "response_body_ref = EXCLUDED.response_body_ref, response_body_node = EXCLUDED.response_body_node, " +
+                    "response_body_size = EXCLUDED.response_body_size, " +
+                    "response_body_preview = EXCLUDED.response_body_preview, response_time_ms = EXCLUDED.response_time_ms, " +
+                    "successful = EXCLUDED.successful, coalesced_with = EXCLUDED.coalesced_with";
+
+    private static final String UPSERT_STEP_STATES =
+            "INSERT INTO integration_executions (execution_id, step_states) VALUES (?, CAST(? AS jsonb)) " +
+                    "ON CONFLICT (execution_id) DO UPDATE SET step_states = EXCLUDED.step_states";
+
+    private static final String SELECT_EXISTING =
+            "SELECT id FROM executions WHERE id = ANY(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Write the states in one transaction.
+     *
+     * @return ids of the executions that were not written, because their row is already final or
+     * does not exist or is not visible yet
+     */
+    @Transactional
+    public WriteResult writeStates(List<ExecutionState> states) {
+        Instant now = Instant.now();
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_EXECUTION, states, states.size(), (ps, state) -> {
+            ps.setString(1, state.status().name());
+            ps.setTimestamp(2, toTimestamp(state.startTime()));
+            ps.setTimestamp(3, toTimestamp(state.endTime()));
+            ps.setString(4, toJson(state.result()));
+            ps.setString(5, state.errorMessage());
+            ps.setString(6, toJson(state.metrics()));
+            ps.setString(7, state.executionType());
+            ps.setTimestamp(8, Timestamp.from(now));
+            ps.setObject(9, state.id());
+        });
+
+        List<ExecutionState> updated = new ArrayList<>(states.size());
+        List<UUID> notUpdated = new ArrayList<>();
+        for (int i = 0; i < states.size(); i++) {
+            if (counts[0][i] == 0) {
+                notUpdated.add(states.get(i).id());
+            } else {
+                updated.add(states.get(i));
+            }
+        }
+
+        List<ExecutionState> apiStates = updated.stream().filter(state -> state.api() != null).toList();
+        if (!apiStates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_API_EXECUTION, apiStates, apiStates.size(), (ps, state) -> {
+                ApiState api = state.api();
+                ps.setObject(1, state.id());
+                ps.setObject(2, api.statusCode(), Types.INTEGER);
+                ps.setString(3, toJson(api.responseHeaders()));
+                ps.setString(4, toJson(api.responseBody()));
+                ps.setString(5, api.responseBodyRef());
+                ps.setString(6, api.responseBodyNode());
+                ps.setObject(7, api.responseBodySize(), Types.BIGINT);
+                ps.setString(8, api.responseBodyPreview());
+                ps.setObject(9, api.responseTimeMs(), Types.BIGINT);
+                ps.setObject(10, api.successful(), Types.BOOLEAN);
+                ps.setObject(11, api.coalescedWith());
+            });
+        }
+
+        // Final integration states carry every step, including those rewritten on completion
+        List<ExecutionState> integrationStates = updated.stream().filter(state -> state.stepStates() != null).toList();
+        if (!integrationStates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_STEP_STATES, integrationStates, integrationStates.size(), (ps, state) -> {
+                ps.setObject(1, state.id());
+                ps.setString(2, toJson(state.stepStates()));
+            });
+        }
+
+        if (notUpdated.isEmpty()) {
+            return new WriteResult(Set.of(), Set.of());
+        }
+        // Rows that exist were not updated because they are already final
+        Set<UUID> alreadyFinal = new HashSet<>();
+        Set<UUID> missing = new HashSet<>(notUpdated);
+        jdbcTemplate.query(SELECT_EXISTING,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", notUpdated.toArray())),
+                (RowCallbackHandler) rs -> {
+                    UUID id = rs.getObject(1, UUID.class);
+                    missing.remove(id);
+                    alreadyFinal.add(id);
+                });
+        return new WriteResult(alreadyFinal, missing);
+    }
+
+    private static Timestamp toTimestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new ExecutionException("Error serializing execution state: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * State of an execution at one transition, copied so the execution can move on while the
+     * state waits to be written. JSON values are shared and must not be modified afterwards.
+     */
+    public record ExecutionState(UUID id, UUID userId, UUID templateId, UUID batchId, ExecutionStatus status,
+                                 Instant startTime, Instant endTime, Object result, String errorMessage,
+                                 Map<String, Object> metrics, String executionType, ApiState api,
+                                 Map<String, IntegrationStepState> stepStates) {
+
+        public static ExecutionState of(BaseExecution execution) {
+            ApiState api = null;
+            String executionType = null;
+            if (execution instanceof ApiExecution apiExecution) {
+                executionType = "API";
+                api = new ApiState(apiExecution.getStatusCode(), apiExecution.getResponseHeaders(),
+                        apiExecution.getResponseBody(), apiExecution.getResponseBodyRef(),
+                        apiExecution.getResponseBodyNode(), apiExecution.getResponseBodySize(), apiExecution.getResponseBodyPreview(),
+                        apiExecution.getResponseTimeMs(), apiExecution.getSuccessful(), apiExecution.getCoalescedWith());
+            }
+            // Step transitions are written one by one by IntegrationExecutionJdbcRepository; the final
+            // state rewrites the whole document, covering steps whose own write failed
+            Map<String, IntegrationStepState> stepStates = null;
+            if (execution instanceof IntegrationExecution integrationExecution && integrationExecution.getStepStates() != null) {
+                executionType = "INTEGRATION";
+                stepStates = integrationExecution.getStepStates();
+            }
+            return new ExecutionState(execution.getId(), execution.getUserId(), execution.getTemplateId(),
+                    execution.getBatchId(), execution.getStatus(), execution.getStartTime(), execution.getEndTime(),
+                    execution.getResult(), execution.getErrorMessage(), execution.getMetrics(), executionType, api,
+                    stepStates);
+        }
+
+        public boolean isFinal() {
+            return status != ExecutionStatus.PENDING && status != ExecutionStatus.RUNNING;
+        }
+    }
+
+    /**
+     * States not written: {@code alreadyFinal} rows were left as they are, {@code notVisible} rows
+     * were not found.
+     */
+    public record WriteResult(Set<UUID> alreadyFinal, Set<UUID> notVisible) {
+    }
+
+    public record ApiState(Integer statusCode, Map<String, String> responseHeaders, Object responseBody,
+                           String responseBodyRef, String responseBodyNode, Long responseBodySize,
+                           String responseBodyPreview,
+                           Long responseTimeMs, Boolean successful, UUID coalescedWith) {
+    }
+}
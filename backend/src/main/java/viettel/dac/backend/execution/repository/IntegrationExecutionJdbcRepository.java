@@ -0,0 +1,57 @@
+package viettel.dac.backend.execution.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import viettel.dac.backend.execution.entity.IntegrationStepState;
+import viettel.dac.backend.execution.exception.ExecutionException;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Incremental writes of integration step states.
+ * Each step transition updates only its own key of the step_states document.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IntegrationExecutionJdbcRepository {
+
+    private static final String MARK_INTEGRATION =
+            "UPDATE executions SET execution_type = 'INTEGRATION' WHERE id = ?";
+
+    private static final String UPSERT_STEP_STATES =
+            "INSERT INTO integration_executions (execution_id, step_states) VALUES (?, CAST(? AS jsonb)) " +
+                    "ON CONFLICT (execution_id) DO UPDATE SET step_states = EXCLUDED.step_states";
+
+    private static final String UPDATE_STEP_STATE =
+            "UPDATE integration_executions SET step_states = jsonb_set(step_states, CAST(ARRAY[?] AS text[]), CAST(? AS jsonb)) " +
+                    "WHERE execution_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Create the integration row of an execution with the initial state of every step.
+     */
+    @Transactional
+    public void initStepStates(UUID executionId, Map<String, IntegrationStepState> stepStates) {
+        jdbcTemplate.update(MARK_INTEGRATION, executionId);
+        jdbcTemplate.update(UPSERT_STEP_STATES, executionId, toJson(stepStates));
+    }
+
+    public void updateStepState(UUID executionId, String stepId, IntegrationStepState stepState) {
+        jdbcTemplate.update(UPDATE_STEP_STATE, stepId, toJson(stepState), executionId);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new ExecutionException("Error serializing step state: " + e.getMessage(), e);
+        }
+    }
+}
@@ -1,27 +1,39 @@
 package viettel.dac.backend.execution.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import viettel.dac.backend.common.exception.ResourceNotFoundException;
 import viettel.dac.backend.execution.dto.ApiExecutionResponseDto;
 import viettel.dac.backend.execution.dto.ApiExecutionSearchFilterDto;
 import viettel.dac.backend.execution.dto.ExecutionRequestDto;
+import viettel.dac.backend.execution.dto.ResponseBodyResourceDto;
 import viettel.dac.backend.execution.entity.ApiExecution;
+import viettel.dac.backend.execution.entity.BaseExecution;
+import viettel.dac.backend.execution.exception.ExecutionException;
+import viettel.dac.backend.execution.http.ResponseBodyStore;
 import viettel.dac.backend.execution.mapper.ApiExecutionMapper;
 import viettel.dac.backend.execution.repository.ApiExecutionRepository;
 import viettel.dac.backend.execution.service.specification.ApiExecutionSpecifications;
 
 
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,18 +44,27 @@ public class ApiExecutionService {
     private final ExecutionService executionService;
     private final ApiExecutionRepository apiExecutionRepository;
     private final ApiExecutionMapper apiExecutionMapper;
+    private final ResponseBodyStore responseBodyStore;
+    private final ObjectMapper objectMapper;
 
     @Transactional
     public ApiExecutionResponseDto executeApiTemplate(ExecutionRequestDto requestDto, UUID userId) {
         // Use the base execution service to start execution
-        executionService.executeTemplate(requestDto, userId);
-
-        // Find the execution (it should be in PENDING state now)
-        ApiExecution execution = apiExecutionRepository.findById(requestDto.getTemplateId())
-                .orElseThrow(() -> new ResourceNotFoundException("API Execution not found"));
+        ExecutionService.SubmittedExecution submitted = executionService.submitTemplate(requestDto, userId);
 
         // Return the pending execution information
-        return apiExecutionMapper.toDto(execution);
+        return toDto(submitted.execution());
+    }
+
+    /**
+     * Execute an API template and wait, without holding a thread, until the execution has finished
+     * or the wait has expired.
+     */
+    @Transactional
+    public CompletableFuture<ApiExecutionResponseDto> executeApiTemplateAndWait(ExecutionRequestDto requestDto, UUID userId,
+                                                                                Duration wait) {
+        ExecutionService.SubmittedExecution submitted = executionService.submitTemplate(requestDto, userId);
+        return executionService.awaitCompletion(submitted, wait, this::toDto);
     }
 
     @Transactional(readOnly = true)
@@ -55,6 +76,47 @@ public class ApiExecutionService {
         return apiExecutionMapper.toDto(apiExecution);
     }
 
+    @Transactional(readOnly = true)
+    public ResponseBodyResourceDto getApiExecutionResponseBody(UUID executionId) {
+        ApiExecution apiExecution = apiExecutionRepository.findById(executionId)
+                .orElseThrow(() -> new ResourceNotFoundException("API Execution not found with ID: " + executionId));
+
+        String contentType = apiExecution.getResponseHeaders() != null
+                ? apiExecution.getResponseHeaders().entrySet().stream()
+                        .filter(header -> HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(header.getKey()))
+                        .map(Map.Entry::getValue)
+                        .findFirst()
+                        .orElse(null)
+                : null;
+
+        // Spilled bodies are streamed from the store, on the instance that holds them
+        String ref = apiExecution.getResponseBodyRef();
+        if (ref != null) {
+            String nodeUrl = apiExecution.getResponseBodyNode();
+            if (nodeUrl != null && !nodeUrl.equals(responseBodyStore.getNodeUrl()) && !responseBodyStore.contains(ref)) {
+                return ResponseBodyResourceDto.storedOn(nodeUrl);
+            }
+            return new ResponseBodyResourceDto(responseBodyStore.open(ref), contentType);
+        }
+
+        if (apiExecution.getResponseBody() == null) {
+            throw new ResourceNotFoundException("API Execution has no response body: " + executionId);
+        }
+
+        byte[] body;
+        Object responseBody = apiExecution.getResponseBody();
+        if (responseBody instanceof String) {
+            body = ((String) responseBody).getBytes(StandardCharsets.UTF_8);
+        } else {
+            try {
+                body = objectMapper.writeValueAsBytes(responseBody);
+            } catch (JsonProcessingException e) {
+                throw new ExecutionException("Error serializing response body: " + e.getMessage(), e);
+            }
+        }
+        return new ResponseBodyResourceDto(new ByteArrayResource(body), contentType);
+    }
+
     @Transactional(readOnly = true)
     public Page<ApiExecutionResponseDto> searchApiExecutions(ApiExecutionSearchFilterDto filter, Pageable pageable) {
         // Build base specification
@@ -122,6 +184,24 @@ public class ApiExecutionService {
         apiExecutionRepository.deleteById(executionId);
     }
 
+    private ApiExecutionResponseDto toDto(BaseExecution execution) {
+        if (execution instanceof ApiExecution apiExecution) {
+            return apiExecutionMapper.toDto(apiExecution);
+        }
+
+        // Pending executions, and those that failed before the call, have no API state yet
+        ApiExecution apiExecution = new ApiExecution();
+        apiExecution.setId(execution.getId());
+        apiExecution.setTemplateId(execution.getTemplateId());
+        apiExecution.setUserId(execution.getUserId());
+        apiExecution.setStatus(execution.getStatus());
+        apiExecution.setStartTime(execution.getStartTime());
+        apiExecution.setEndTime(execution.getEndTime());
+        apiExecution.setErrorMessage(execution.getErrorMessage());
+        apiExecution.setMetrics(execution.getMetrics());
+        return apiExecutionMapper.toDto(apiExecution);
+    }
+
     protected Specification<ApiExecution> buildSpecification(ApiExecutionSearchFilterDto filter) {
         Specification<ApiExecution> spec = Specification.where(null);
 
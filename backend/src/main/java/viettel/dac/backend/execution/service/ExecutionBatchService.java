@@ -0,0 +1,217 @@
+package viettel.dac.backend.execution.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import viettel.dac.backend.common.exception.ResourceNotFoundException;
+import viettel.dac.backend.common.exception.ValidationException;
+import viettel.dac.backend.execution.dto.BatchExecutionRequestDto;
+import viettel.dac.backend.execution.dto.BatchExecutionResponseDto;
+import viettel.dac.backend.execution.engine.ExecutionEngine;
+import viettel.dac.backend.execution.engine.ExecutionStrategy;
+import viettel.dac.backend.execution.engine.FairExecutionScheduler;
+import viettel.dac.backend.execution.engine.TemplateSnapshotCache;
+import viettel.dac.backend.execution.entity.ApiExecution;
+import viettel.dac.backend.execution.entity.ExecutionBatch;
+import viettel.dac.backend.execution.enums.ExecutionPriority;
+import viettel.dac.backend.execution.enums.ExecutionStatus;
+import viettel.dac.backend.execution.exception.ExecutionException;
+import viettel.dac.backend.execution.repository.ExecutionBatchJdbcRepository;
+import viettel.dac.backend.execution.repository.ExecutionBatchRepository;
+import viettel.dac.backend.execution.repository.ExecutionRepository;
+import viettel.dac.backend.template.entity.ApiTemplate;
+import viettel.dac.backend.template.entity.BaseTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs one API template with many parameter sets.
+ * The template is loaded and validated once, all execution rows are inserted with one JDBC batch,
+ * and the calls are fanned out with a bounded number in flight per batch.
+ */
+@Service
+@Slf4j
+public class ExecutionBatchService {
+
+    private final TemplateSnapshotCache templateSnapshotCache;
+    private final ExecutionRepository executionRepository;
+    private final ExecutionBatchRepository executionBatchRepository;
+    private final ExecutionBatchJdbcRepository executionBatchJdbcRepository;
+    private final ExecutionEngine executionEngine;
+    private final FairExecutionScheduler fairExecutionScheduler;
+    private final Executor executionScheduler;
+
+    @Value("${tool-template.execution.batch.max-size:10000}")
+    private int maxBatchSize;
+
+    @Value("${tool-template.execution.batch.default-parallelism:16}")
+    private int defaultParallelism;
+
+    @Value("${tool-template.execution.batch.max-parallelism:64}")
+    private int maxParallelism;
+
+    @Autowired
+    public ExecutionBatchService(
+            TemplateSnapshotCache templateSnapshotCache,
+            ExecutionRepository executionRepository,
+            ExecutionBatchRepository executionBatchRepository,
+            ExecutionBatchJdbcRepository executionBatchJdbcRepository,
+            ExecutionEngine executionEngine,
+            FairExecutionScheduler fairExecutionScheduler,
+            @Qualifier("executionScheduler") Executor executionScheduler) {
+        this.templateSnapshotCache = templateSnapshotCache;
+        this.executionRepository = executionRepository;
+        this.executionBatchRepository = executionBatchRepository;
+        this.executionBatchJdbcRepository = executionBatchJdbcRepository;
+        this.executionEngine = executionEngine;
+        this.fairExecutionScheduler = fairExecutionScheduler;
+        this.executionScheduler = executionScheduler;
+    }
+
+    public BatchExecutionResponseDto executeBatch(BatchExecutionRequestDto requestDto, UUID userId) {
+        List<Map<String, Object>> parameterSets = requestDto.getParameterSets();
+        if (parameterSets.size() > maxBatchSize) {
+            throw new ValidationException("Batch size " + parameterSets.size() + " exceeds the maximum of " + maxBatchSize);
+        }
+
+        // Load the template once for the whole batch
+        UUID templateId = requestDto.getTemplateId();
+        BaseTemplate template = templateSnapshotCache.find(templateId)
+                .orElseThrow(() -> new ResourceNotFoundException("Template not found with ID: " + templateId));
+        if (!(template instanceof ApiTemplate)) {
+            throw new ValidationException("Batch execution is only supported for API templates");
+        }
+
+        // Validate every parameter set before anything is persisted
+        ExecutionStrategy strategy = executionEngine.getStrategy(template);
+        for (int i = 0; i < parameterSets.size(); i++) {
+            try {
+                strategy.validate(template, parameterSets.get(i));
+            } catch (ExecutionException e) {
+                throw new ValidationException("Invalid parameter set at index " + i + ": " + e.getMessage());
+            }
+        }
+
+        // The whole batch counts against the user's daily quota up front
+        fairExecutionScheduler.admit(userId, parameterSets.size());
+
+        int parallelism = requestDto.getParallelism() != null
+                ? Math.min(requestDto.getParallelism(), maxParallelism) : defaultParallelism;
+
+        Instant now = Instant.now();
+        ExecutionBatch batch = ExecutionBatch.builder()
+                .id(UUID.randomUUID())
+                .templateId(templateId)
+                .userId(userId)
+                .totalCount(parameterSets.size())
+                .parallelism(parallelism)
+                .createdBy(userId)
+                .createdAt(now)
+                .build();
+
+        List<ApiExecution> executions = new ArrayList<>(parameterSets.size());
+        for (int i = 0; i < parameterSets.size(); i++) {
+            executions.add(ApiExecution.builder()
+                    .id(UUID.randomUUID())
+                    .templateId(templateId)
+                    .userId(userId)
+                    .status(ExecutionStatus.PENDING)
+                    .executionType("API")
+                    .batchId(batch.getId())
+                    .createdBy(userId)
+                    .createdAt(now)
+                    .build());
+        }
+
+        // Insert all rows in one transaction, committed before any call is dispatched
+        try {
+            executionBatchJdbcRepository.insertBatch(batch, executions);
+        } catch (RuntimeException e) {
+            fairExecutionScheduler.releaseAdmission(userId, executions.size());
+            throw e;
+        }
+        log.info("Created execution batch {} with {} executions, parallelism {}", batch.getId(), executions.size(), parallelism);
+
+        ExecutionPriority priority = requestDto.getPriority() != null ? requestDto.getPriority() : ExecutionPriority.BULK;
+        dispatch(userId, priority, template, executions, parameterSets, parallelism);
+
+        return toDto(batch, Map.of(ExecutionStatus.PENDING, (long) executions.size()));
+    }
+
+    @Transactional(readOnly = true)
+    public BatchExecutionResponseDto getBatchProgress(UUID batchId) {
+        ExecutionBatch batch = executionBatchRepository.findById(batchId)
+                .orElseThrow(() -> new ResourceNotFoundException("Execution batch not found with ID: " + batchId));
+
+        Map<ExecutionStatus, Long> statusCounts = new EnumMap<>(ExecutionStatus.class);
+        for (Object[] row : executionRepository.countByStatusForBatch(batchId)) {
+            statusCounts.put((ExecutionStatus) row[0], (Long) row[1]);
+        }
+
+        return toDto(batch, statusCounts);
+    }
+
+    /**
+     * Queue up to {@code parallelism} executions with the fair scheduler; each completion queues the next one.
+     */
+    private void dispatch(UUID userId, ExecutionPriority priority, BaseTemplate template, List<ApiExecution> executions,
+                          List<Map<String, Object>> parameterSets, int parallelism) {
+        AtomicInteger next = new AtomicInteger();
+        int lanes = Math.min(parallelism, executions.size());
+        for (int i = 0; i < lanes; i++) {
+            dispatchNext(userId, priority, template, executions, parameterSets, next);
+        }
+    }
+
+    private void dispatchNext(UUID userId, ExecutionPriority priority, BaseTemplate template, List<ApiExecution> executions,
+                              List<Map<String, Object>> parameterSets, AtomicInteger next) {
+        int index = next.getAndIncrement();
+        if (index >= executions.size()) {
+            return;
+        }
+
+        ApiExecution execution = executions.get(index);
+        try {
+            fairExecutionScheduler.submit(execution, priority,
+                            () -> executionEngine.dispatch(template, execution, parameterSets.get(index)))
+                    // Continue on the scheduler so executions that finish synchronously do not grow the stack;
+                    // its queue is unbounded, so a saturated execution executor cannot stall the batch
+                    .whenCompleteAsync((result, ex) -> dispatchNext(userId, priority, template, executions, parameterSets, next),
+                            executionScheduler);
+        } catch (Exception e) {
+            log.error("Error dispatching execution {} of batch {}: {}", execution.getId(), execution.getBatchId(), e.getMessage(), e);
+            fairExecutionScheduler.failUnstarted(execution, e)
+                    .whenCompleteAsync((result, ex) -> dispatchNext(userId, priority, template, executions, parameterSets, next),
+                            executionScheduler);
+        }
+    }
+
+    private BatchExecutionResponseDto toDto(ExecutionBatch batch, Map<ExecutionStatus, Long> statusCounts) {
+        long finishedCount = statusCounts.entrySet().stream()
+                .filter(entry -> entry.getKey() != ExecutionStatus.PENDING && entry.getKey() != ExecutionStatus.RUNNING)
+                .mapToLong(Map.Entry::getValue)
+                .sum();
+
+        return BatchExecutionResponseDto.builder()
+                .batchId(batch.getId())
+                .templateId(batch.getTemplateId())
+                .userId(batch.getUserId())
+                .totalCount(batch.getTotalCount())
+                .parallelism(batch.getParallelism())
+                .finishedCount(finishedCount)
+                .done(finishedCount >= batch.getTotalCount())
+                .statusCounts(statusCounts)
+                .createdAt(batch.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package viettel.dac.backend.execution.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import viettel.dac.backend.common.exception.ResourceNotFoundException;
+import viettel.dac.backend.common.exception.ValidationException;
+import viettel.dac.backend.execution.dto.ExecutionScheduleRequestDto;
+import viettel.dac.backend.execution.dto.ExecutionScheduleResponseDto;
+import viettel.dac.backend.execution.engine.ExecutionEngine;
+import viettel.dac.backend.execution.engine.RecurringExecutionScheduler;
+import viettel.dac.backend.execution.entity.ExecutionSchedule;
+import viettel.dac.backend.execution.enums.ExecutionPriority;
+import viettel.dac.backend.execution.exception.ExecutionException;
+import viettel.dac.backend.execution.mapper.ExecutionScheduleMapper;
+import viettel.dac.backend.execution.repository.ExecutionScheduleRepository;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ExecutionScheduleService {
+
+    private final ExecutionScheduleRepository executionScheduleRepository;
+    private final ExecutionScheduleMapper executionScheduleMapper;
+    private final ExecutionEngine executionEngine;
+
+    @Value("${tool-template.execution.schedules.min-fixed-rate:1000}")
+    private long minFixedRateMs = 1000;
+
+    @Transactional
+    public ExecutionScheduleResponseDto createSchedule(ExecutionScheduleRequestDto requestDto, UUID userId) {
+        ExecutionSchedule schedule = new ExecutionSchedule();
+        schedule.setUserId(userId);
+        apply(schedule, requestDto);
+
+        ExecutionSchedule savedSchedule = executionScheduleRepository.save(schedule);
+        log.info("Created execution schedule {} for template {}", savedSchedule.getId(), savedSchedule.getTemplateId());
+        return executionScheduleMapper.toDto(savedSchedule);
+    }
+
+    @Transactional(readOnly = true)
+    public ExecutionScheduleResponseDto getSchedule(UUID scheduleId) {
+        return executionScheduleMapper.toDto(findSchedule(scheduleId));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ExecutionScheduleResponseDto> getUserSchedules(UUID userId, Pageable pageable) {
+        return executionScheduleRepository.findByUserId(userId, pageable).map(executionScheduleMapper::toDto);
+    }
+
+    /**
+     * Replace a schedule. The owning instance re-arms it on its next lease renewal.
+     */
+    @Transactional
+    public ExecutionScheduleResponseDto updateSchedule(UUID scheduleId, ExecutionScheduleRequestDto requestDto) {
+        ExecutionSchedule schedule = findSchedule(scheduleId);
+        apply(schedule, requestDto);
+        return executionScheduleMapper.toDto(executionScheduleRepository.save(schedule));
+    }
+
+    @Transactional
+    public void deleteSchedule(UUID scheduleId) {
+        if (!executionScheduleRepository.existsById(scheduleId)) {
+            throw new ResourceNotFoundException("Execution schedule not found with ID: " + scheduleId);
+        }
+        executionScheduleRepository.deleteById(scheduleId);
+    }
+
+    private ExecutionSchedule findSchedule(UUID scheduleId) {
+        return executionScheduleRepository.findById(scheduleId)
+                .orElseThrow(() -> new ResourceNotFoundException("Execution schedule not found with ID: " + scheduleId));
+    }
+
+    private void apply(ExecutionSchedule schedule, ExecutionScheduleRequestDto requestDto) {
+        boolean hasCron = requestDto.getCronExpression() != null && !requestDto.getCronExpression().isBlank();
+        if (hasCron == (requestDto.getFixedRateMs() != null)) {
+            throw new ValidationException("Exactly one of cronExpression and fixedRateMs is required");
+        }
+        if (hasCron && !CronExpression.isValidExpression(requestDto.getCronExpression())) {
+            throw new ValidationException("Invalid cron expression: " + requestDto.getCronExpression());
+        }
+        if (!hasCron && requestDto.getFixedRateMs() < minFixedRateMs) {
+            throw new ValidationException("Fixed rate must be at least " + minFixedRateMs + " ms");
+        }
+
+        String timeZone = requestDto.getTimeZone() != null ? requestDto.getTimeZone() : "UTC";
+        try {
+            ZoneId.of(timeZone);
+        } catch (DateTimeException e) {
+            throw new ValidationException("Invalid time zone: " + timeZone);
+        }
+
+        // The template must accept the parameters now, not only when the first run fails
+        try {
+            executionEngine.validate(requestDto.getTemplateId(), requestDto.getParameters());
+        } catch (ExecutionException e) {
+            throw new ValidationException("Invalid parameters: " + e.getMessage());
+        }
+
+        schedule.setTemplateId(requestDto.getTemplateId());
+        schedule.setName(requestDto.getName());
+        schedule.setCronExpression(hasCron ? requestDto.getCronExpression() : null);
+        schedule.setTimeZone(timeZone);
+        schedule.setFixedRateMs(hasCron ? null : requestDto.getFixedRateMs());
+        schedule.setParameters(requestDto.getParameters());
+        schedule.setPriority(requestDto.getPriority() != null ? requestDto.getPriority() : ExecutionPriority.NORMAL);
+        schedule.setEnabled(requestDto.getEnabled() == null || requestDto.getEnabled());
+        schedule.setNextRunAt(RecurringExecutionScheduler.nextRunAfter(schedule, Instant.now()));
+    }
+}
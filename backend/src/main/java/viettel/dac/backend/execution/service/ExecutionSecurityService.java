@@ -6,7 +6,9 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import viettel.dac.backend.execution.repository.ExecutionBatchRepository;
 import viettel.dac.backend.execution.repository.ExecutionRepository;
+import viettel.dac.backend.execution.repository.ExecutionScheduleRepository;
 import viettel.dac.backend.security.enums.RoleType;
 
 import java.util.UUID;
@@ -16,6 +18,8 @@ import java.util.UUID;
 public class ExecutionSecurityService {
 
     private final ExecutionRepository executionRepository;
+    private final ExecutionBatchRepository executionBatchRepository;
+    private final ExecutionScheduleRepository executionScheduleRepository;
 
     @Transactional(readOnly = true)
     public boolean canAccessExecution(UUID executionId, UUID userId) {
@@ -24,10 +28,9 @@ public class ExecutionSecurityService {
             return true;
         }
 
-        // Check if the user is the owner of the execution
-        return executionRepository.findById(executionId)
-                .map(execution -> execution.getUserId() != null &&
-                        execution.getUserId().equals(userId))
+        // Check if the user is the owner of the execution, without loading it
+        return executionRepository.findUserIdById(executionId)
+                .map(ownerId -> ownerId.equals(userId))
                 .orElse(false);
     }
 
@@ -41,6 +44,31 @@ public class ExecutionSecurityService {
         return hasAdminRole() || canAccessExecution(executionId, userId);
     }
 
+    @Transactional(readOnly = true)
+    public boolean canAccessBatch(UUID batchId, UUID userId) {
+        if (hasAdminRole()) {
+            return true;
+        }
+
+        // Check if the user is the owner of the batch
+        return executionBatchRepository.findById(batchId)
+                .map(batch -> batch.getUserId() != null &&
+                        batch.getUserId().equals(userId))
+                .orElse(false);
+    }
+
+    @Transactional(readOnly = true)
+    public boolean canAccessSchedule(UUID scheduleId, UUID userId) {
+        if (hasAdminRole()) {
+            return true;
+        }
+
+        // Check if the user is the owner of the schedule
+        return executionScheduleRepository.findById(scheduleId)
+                .map(schedule -> schedule.getUserId().equals(userId))
+                .orElse(false);
+    }
+
     private boolean hasAdminRole() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
 
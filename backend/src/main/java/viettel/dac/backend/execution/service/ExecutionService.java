@@ -5,49 +5,101 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import viettel.dac.backend.common.exception.ResourceNotFoundException;
 import viettel.dac.backend.execution.dto.ExecutionRequestDto;
 import viettel.dac.backend.execution.dto.ExecutionResponseDto;
 import viettel.dac.backend.execution.dto.ExecutionSearchFilterDto;
 import viettel.dac.backend.execution.engine.ExecutionEngine;
+import viettel.dac.backend.execution.engine.ExecutionEventBroadcaster;
+import viettel.dac.backend.execution.engine.ExecutionStateWriter;
+import viettel.dac.backend.execution.engine.ExecutionSubmittedEvent;
+import viettel.dac.backend.execution.engine.FairExecutionScheduler;
 import viettel.dac.backend.execution.entity.BaseExecution;
 import viettel.dac.backend.execution.enums.ExecutionStatus;
 import viettel.dac.backend.execution.exception.ExecutionException;
 import viettel.dac.backend.execution.mapper.ExecutionMapper;
 import viettel.dac.backend.execution.repository.ExecutionRepository;
 import viettel.dac.backend.execution.service.specification.ExecutionSpecifications;
-import viettel.dac.backend.template.repository.TemplateRepository;
+import viettel.dac.backend.template.entity.BaseTemplate;
 
 
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ExecutionService {
 
-    private final TemplateRepository templateRepository;
     private final ExecutionRepository executionRepository;
     private final ExecutionMapper executionMapper;
     private final ExecutionEngine executionEngine;
+    private final FairExecutionScheduler fairExecutionScheduler;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ExecutionEventBroadcaster executionEventBroadcaster;
+    private final ExecutionStateWriter executionStateWriter;
 
     @Value("${execution.default-timeout:60000}")
     private int defaultTimeoutMs;
 
+    @Value("${tool-template.execution.max-wait:25000}")
+    private long maxWaitMs;
+
     @Transactional
     public ExecutionResponseDto executeTemplate(ExecutionRequestDto requestDto, UUID userId) {
-        // Check if the template exists
+        return executionMapper.toDto(submitTemplate(requestDto, userId).execution());
+    }
+
+    /**
+     * Execute a template and wait, without holding a thread, until the execution has finished or
+     * the wait, capped at {@code maxWait}, has expired. Completes with the final execution, or with
+     * the execution as submitted when the wait expired.
+     */
+    @Transactional
+    public CompletableFuture<ExecutionResponseDto> executeTemplateAndWait(ExecutionRequestDto requestDto, UUID userId,
+                                                                          Duration wait) {
+        SubmittedExecution submitted = submitTemplate(requestDto, userId);
+        return awaitCompletion(submitted, wait, executionMapper::toDto);
+    }
+
+    /**
+     * Wait for a submitted execution, completing with the mapped final execution, or with the
+     * mapped execution as submitted once the wait expires or if it could not be run.
+     */
+    public <T> CompletableFuture<T> awaitCompletion(SubmittedExecution submitted, Duration wait,
+                                                    Function<BaseExecution, T> mapper) {
+        long waitMs = Math.min(Math.max(wait.toMillis(), 0), maxWaitMs);
+        BaseExecution pending = submitted.execution();
+        T pendingResult = mapper.apply(pending);
+        return submitted.completion()
+                .thenApply(mapper)
+                .exceptionally(ex -> pendingResult)
+                .completeOnTimeout(pendingResult, waitMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Validate and insert a pending execution, which is queued once the transaction commits.
+     */
+    @Transactional
+    public SubmittedExecution submitTemplate(ExecutionRequestDto requestDto, UUID userId) {
+        // Validate before anything is counted or persisted
         UUID templateId = requestDto.getTemplateId();
-        if (!templateRepository.existsById(templateId)) {
-            throw new ResourceNotFoundException("Template not found with ID: " + templateId);
-        }
+        BaseTemplate template = executionEngine.validate(templateId, requestDto.getParameters());
+
+        // Count against the user's quotas, rejecting with 429 when they are used up; given back on rollback
+        fairExecutionScheduler.admit(userId, 1);
 
         // Create an execution record
         BaseExecution execution = new BaseExecution();
@@ -58,14 +110,13 @@ public class ExecutionService {
         // Save the execution record
         BaseExecution savedExecution = executionRepository.save(execution);
 
-        // Start the execution asynchronously
-        executionEngine.execute(
-                savedExecution.getId(),
-                templateId,
-                requestDto.getParameters());
+        // Queued once the record is committed; it starts when it is the user's turn
+        CompletableFuture<BaseExecution> completion = new CompletableFuture<>();
+        eventPublisher.publishEvent(new ExecutionSubmittedEvent(
+                template, savedExecution, requestDto.getParameters(), requestDto.getPriority(), completion));
 
         // Return the pending execution
-        return executionMapper.toDto(savedExecution);
+        return new SubmittedExecution(savedExecution, completion);
     }
 
     @Transactional(readOnly = true)
@@ -77,6 +128,21 @@ public class ExecutionService {
         return executionMapper.toDto(execution);
     }
 
+    /**
+     * Stream the status transitions of an execution until it is final.
+     */
+    public SseEmitter streamExecutionEvents(UUID executionId) {
+        return executionEventBroadcaster.subscribeExecution(executionId,
+                () -> executionRepository.findEventById(executionId));
+    }
+
+    /**
+     * Stream the status transitions of all executions of the user.
+     */
+    public SseEmitter streamUserExecutionEvents(UUID userId) {
+        return executionEventBroadcaster.subscribeUser(userId);
+    }
+
     @Transactional(readOnly = true)
     public Page<ExecutionResponseDto> searchExecutions(ExecutionSearchFilterDto filter, Pageable pageable) {
         Specification<BaseExecution> spec = buildSpecification(filter);
@@ -86,7 +152,11 @@ public class ExecutionService {
         return executions.map(executionMapper::toDto);
     }
 
-    @Transactional
+    /**
+     * Cancel a pending or running execution. The cancellation is written with the same guard as
+     * every other transition, so it only applies while the execution is not final yet, including
+     * when its final state is still waiting to be written.
+     */
     @CacheEvict(value = "executions", key = "#executionId")
     public ExecutionResponseDto cancelExecution(UUID executionId) {
         BaseExecution execution = executionRepository.findById(executionId)
@@ -97,23 +167,18 @@ public class ExecutionService {
             throw new ExecutionException("Execution cannot be cancelled. Current status: " + execution.getStatus());
         }
 
-        // Try to cancel the execution
-        boolean cancelled = executionEngine.cancelExecution(executionId);
-
-        if (cancelled) {
-            // Mark as cancelled
-            execution.markAsCancelled();
-            BaseExecution updatedExecution = executionRepository.save(execution);
-            return executionMapper.toDto(updatedExecution);
-        } else {
-            // If cancellation failed but execution is still running, mark it as cancelled anyway
-            if (execution.getStatus() == ExecutionStatus.RUNNING || execution.getStatus() == ExecutionStatus.PENDING) {
-                execution.markAsCancelled();
-                BaseExecution updatedExecution = executionRepository.save(execution);
-                return executionMapper.toDto(updatedExecution);
-            }
-            throw new ExecutionException("Failed to cancel execution with ID: " + executionId);
+        // Abort the in-flight work, or drop the execution when it starts
+        boolean aborted = executionEngine.cancelExecution(executionId);
+        if (!aborted && execution.getStatus() == ExecutionStatus.RUNNING) {
+            // It has already finished, or runs on another instance
+            throw new ExecutionException("Execution is not running on this instance and cannot be cancelled: " + executionId);
         }
+
+        BaseExecution cancelled = cancelledCopy(execution);
+        if (!executionStateWriter.writeTerminal(cancelled).join()) {
+            throw new ExecutionException("Execution finished before it could be cancelled: " + executionId);
+        }
+        return executionMapper.toDto(cancelled);
     }
 
     @Transactional
@@ -142,6 +207,20 @@ public class ExecutionService {
         return count;
     }
 
+    private static BaseExecution cancelledCopy(BaseExecution execution) {
+        BaseExecution cancelled = new BaseExecution();
+        cancelled.setId(execution.getId());
+        cancelled.setTemplateId(execution.getTemplateId());
+        cancelled.setUserId(execution.getUserId());
+        cancelled.setBatchId(execution.getBatchId());
+        cancelled.setStatus(execution.getStatus());
+        cancelled.setStartTime(execution.getStartTime());
+        cancelled.setCreatedAt(execution.getCreatedAt());
+        cancelled.setCreatedBy(execution.getCreatedBy());
+        cancelled.markAsCancelled();
+        return cancelled;
+    }
+
     protected Specification<BaseExecution> buildSpecification(ExecutionSearchFilterDto filter) {
         Specification<BaseExecution> spec = Specification.where(null);
 
@@ -175,4 +254,10 @@ public class ExecutionService {
 
         return spec;
     }
+
+    /**
+     * A pending execution and the future completing once it has finished.
+     */
+    public record SubmittedExecution(BaseExecution execution, CompletableFuture<BaseExecution> completion) {
+    }
 }
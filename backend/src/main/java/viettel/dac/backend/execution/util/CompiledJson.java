@@ -0,0 +1,248 @@
+package viettel.dac.backend.execution.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A JSON value (maps, lists, strings and scalars) compiled once for ${param} substitution in its
+ * strings and object keys. Subtrees without placeholders are frozen and shared by every rendering;
+ * the rest is rebuilt as {@link LinkedHashMap}s and {@link ArrayList}s. Substituted strings stay strings.
+ * Constant subtrees are also serialized once, so {@link #write} can stream the value without
+ * building it. Unlike {@link #render}, writing does not merge object keys that render to the same name.
+ */
+public abstract class CompiledJson {
+
+    // Constants only hold maps, lists, strings, numbers and booleans, which need no configuration
+    private static final ObjectMapper CONSTANT_WRITER = new ObjectMapper();
+
+    public abstract Object render(Map<String, Object> parameters);
+
+    /**
+     * Write the rendered value to the generator without building it in memory.
+     */
+    public abstract void write(JsonGenerator generator, Map<String, Object> parameters) throws IOException;
+
+    /**
+     * Approximate length of the rendered JSON, for sizing output buffers.
+     */
+    public abstract int estimatedSize();
+
+    public abstract void collectParameterNames(Collection<String> names);
+
+    public boolean isConstant() {
+        return false;
+    }
+
+    public static CompiledJson compile(Object value) {
+        if (value instanceof String text) {
+            CompiledText compiled = CompiledText.compile(text);
+            return compiled.isConstant() ? new Constant(text) : new Text(compiled);
+        }
+
+        if (value instanceof Map<?, ?> map) {
+            CompiledText[] keys = new CompiledText[map.size()];
+            CompiledJson[] values = new CompiledJson[map.size()];
+            boolean constant = true;
+            int i = 0;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                keys[i] = CompiledText.compile(String.valueOf(entry.getKey()));
+                values[i] = compile(entry.getValue());
+                constant &= keys[i].isConstant() && values[i].isConstant();
+                i++;
+            }
+            return constant ? new Constant(freeze(value)) : new ObjectNode(keys, values);
+        }
+
+        if (value instanceof Collection<?> collection) {
+            CompiledJson[] items = new CompiledJson[collection.size()];
+            boolean constant = true;
+            int i = 0;
+            for (Object item : collection) {
+                items[i] = compile(item);
+                constant &= items[i].isConstant();
+                i++;
+            }
+            return constant ? new Constant(freeze(value)) : new ArrayNode(items);
+        }
+
+        // Numbers, booleans and null
+        return new Constant(value);
+    }
+
+    private static Object freeze(Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> frozen = new LinkedHashMap<>(map.size() * 4 / 3 + 1);
+            map.forEach((key, item) -> frozen.put(String.valueOf(key), freeze(item)));
+            return Collections.unmodifiableMap(frozen);
+        }
+        if (value instanceof Collection<?> collection) {
+            List<Object> frozen = new ArrayList<>(collection.size());
+            collection.forEach(item -> frozen.add(freeze(item)));
+            return Collections.unmodifiableList(frozen);
+        }
+        return value;
+    }
+
+    private static final class Constant extends CompiledJson {
+        private final Object value;
+        private final String json;
+
+        private Constant(Object value) {
+            this.value = value;
+            try {
+                this.json = CONSTANT_WRITER.writeValueAsString(value);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Value cannot be written as JSON: " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public Object render(Map<String, Object> parameters) {
+            return value;
+        }
+
+        @Override
+        public void write(JsonGenerator generator, Map<String, Object> parameters) throws IOException {
+            generator.writeRawValue(json);
+        }
+
+        @Override
+        public int estimatedSize() {
+            return json.length();
+        }
+
+        @Override
+        public void collectParameterNames(Collection<String> names) {
+        }
+
+        @Override
+        public boolean isConstant() {
+            return true;
+        }
+    }
+
+    private static final class Text extends CompiledJson {
+        private final CompiledText text;
+
+        private Text(CompiledText text) {
+            this.text = text;
+        }
+
+        @Override
+        public Object render(Map<String, Object> parameters) {
+            return text.render(parameters);
+        }
+
+        @Override
+        public void write(JsonGenerator generator, Map<String, Object> parameters) throws IOException {
+            generator.writeString(text.render(parameters));
+        }
+
+        @Override
+        public int estimatedSize() {
+            return text.getSource().length() + 2;
+        }
+
+        @Override
+        public void collectParameterNames(Collection<String> names) {
+            text.collectParameterNames(names);
+        }
+    }
+
+    private static final class ObjectNode extends CompiledJson {
+        private final CompiledText[] keys;
+        private final CompiledJson[] values;
+
+        private ObjectNode(CompiledText[] keys, CompiledJson[] values) {
+            this.keys = keys;
+            this.values = values;
+        }
+
+        @Override
+        public Object render(Map<String, Object> parameters) {
+            Map<String, Object> result = new LinkedHashMap<>(keys.length * 4 / 3 + 1);
+            for (int i = 0; i < keys.length; i++) {
+                result.put(keys[i].render(parameters), values[i].render(parameters));
+            }
+            return result;
+        }
+
+        @Override
+        public void write(JsonGenerator generator, Map<String, Object> parameters) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < keys.length; i++) {
+                generator.writeFieldName(keys[i].render(parameters));
+                values[i].write(generator, parameters);
+            }
+            generator.writeEndObject();
+        }
+
+        @Override
+        public int estimatedSize() {
+            int size = 2;
+            for (int i = 0; i < keys.length; i++) {
+                size += keys[i].getSource().length() + 4 + values[i].estimatedSize();
+            }
+            return size;
+        }
+
+        @Override
+        public void collectParameterNames(Collection<String> names) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i].collectParameterNames(names);
+                values[i].collectParameterNames(names);
+            }
+        }
+    }
+
+    private static final class ArrayNode extends CompiledJson {
+        private final CompiledJson[] items;
+
+        private ArrayNode(CompiledJson[] items) {
+            this.items = items;
+        }
+
+        @Override
+        public Object render(Map<String, Object> parameters) {
+            List<Object> result = new ArrayList<>(items.length);
+            for (CompiledJson item : items) {
+                result.add(item.render(parameters));
+            }
+            return result;
+        }
+
+        @Override
+        public void write(JsonGenerator generator, Map<String, Object> parameters) throws IOException {
+            generator.writeStartArray();
+            for (CompiledJson item : items) {
+                item.write(generator, parameters);
+            }
+            generator.writeEndArray();
+        }
+
+        @Override
+        public int estimatedSize() {
+            int size = 2;
+            for (CompiledJson item : items) {
+                size += item.estimatedSize() + 1;
+            }
+            return size;
+        }
+
+        @Override
+        public void collectParameterNames(Collection<String> names) {
+            for (CompiledJson item : items) {
+                item.collectParameterNames(names);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package viettel.dac.backend.execution.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A string compiled once for ${param} substitution: literal segments interleaved with parameter slots.
+ * Rendering is a single pass into a {@link StringBuilder}; placeholders whose parameter is missing
+ * or null are left unchanged. {@code ${}} is not a placeholder.
+ */
+public final class CompiledText {
+
+    private final String source;
+    // One more literal than slots: literal, slot, literal, ..., literal
+    private final String[] literals;
+    private final String[] slots;
+    private final int literalLength;
+
+    private CompiledText(String source, String[] literals, String[] slots) {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static CompiledText compile(String text) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+
+        int literalStart = 0;
+        int from = 0;
+        while (true) {
+            int open = text.indexOf("${", from);
+            if (open < 0) {
+                break;
+            }
+            int close = text.indexOf('}', open + 2);
+            if (close < 0) {
+                break;
+            }
+            if (close == open + 2) {
+                from = open + 1;
+                continue;
+            }
+
+            literals.add(text.substring(literalStart, open));
+            slots.add(text.substring(open + 2, close));
+            literalStart = close + 1;
+            from = literalStart;
+        }
+        literals.add(text.substring(literalStart));
+
+        return new CompiledText(text, literals.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    public String render(Map<String, Object> parameters) {
+        if (slots.length == 0 || parameters == null || parameters.isEmpty()) {
+            return source;
+        }
+
+        StringBuilder result = new StringBuilder(literalLength + 16 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            result.append(literals[i]);
+            Object value = parameters.get(slots[i]);
+            if (value == null) {
+                result.append("${").append(slots[i]).append('}');
+            } else {
+                result.append(value);
+            }
+        }
+        result.append(literals[slots.length]);
+        return result.toString();
+    }
+
+    public boolean isConstant() {
+        return slots.length == 0;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public void collectParameterNames(Collection<String> names) {
+        names.addAll(List.of(slots));
+    }
+}
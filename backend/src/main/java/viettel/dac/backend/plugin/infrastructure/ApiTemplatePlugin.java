@@ -1,5 +1,6 @@
 package viettel.dac.backend.plugin.infrastructure;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 import viettel.dac.backend.execution.engine.ExecutionStrategy;
@@ -8,6 +9,9 @@ import viettel.dac.backend.plugin.core.TemplatePlugin;
 import viettel.dac.backend.template.dto.TemplateCreateDto;
 import viettel.dac.backend.template.entity.ApiTemplate;
 import viettel.dac.backend.template.entity.BaseTemplate;
+import viettel.dac.backend.template.entity.CachePolicy;
+import viettel.dac.backend.template.entity.HedgePolicy;
+import viettel.dac.backend.template.entity.RetryPolicy;
 import viettel.dac.backend.template.enums.HttpMethod;
 import viettel.dac.backend.template.enums.TemplateType;
 import viettel.dac.backend.template.repository.ApiTemplateRepository;
@@ -28,6 +32,7 @@ public class ApiTemplatePlugin implements TemplatePlugin {
 
     private final ApiTemplateRepository apiTemplateRepository;
     private final ExecutionStrategy apiExecutionStrategy;
+    private final ObjectMapper objectMapper;
 
     @Override
     public PluginDescriptor getDescriptor() {
@@ -53,13 +58,16 @@ public class ApiTemplatePlugin implements TemplatePlugin {
         }
 
         // Validate HTTP method
+        HttpMethod httpMethod;
         try {
             String httpMethodStr = (String) templateData.get("httpMethod");
-            HttpMethod.valueOf(httpMethodStr);
-            return true;
+            httpMethod = HttpMethod.valueOf(httpMethodStr);
         } catch (Exception e) {
             return false;
         }
+
+        // Only idempotent requests may be shared by concurrent executions
+        return !Boolean.TRUE.equals(templateData.get("coalesceRequests")) || RetryPolicy.isIdempotent(httpMethod);
     }
 
     @Override
@@ -102,6 +110,22 @@ public class ApiTemplatePlugin implements TemplatePlugin {
             properties.put("followRedirects", templateData.get("followRedirects"));
         }
 
+        if (templateData.containsKey("retryPolicy")) {
+            properties.put("retryPolicy", templateData.get("retryPolicy"));
+        }
+
+        if (templateData.containsKey("hedgePolicy")) {
+            properties.put("hedgePolicy", templateData.get("hedgePolicy"));
+        }
+
+        if (templateData.containsKey("cachePolicy")) {
+            properties.put("cachePolicy", templateData.get("cachePolicy"));
+        }
+
+        if (templateData.containsKey("coalesceRequests")) {
+            properties.put("coalesceRequests", templateData.get("coalesceRequests"));
+        }
+
         dto.setProperties(properties);
 
         // Set tags if provided
@@ -146,6 +170,22 @@ public class ApiTemplatePlugin implements TemplatePlugin {
                 apiTemplate.setFollowRedirects((Boolean) templateData.get("followRedirects"));
             }
 
+            if (templateData.containsKey("retryPolicy")) {
+                apiTemplate.setRetryPolicy(objectMapper.convertValue(templateData.get("retryPolicy"), RetryPolicy.class));
+            }
+
+            if (templateData.containsKey("hedgePolicy")) {
+                apiTemplate.setHedgePolicy(objectMapper.convertValue(templateData.get("hedgePolicy"), HedgePolicy.class));
+            }
+
+            if (templateData.containsKey("cachePolicy")) {
+                apiTemplate.setCachePolicy(objectMapper.convertValue(templateData.get("cachePolicy"), CachePolicy.class));
+            }
+
+            if (templateData.containsKey("coalesceRequests")) {
+                apiTemplate.setCoalesceRequests(Boolean.TRUE.equals(templateData.get("coalesceRequests")));
+            }
+
             apiTemplate.setId(template.getId());
             apiTemplate.setName(template.getName());
             apiTemplate.setDescription(template.getDescription());
@@ -0,0 +1,127 @@
+package viettel.dac.backend.plugin.infrastructure;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import viettel.dac.backend.execution.engine.ExecutionStrategy;
+import viettel.dac.backend.execution.engine.IntegrationGraph;
+import viettel.dac.backend.plugin.PluginDescriptor;
+import viettel.dac.backend.plugin.core.TemplatePlugin;
+import viettel.dac.backend.template.dto.TemplateCreateDto;
+import viettel.dac.backend.template.entity.BaseTemplate;
+import viettel.dac.backend.template.entity.IntegrationStep;
+import viettel.dac.backend.template.entity.IntegrationTemplate;
+import viettel.dac.backend.template.enums.TemplateType;
+import viettel.dac.backend.template.repository.IntegrationTemplateRepository;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Integration implementation of the template plugin.
+ * Specializes in handling INTEGRATION templates, which chain other templates as a DAG of steps.
+ */
+@Component
+@RequiredArgsConstructor
+public class IntegrationTemplatePlugin implements TemplatePlugin {
+
+    private static final TypeReference<List<IntegrationStep>> STEP_LIST = new TypeReference<>() {
+    };
+
+    private final IntegrationTemplateRepository integrationTemplateRepository;
+    private final ExecutionStrategy integrationExecutionStrategy;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public PluginDescriptor getDescriptor() {
+        return PluginDescriptor.builder()
+                .type("INTEGRATION")
+                .name("Integration Template Plugin")
+                .description("Plugin for creating and executing workflows that chain other templates")
+                .version("1.0.0")
+                .isDefault(false)
+                .build();
+    }
+
+    @Override
+    public boolean validateTemplate(Map<String, Object> templateData) {
+        if (templateData == null) {
+            return false;
+        }
+
+        // Validate required fields
+        if (!templateData.containsKey("name") || !templateData.containsKey("steps")) {
+            return false;
+        }
+
+        // Validate the step graph
+        try {
+            IntegrationGraph.of(toSteps(templateData));
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    @Override
+    public TemplateCreateDto toTemplateCreateDto(Map<String, Object> templateData) {
+        TemplateCreateDto dto = TemplateCreateDto.builder()
+                .name((String) templateData.get("name"))
+                .description(templateData.containsKey("description")
+                        ? (String) templateData.get("description") : null)
+                .version(templateData.containsKey("version")
+                        ? (String) templateData.get("version") : "1.0.0")
+                .templateType(TemplateType.INTEGRATION)
+                .build();
+
+        // Create properties map with integration-specific fields
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("steps", templateData.get("steps"));
+        dto.setProperties(properties);
+
+        // Set tags if provided
+        if (templateData.containsKey("tags")) {
+            dto.setTags(new HashSet<>((List<String>) templateData.get("tags")));
+        }
+
+        return dto;
+    }
+
+    @Override
+    public BaseTemplate processTemplate(BaseTemplate template, Map<String, Object> templateData, UUID userId) {
+        // Create Integration Template if it doesn't exist
+        if (!(template instanceof IntegrationTemplate)) {
+            IntegrationTemplate integrationTemplate = IntegrationTemplate.builder()
+                    .steps(toSteps(templateData))
+                    .build();
+
+            integrationTemplate.setId(template.getId());
+            integrationTemplate.setName(template.getName());
+            integrationTemplate.setDescription(template.getDescription());
+            integrationTemplate.setVersion(template.getVersion());
+            integrationTemplate.setProperties(template.getProperties());
+            integrationTemplate.setActive(template.isActive());
+            integrationTemplate.setCreatedBy(template.getCreatedBy());
+            integrationTemplate.setCreatedAt(template.getCreatedAt());
+            integrationTemplate.setLastModifiedBy(template.getLastModifiedBy());
+            integrationTemplate.setLastModifiedAt(template.getLastModifiedAt());
+
+            return integrationTemplateRepository.save(integrationTemplate);
+        }
+
+        return template;
+    }
+
+    @Override
+    public ExecutionStrategy getExecutionStrategy() {
+        return integrationExecutionStrategy;
+    }
+
+    private List<IntegrationStep> toSteps(Map<String, Object> templateData) {
+        return objectMapper.convertValue(templateData.get("steps"), STEP_LIST);
+    }
+}
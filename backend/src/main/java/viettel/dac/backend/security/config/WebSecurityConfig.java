@@ -1,5 +1,6 @@
 package viettel.dac.backend.security.config;
 
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -58,7 +59,9 @@ public class WebSecurityConfig {
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth ->
-                        auth.requestMatchers("/api/v1/auth/**", "/api/swagger-ui/**", "/api/v3/api-docs/**", "/api/actuator/**").permitAll()
+                        // Async dispatches of event streams were authorized when the stream was opened
+                        auth.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                                .requestMatchers("/api/v1/auth/**", "/api/swagger-ui/**", "/api/v3/api-docs/**", "/api/actuator/**").permitAll()
                                 .requestMatchers("/api/v1/public/**").permitAll()
                                 .anyRequest().authenticated()
                 );
@@ -1,5 +1,6 @@
 package viettel.dac.backend.template.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -8,6 +9,9 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import viettel.dac.backend.template.entity.CachePolicy;
+import viettel.dac.backend.template.entity.HedgePolicy;
+import viettel.dac.backend.template.entity.RetryPolicy;
 import viettel.dac.backend.template.enums.HttpMethod;
 
 import java.util.Map;
@@ -32,4 +36,15 @@ public class ApiTemplateCreateDto extends BaseTemplateDto {
     private String contentType;
     private Integer timeout;
     private Boolean followRedirects = true;
+
+    @Valid
+    private RetryPolicy retryPolicy;
+
+    @Valid
+    private HedgePolicy hedgePolicy;
+
+    @Valid
+    private CachePolicy cachePolicy;
+
+    private Boolean coalesceRequests;
 }
\ No newline at end of file
@@ -5,6 +5,9 @@ import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import viettel.dac.backend.template.entity.CachePolicy;
+import viettel.dac.backend.template.entity.HedgePolicy;
+import viettel.dac.backend.template.entity.RetryPolicy;
 import viettel.dac.backend.template.enums.HttpMethod;
 import viettel.dac.backend.template.enums.TemplateType;
 
@@ -36,6 +39,10 @@ public class ApiTemplateResponseDto extends BaseTemplateDto {
     private String contentType;
     private Integer timeout;
     private Boolean followRedirects;
+    private RetryPolicy retryPolicy;
+    private HedgePolicy hedgePolicy;
+    private CachePolicy cachePolicy;
+    private Boolean coalesceRequests;
 
     // Automatically set API type
     private final TemplateType templateType = TemplateType.API;
@@ -1,11 +1,15 @@
 package viettel.dac.backend.template.dto;
 
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import viettel.dac.backend.template.entity.CachePolicy;
+import viettel.dac.backend.template.entity.HedgePolicy;
+import viettel.dac.backend.template.entity.RetryPolicy;
 import viettel.dac.backend.template.enums.HttpMethod;
 
 import java.util.Map;
@@ -27,5 +31,16 @@ public class ApiTemplateUpdateDto extends BaseTemplateDto {
     private String contentType;
     private Integer timeout;
     private Boolean followRedirects;
+
+    @Valid
+    private RetryPolicy retryPolicy;
+
+    @Valid
+    private HedgePolicy hedgePolicy;
+
+    @Valid
+    private CachePolicy cachePolicy;
+
+    private Boolean coalesceRequests;
     private Boolean active;
 }
\ No newline at end of file
@@ -54,6 +54,30 @@ public class ApiTemplate extends BaseTemplate {
     @Column(name = "follow_redirects")
     private Boolean followRedirects = true;
 
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "retry_policy", columnDefinition = "jsonb")
+    private RetryPolicy retryPolicy;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "hedge_policy", columnDefinition = "jsonb")
+    private HedgePolicy hedgePolicy;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "cache_policy", columnDefinition = "jsonb")
+    private CachePolicy cachePolicy;
+
+    // Only for idempotent calls: identical concurrent executions share one upstream request
+    @Column(name = "coalesce_requests", nullable = false)
+    private boolean coalesceRequests;
+
+    /**
+     * Whether identical concurrent executions may share one upstream request; requests with a
+     * non-idempotent method are always sent once per execution.
+     */
+    public boolean coalescesRequests() {
+        return coalesceRequests && RetryPolicy.isIdempotent(httpMethod);
+    }
+
     @PrePersist
     public void prePersist() {
         if (this.getTemplateType() == null) {
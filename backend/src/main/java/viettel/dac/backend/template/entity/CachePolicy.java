@@ -0,0 +1,27 @@
+package viettel.dac.backend.template.entity;
+
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response caching policy of a GET API template, stored in the cache_policy column.
+ * Responses are cached as the upstream allows through Cache-Control and Expires; {@code ttlSeconds}
+ * replaces the freshness lifetime the upstream announced, but never makes a no-store or private
+ * response cacheable.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CachePolicy {
+
+    @Builder.Default
+    private boolean enabled = true;
+
+    // Freshness lifetime overriding the response headers; when null the headers decide
+    @Min(value = 0, message = "Cache TTL cannot be negative")
+    private Long ttlSeconds;
+}
@@ -0,0 +1,51 @@
+package viettel.dac.backend.template.entity;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.backend.template.enums.HttpMethod;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Hedging policy of an API template, stored in the hedge_policy column.
+ * When an attempt has not answered after the hedge delay, another request is sent and the first
+ * response wins. Without a fixed {@code delayMs} the delay is the observed p95 latency of the template.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HedgePolicy {
+
+    private static final Set<HttpMethod> SAFE_METHODS = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS);
+
+    @Builder.Default
+    private boolean enabled = false;
+
+    @Min(value = 1, message = "Max hedges must be at least 1")
+    @Max(value = 3, message = "Max hedges cannot exceed 3")
+    @Builder.Default
+    private int maxHedges = 1;
+
+    // Fixed hedge delay; when null the observed p95 latency is used
+    @Min(value = 1, message = "Hedge delay must be positive")
+    private Long delayMs;
+
+    // Lower bound for the observed delay, so fast templates are not hedged on noise
+    @Min(value = 0, message = "Min hedge delay cannot be negative")
+    @Builder.Default
+    private long minDelayMs = 50;
+
+    // Other methods are only hedged when the upstream is known to be safe to call twice
+    @Builder.Default
+    private boolean hedgeUnsafeMethods = false;
+
+    public boolean allowsHedging(HttpMethod httpMethod) {
+        return enabled && (hedgeUnsafeMethods || SAFE_METHODS.contains(httpMethod));
+    }
+}
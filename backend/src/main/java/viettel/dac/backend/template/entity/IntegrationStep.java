@@ -0,0 +1,47 @@
+package viettel.dac.backend.template.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * One step of an INTEGRATION template: an invocation of another template.
+ * Parameters are the static values merged with values bound from the integration input
+ * or from the output of an upstream step.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class IntegrationStep {
+
+    private String id;
+
+    private UUID templateId;
+
+    @Builder.Default
+    private List<String> dependsOn = new ArrayList<>();
+
+    private Map<String, Object> parameters;
+
+    private Map<String, StepBinding> bindings;
+
+    /**
+     * Source of a bound parameter. The JSON pointer is applied to the output of {@code step},
+     * or to the integration input parameters when no step is given.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StepBinding {
+        private String step;
+        private String pointer;
+    }
+}
@@ -0,0 +1,38 @@
+package viettel.dac.backend.template.entity;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.NoArgsConstructor;
+import lombok.AllArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import viettel.dac.backend.template.enums.TemplateType;
+
+
+import java.util.List;
+
+@Entity
+@Table(name = "integration_templates")
+@DiscriminatorValue("INTEGRATION")
+@PrimaryKeyJoinColumn(name = "template_id")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+public class IntegrationTemplate extends BaseTemplate {
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "steps", columnDefinition = "jsonb", nullable = false)
+    private List<IntegrationStep> steps;
+
+    @PrePersist
+    public void prePersist() {
+        if (this.getTemplateType() == null) {
+            this.setTemplateType(TemplateType.INTEGRATION);
+        }
+    }
+}
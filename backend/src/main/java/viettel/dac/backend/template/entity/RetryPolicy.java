@@ -0,0 +1,83 @@
+package viettel.dac.backend.template.entity;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import viettel.dac.backend.template.enums.HttpMethod;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Retry policy of an API template, stored in the retry_policy column.
+ * Backoff grows exponentially from {@code initialBackoffMs} and is randomized by
+ * {@code jitter}, a fraction of the computed delay.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetryPolicy {
+
+    private static final Set<HttpMethod> IDEMPOTENT_METHODS = EnumSet.of(
+            HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.PUT, HttpMethod.DELETE);
+
+    @Min(value = 1, message = "Max attempts must be at least 1")
+    @Max(value = 10, message = "Max attempts cannot exceed 10")
+    @Builder.Default
+    private int maxAttempts = 1;
+
+    @Min(value = 0, message = "Initial backoff cannot be negative")
+    @Builder.Default
+    private long initialBackoffMs = 200;
+
+    @DecimalMin(value = "1.0", message = "Backoff multiplier must be at least 1")
+    @Builder.Default
+    private double multiplier = 2.0;
+
+    @Min(value = 0, message = "Max backoff cannot be negative")
+    @Builder.Default
+    private long maxBackoffMs = 10000;
+
+    @DecimalMin(value = "0.0", message = "Jitter cannot be negative")
+    @DecimalMax(value = "1.0", message = "Jitter cannot exceed 1")
+    @Builder.Default
+    private double jitter = 0.5;
+
+    @Builder.Default
+    private Set<Integer> retryableStatusCodes = Set.of(502, 503, 504);
+
+    @Builder.Default
+    private boolean retryOnConnectionError = true;
+
+    @Builder.Default
+    private boolean retryOnTimeout = false;
+
+    // POST and PATCH are only retried when the upstream is known to be idempotent
+    @Builder.Default
+    private boolean retryNonIdempotent = false;
+
+    public boolean allowsRetry(HttpMethod httpMethod) {
+        return maxAttempts > 1 && (retryNonIdempotent || isIdempotent(httpMethod));
+    }
+
+    /**
+     * Whether repeating or sharing a request with this method has the same effect as sending it once.
+     */
+    public static boolean isIdempotent(HttpMethod httpMethod) {
+        return IDEMPOTENT_METHODS.contains(httpMethod);
+    }
+
+    /**
+     * Delay before the given retry (1 for the first retry), without jitter.
+     */
+    public long backoffMs(int retry) {
+        double backoff = initialBackoffMs * Math.pow(multiplier, retry - 1);
+        return (long) Math.min(backoff, maxBackoffMs);
+    }
+}
@@ -0,0 +1,12 @@
+package viettel.dac.backend.template.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import viettel.dac.backend.template.entity.IntegrationTemplate;
+
+
+import java.util.UUID;
+
+@Repository
+public interface IntegrationTemplateRepository extends JpaRepository<IntegrationTemplate, UUID> {
+}
@@ -10,11 +10,14 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import viettel.dac.backend.common.exception.ResourceNotFoundException;
+import viettel.dac.backend.common.exception.ValidationException;
+import viettel.dac.backend.execution.engine.TemplateSnapshotCache;
 import viettel.dac.backend.template.dto.ApiTemplateCreateDto;
 import viettel.dac.backend.template.dto.ApiTemplateResponseDto;
 import viettel.dac.backend.template.dto.ApiTemplateUpdateDto;
 import viettel.dac.backend.template.dto.TemplateUpdateDto;
 import viettel.dac.backend.template.entity.ApiTemplate;
+import viettel.dac.backend.template.entity.RetryPolicy;
 import viettel.dac.backend.template.enums.HttpMethod;
 import viettel.dac.backend.template.mapper.ApiTemplateMapper;
 import viettel.dac.backend.template.mapper.TemplateMapper;
@@ -36,11 +39,13 @@ public class ApiTemplateService {
     private final TemplateService templateService;
     private final ApiTemplateMapper apiTemplateMapper;
     private final TemplateMapper templateMapper;
+    private final TemplateSnapshotCache templateSnapshotCache;
 
     @Transactional
     public ApiTemplateResponseDto createApiTemplate(ApiTemplateCreateDto createDto, UUID userId) {
         // Create new API template directly
         ApiTemplate apiTemplate = apiTemplateMapper.createApiTemplate(createDto);
+        validateCoalescing(apiTemplate);
 
         // Set audit fields
         apiTemplate.setCreatedBy(userId);
@@ -105,10 +110,12 @@ public class ApiTemplateService {
 
         // Update API-specific fields
         apiTemplateMapper.updateApiTemplate(updateDto, apiTemplate);
+        validateCoalescing(apiTemplate);
         apiTemplate.setLastModifiedBy(userId);
 
         // Save the updated API template
         apiTemplate = apiTemplateRepository.save(apiTemplate);
+        templateSnapshotCache.invalidate(id);
 
         // Create a new version if version was updated
         if (updateDto.getVersion() != null && !updateDto.getVersion().equals(apiTemplate.getVersion())) {
@@ -151,4 +158,15 @@ public class ApiTemplateService {
 
         return new PageImpl<>(dtos, pageable, templates.size());
     }
+
+    /**
+     * Executions that share one upstream request must not repeat its side effects, so only
+     * idempotent methods may coalesce.
+     */
+    private static void validateCoalescing(ApiTemplate apiTemplate) {
+        if (apiTemplate.isCoalesceRequests() && !RetryPolicy.isIdempotent(apiTemplate.getHttpMethod())) {
+            throw new ValidationException("Request coalescing is only allowed for idempotent methods, not "
+                    + apiTemplate.getHttpMethod());
+        }
+    }
 }
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import viettel.dac.backend.common.exception.ResourceAlreadyExistsException;
 import viettel.dac.backend.common.exception.ResourceNotFoundException;
+import viettel.dac.backend.execution.engine.TemplateSnapshotCache;
 import viettel.dac.backend.template.dto.TemplateCreateDto;
 import viettel.dac.backend.template.dto.TemplateResponseDto;
 import viettel.dac.backend.template.dto.TemplateUpdateDto;
@@ -39,6 +40,7 @@ public class TemplateService {
     private final TemplateTagRepository templateTagRepository;
     private final TemplateVersionRepository templateVersionRepository;
     private final TemplateMapper templateMapper;
+    private final TemplateSnapshotCache templateSnapshotCache;
 
     @Transactional
     public TemplateResponseDto createTemplate(TemplateCreateDto createDto, UUID userId) {
@@ -149,6 +151,7 @@ public class TemplateService {
 
         // Save the updated template
         BaseTemplate updatedTemplate = templateRepository.save(template);
+        templateSnapshotCache.invalidate(id);
 
         // Create a new version if the version number was updated
         if (updateDto.getVersion() != null && !updateDto.getVersion().equals(template.getVersion())) {
@@ -165,6 +168,7 @@ public class TemplateService {
         BaseTemplate template = findTemplateById(id);
         template.setActive(false);
         templateRepository.save(template);
+        templateSnapshotCache.invalidate(id);
     }
 
     @Transactional(readOnly = true)
@@ -0,0 +1,7 @@
+-- V1.10.0__request_coalescing.sql
+-- Identical concurrent executions of opted-in API templates share one upstream request
+
+ALTER TABLE api_templates ADD COLUMN coalesce_requests BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Execution that made the shared upstream request, set on the executions that joined it
+ALTER TABLE api_executions ADD COLUMN coalesced_with UUID;
@@ -0,0 +1,9 @@
+-- V1.10.0__response_body_node.sql
+-- Spilled response bodies are on the disk of the instance that received them
+
+ALTER TABLE api_executions
+    ADD COLUMN response_body_node VARCHAR(255);
+
+-- Stored bodies are deleted once no execution refers to them
+CREATE INDEX idx_api_executions_response_body_ref ON api_executions(response_body_ref)
+    WHERE response_body_ref IS NOT NULL;
@@ -0,0 +1,4 @@
+-- V1.11.0__api_template_cache_policy.sql
+-- Per-template response caching policy for API templates
+
+ALTER TABLE api_templates ADD COLUMN cache_policy JSONB;
@@ -0,0 +1,22 @@
+-- V1.3.0__execution_batches.sql
+-- Batch executions: one template run with many parameter sets
+
+CREATE TABLE execution_batches (
+                                   id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+                                   template_id UUID NOT NULL REFERENCES templates(id),
+                                   user_id UUID,
+                                   total_count INTEGER NOT NULL,
+                                   parallelism INTEGER NOT NULL,
+                                   created_by UUID NOT NULL,
+                                   created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+                                   last_modified_by UUID,
+                                   last_modified_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Link executions to the batch that created them
+ALTER TABLE executions ADD COLUMN batch_id UUID REFERENCES execution_batches(id) ON DELETE CASCADE;
+
+-- Create indexes
+CREATE INDEX idx_execution_batches_template_id ON execution_batches(template_id);
+CREATE INDEX idx_execution_batches_user_id ON execution_batches(user_id);
+CREATE INDEX idx_executions_batch_id ON executions(batch_id) WHERE batch_id IS NOT NULL;
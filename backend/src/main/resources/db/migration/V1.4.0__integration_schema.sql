@@ -0,0 +1,14 @@
+-- V1.4.0__integration_schema.sql
+-- INTEGRATION templates: a DAG of template invocations
+
+-- Create integration templates table
+CREATE TABLE integration_templates (
+                                       template_id UUID PRIMARY KEY REFERENCES templates(id) ON DELETE CASCADE,
+                                       steps JSONB NOT NULL
+);
+
+-- Create integration executions table with the status of each step
+CREATE TABLE integration_executions (
+                                        execution_id UUID PRIMARY KEY REFERENCES executions(id) ON DELETE CASCADE,
+                                        step_states JSONB NOT NULL DEFAULT '{}'::jsonb
+);
@@ -0,0 +1,7 @@
+-- V1.5.0__response_body_store.sql
+-- Large response bodies are kept in the response body store and referenced from the execution
+
+ALTER TABLE api_executions
+    ADD COLUMN response_body_ref VARCHAR(100),
+    ADD COLUMN response_body_size BIGINT,
+    ADD COLUMN response_body_preview TEXT;
@@ -0,0 +1,4 @@
+-- V1.6.0__api_template_retry_policy.sql
+-- Per-template retry policy for API templates
+
+ALTER TABLE api_templates ADD COLUMN retry_policy JSONB;
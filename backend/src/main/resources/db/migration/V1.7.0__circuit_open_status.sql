@@ -0,0 +1,4 @@
+-- V1.7.0__circuit_open_status.sql
+-- Executions rejected because the circuit breaker of the upstream host is open
+
+ALTER TYPE execution_status ADD VALUE IF NOT EXISTS 'CIRCUIT_OPEN';
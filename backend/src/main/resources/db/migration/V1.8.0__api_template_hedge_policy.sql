@@ -0,0 +1,4 @@
+-- V1.8.0__api_template_hedge_policy.sql
+-- Per-template hedging policy for API templates
+
+ALTER TABLE api_templates ADD COLUMN hedge_policy JSONB;
@@ -0,0 +1,33 @@
+-- V1.9.0__execution_schedules.sql
+-- Recurring template executions, each owned by one instance through a lease
+
+CREATE TABLE execution_schedules (
+                                     id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+                                     template_id UUID NOT NULL REFERENCES templates(id) ON DELETE CASCADE,
+                                     user_id UUID NOT NULL,
+                                     name VARCHAR(255) NOT NULL,
+                                     cron_expression VARCHAR(255),
+                                     time_zone VARCHAR(64) NOT NULL DEFAULT 'UTC',
+                                     fixed_rate_ms BIGINT,
+                                     parameters JSONB,
+                                     priority VARCHAR(32) NOT NULL DEFAULT 'NORMAL',
+                                     enabled BOOLEAN NOT NULL DEFAULT TRUE,
+                                     next_run_at TIMESTAMP WITH TIME ZONE,
+                                     last_run_at TIMESTAMP WITH TIME ZONE,
+                                     last_execution_id UUID,
+                                     lease_owner VARCHAR(255),
+                                     lease_expires_at TIMESTAMP WITH TIME ZONE,
+                                     created_by UUID NOT NULL,
+                                     created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+                                     last_modified_by UUID,
+                                     last_modified_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+                                     CONSTRAINT chk_execution_schedules_spec CHECK (
+                                         (cron_expression IS NOT NULL AND fixed_rate_ms IS NULL) OR
+                                         (cron_expression IS NULL AND fixed_rate_ms > 0)
+                                     )
+);
+
+-- Create indexes
+CREATE INDEX idx_execution_schedules_template_id ON execution_schedules(template_id);
+CREATE INDEX idx_execution_schedules_user_id ON execution_schedules(user_id);
+CREATE INDEX idx_execution_schedules_lease ON execution_schedules(lease_expires_at) WHERE enabled;
@@ -0,0 +1,13 @@
+-- Increments a counter unless that would take it above a limit.
+-- KEYS[1]: counter key
+-- ARGV[1]: increment, ARGV[2]: limit, ARGV[3]: expiry in seconds, refreshed on every increment
+-- Returns the new value, or -1 if the limit would be exceeded.
+local current = tonumber(redis.call('GET', KEYS[1]) or '0')
+local increment = tonumber(ARGV[1])
+if current + increment > tonumber(ARGV[2]) then
+    return -1
+end
+
+local value = redis.call('INCRBY', KEYS[1], increment)
+redis.call('EXPIRE', KEYS[1], tonumber(ARGV[3]))
+return value
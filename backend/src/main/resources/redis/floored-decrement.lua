@@ -0,0 +1,11 @@
+-- Decrements a counter without taking it below zero, keeping its expiry.
+-- KEYS[1]: counter key
+-- ARGV[1]: decrement
+-- Returns the new value, or -1 if the counter does not exist, in which case nothing is created.
+local current = redis.call('GET', KEYS[1])
+if not current then
+    return -1
+end
+
+local decrement = math.min(tonumber(current), tonumber(ARGV[1]))
+return redis.call('DECRBY', KEYS[1], decrement)
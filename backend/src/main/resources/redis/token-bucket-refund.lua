@@ -0,0 +1,11 @@
+-- Returns one reserved token to a token bucket stored in a hash, up to the burst.
+-- KEYS[1]: bucket key
+-- ARGV[1]: burst
+-- Returns 1 if the token was returned, or 0 if the bucket no longer exists, in which case nothing is created.
+if redis.call('EXISTS', KEYS[1]) == 0 then
+    return 0
+end
+
+local tokens = tonumber(redis.call('HGET', KEYS[1], 'tokens')) or 0
+redis.call('HSET', KEYS[1], 'tokens', tostring(math.min(tonumber(ARGV[1]), tokens + 1)))
+return 1
@@ -0,0 +1,28 @@
+-- Reserves one token from a token bucket stored in a hash.
+-- KEYS[1]: bucket key
+-- ARGV[1]: refill rate in tokens per second, ARGV[2]: burst, ARGV[3]: max wait in milliseconds
+-- Returns the milliseconds to wait before the call may be sent, or -1 if that exceeds the max wait.
+-- The bucket may go negative, so later callers wait behind earlier reservations.
+local rate = tonumber(ARGV[1])
+local burst = tonumber(ARGV[2])
+local max_wait = tonumber(ARGV[3])
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(state[1]) or burst
+local ts = tonumber(state[2]) or now
+tokens = math.min(burst, tokens + math.max(0, now - ts) * rate / 1000)
+
+local wait = 0
+if tokens < 1 then
+    wait = math.ceil((1 - tokens) * 1000 / rate)
+    if wait > max_wait then
+        return -1
+    end
+end
+
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens - 1), 'ts', now)
+redis.call('PEXPIRE', KEYS[1], math.ceil(burst * 1000 / rate) + max_wait + 1000)
+return wait
@@ -0,0 +1,88 @@
+package viettel.dac.backend.execution.engine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.scheduling.TaskScheduler;
+import viettel.dac.backend.execution.http.ApiHttpResponse;
+import viettel.dac.backend.template.entity.HedgePolicy;
+import viettel.dac.backend.template.enums.HttpMethod;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ApiHedgingExecutorTest {
+
+    private final UUID templateId = UUID.randomUUID();
+    private final TaskScheduler scheduler = mock(TaskScheduler.class);
+    private final Deque<Runnable> scheduledHedges = new ArrayDeque<>();
+    private final Deque<Instant> hedgeTimes = new ArrayDeque<>();
+    private ApiHedgingExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        when(scheduler.schedule(any(Runnable.class), any(Instant.class))).thenAnswer(invocation -> {
+            scheduledHedges.add(invocation.getArgument(0));
+            hedgeTimes.add(invocation.getArgument(1));
+            return mock(ScheduledFuture.class);
+        });
+        executor = new ApiHedgingExecutor(scheduler, new SimpleMeterRegistry(), 1, 100);
+    }
+
+    @Test
+    void hedgesWithTheObservedLatencyOfPrimaryRequests() {
+        HedgePolicy policy = HedgePolicy.builder().enabled(true).minDelayMs(0).build();
+        for (int i = 0; i < 20; i++) {
+            CompletableFuture<ApiHttpResponse> result = executor.execute(templateId, policy, HttpMethod.GET,
+                    () -> CompletableFuture.completedFuture(response(300)));
+            assertThat(result.join().getResponseTimeMs()).isEqualTo(300);
+        }
+        hedgeTimes.clear();
+
+        Instant before = Instant.now();
+        executor.execute(templateId, policy, HttpMethod.GET, CompletableFuture::new);
+
+        assertThat(Duration.between(before, hedgeTimes.remove()).toMillis()).isGreaterThanOrEqualTo(300);
+    }
+
+    @Test
+    void keepsSlowPrimaryRequestsThatAHedgeBeat() throws InterruptedException {
+        HedgePolicy fixedDelay = HedgePolicy.builder().enabled(true).delayMs(1L).build();
+        for (int i = 0; i < 20; i++) {
+            Deque<CompletableFuture<ApiHttpResponse>> requests = new ArrayDeque<>();
+            CompletableFuture<ApiHttpResponse> result = executor.execute(templateId, fixedDelay, HttpMethod.GET, () -> {
+                CompletableFuture<ApiHttpResponse> request = new CompletableFuture<>();
+                requests.add(request);
+                return request;
+            });
+            Thread.sleep(10);
+            scheduledHedges.remove().run();
+            requests.getLast().complete(response(1));
+
+            assertThat(result.join().getResponseTimeMs()).isEqualTo(1);
+            assertThat(requests.getFirst()).isCancelled();
+        }
+
+        // The hedges answered in 1 ms, but the primaries had been waiting for 10 ms when they were cancelled
+        Instant before = Instant.now();
+        executor.execute(templateId, HedgePolicy.builder().enabled(true).minDelayMs(0).build(), HttpMethod.GET,
+                CompletableFuture::new);
+
+        assertThat(Duration.between(before, hedgeTimes.getLast()).toMillis()).isGreaterThanOrEqualTo(10);
+    }
+
+    private static ApiHttpResponse response(long responseTimeMs) {
+        return new ApiHttpResponse(200, Map.of(), "text/plain", "ok", null, 2, null, responseTimeMs);
+    }
+}
@@ -0,0 +1,315 @@
+package viettel.dac.backend.execution.engine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import viettel.dac.backend.common.config.ExecutionQuotaProperties;
+import viettel.dac.backend.common.exception.QuotaExceededException;
+import viettel.dac.backend.execution.entity.BaseExecution;
+import viettel.dac.backend.execution.enums.ExecutionPriority;
+import viettel.dac.backend.execution.enums.ExecutionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FairExecutionSchedulerTest {
+
+    private final UUID blockingUser = UUID.randomUUID();
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+
+    private final List<String> started = new ArrayList<>();
+    private final ExecutionStateWriter executionStateWriter = mock(ExecutionStateWriter.class);
+    private boolean rejecting;
+    private ExecutionQuotaProperties properties;
+    private FairExecutionScheduler scheduler;
+    private CompletableFuture<BaseExecution> blocker;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ExecutionQuotaProperties();
+        properties.setStore("memory");
+        properties.setMaxRunning(1);
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        when(executionStateWriter.writeTerminal(any())).thenReturn(CompletableFuture.completedFuture(true));
+        scheduler = new FairExecutionScheduler(properties, new UserQuotaCounters(properties, redisTemplate),
+                task -> {
+                    if (rejecting) {
+                        throw new RejectedExecutionException("saturated");
+                    }
+                    task.run();
+                }, mock(TaskScheduler.class), executionStateWriter, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void startsHigherPriorityClassesFirst() {
+        occupyTheOnlySlot();
+        submit(alice, "bulk", ExecutionPriority.BULK);
+        submit(alice, "normal", ExecutionPriority.NORMAL);
+        submit(alice, "interactive", ExecutionPriority.INTERACTIVE);
+
+        blocker.complete(null);
+
+        assertThat(started).containsExactly("interactive", "normal", "bulk");
+    }
+
+    @Test
+    void agesWaitingExecutionsIntoHigherClasses() throws InterruptedException {
+        properties.setAgingMs(10);
+        occupyTheOnlySlot();
+        submit(alice, "bulk", ExecutionPriority.BULK);
+        Thread.sleep(50);
+        submit(alice, "interactive", ExecutionPriority.INTERACTIVE);
+
+        blocker.complete(null);
+
+        assertThat(started).containsExactly("bulk", "interactive");
+    }
+
+    @Test
+    void alternatesBetweenUsersOfEqualWeight() {
+        occupyTheOnlySlot();
+        submit(alice, "alice-1", ExecutionPriority.NORMAL);
+        submit(alice, "alice-2", ExecutionPriority.NORMAL);
+        submit(alice, "alice-3", ExecutionPriority.NORMAL);
+        submit(bob, "bob-1", ExecutionPriority.NORMAL);
+
+        blocker.complete(null);
+
+        // Bob's first execution does not wait behind everything Alice queued before it
+        assertThat(started).hasSize(4);
+        assertThat(started.subList(0, 2)).containsExactlyInAnyOrder("alice-1", "bob-1");
+        assertThat(started.subList(2, 4)).containsExactly("alice-2", "alice-3");
+    }
+
+    @Test
+    void sharesSlotsByWeight() {
+        ExecutionQuotaProperties.UserQuota quota = new ExecutionQuotaProperties.UserQuota();
+        quota.setWeight(2);
+        properties.getUsers().put(bob, quota);
+        occupyTheOnlySlot();
+        for (int i = 1; i <= 3; i++) {
+            submit(alice, "alice-" + i, ExecutionPriority.NORMAL);
+        }
+        for (int i = 1; i <= 4; i++) {
+            submit(bob, "bob-" + i, ExecutionPriority.NORMAL);
+        }
+
+        blocker.complete(null);
+
+        assertThat(started).hasSize(7);
+        assertThat(started.subList(0, 3)).filteredOn(name -> name.startsWith("bob")).hasSize(2);
+        assertThat(started.subList(0, 6)).filteredOn(name -> name.startsWith("bob")).hasSize(4);
+        assertThat(started.get(6)).isEqualTo("alice-3");
+    }
+
+    @Test
+    void keepsUsersWithinTheirConcurrencyLimit() {
+        properties.setMaxRunning(2);
+        properties.setDefaultMaxConcurrent(1);
+        CompletableFuture<BaseExecution> running = new CompletableFuture<>();
+        scheduler.submit(execution(alice), ExecutionPriority.NORMAL, () -> running);
+        submit(alice, "alice-2", ExecutionPriority.NORMAL);
+        submit(bob, "bob-1", ExecutionPriority.NORMAL);
+
+        assertThat(started).containsExactly("bob-1");
+        assertThat(scheduler.getQueuedCount()).isEqualTo(1);
+
+        running.complete(null);
+
+        assertThat(started).containsExactly("bob-1", "alice-2");
+    }
+
+    @Test
+    void givesBackTheRunningSlotOfCoordinatorsOnceStarted() {
+        CompletableFuture<BaseExecution> steps = new CompletableFuture<>();
+        CompletableFuture<BaseExecution> integration = scheduler.submitCoordinator(execution(alice),
+                ExecutionPriority.NORMAL, () -> {
+                    submit(alice, "step", ExecutionPriority.NORMAL);
+                    return steps;
+                });
+
+        // The only slot was the integration's; its step would otherwise wait for it forever
+        assertThat(started).containsExactly("step");
+        assertThat(scheduler.getRunningCount()).isZero();
+        assertThat(integration).isNotDone();
+
+        steps.complete(null);
+
+        assertThat(integration).isCompleted();
+        assertThat(scheduler.getRunningCount()).isZero();
+    }
+
+    @Test
+    void rejectsAdmissionsBeyondTheDailyLimit() {
+        properties.setDefaultDailyLimit(3);
+
+        scheduler.admit(alice, 2);
+
+        assertThatThrownBy(() -> scheduler.admit(alice, 2)).isInstanceOf(QuotaExceededException.class);
+        scheduler.admit(alice, 1);
+        scheduler.admit(bob, 3);
+    }
+
+    @Test
+    void rejectsAdmissionsWhileExecutionStatesAreBackedUp() {
+        properties.setDefaultDailyLimit(1);
+        when(executionStateWriter.isSaturated()).thenReturn(true);
+
+        assertThatThrownBy(() -> scheduler.admit(alice, 1)).isInstanceOf(QuotaExceededException.class);
+
+        when(executionStateWriter.isSaturated()).thenReturn(false);
+        scheduler.admit(alice, 1);
+    }
+
+    @Test
+    void givesBackTheDailyQuotaWhenTheAdmittingTransactionRollsBack() {
+        properties.setDefaultDailyLimit(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            scheduler.admit(alice, 1);
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization ->
+                    synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        scheduler.admit(alice, 1);
+        assertThatThrownBy(() -> scheduler.admit(alice, 1)).isInstanceOf(QuotaExceededException.class);
+    }
+
+    @Test
+    void givesBackTheDailyQuotaOfAdmissionsThatWereNotPersisted() {
+        properties.setDefaultDailyLimit(3);
+        scheduler.admit(alice, 3);
+
+        scheduler.releaseAdmission(alice, 3);
+
+        scheduler.admit(alice, 3);
+    }
+
+    @Test
+    void dropsCancelledExecutionsFromTheQueue() {
+        occupyTheOnlySlot();
+        BaseExecution execution = execution(alice);
+        UUID cancelled = execution.getId();
+        CompletableFuture<BaseExecution> result = scheduler.submit(execution, ExecutionPriority.NORMAL,
+                () -> start("cancelled"));
+        submit(alice, "kept", ExecutionPriority.NORMAL);
+
+        assertThat(scheduler.cancel(cancelled)).isTrue();
+        assertThat(scheduler.cancel(cancelled)).isFalse();
+        assertThat(result).isCancelled();
+        assertThat(scheduler.getQueuedCount()).isEqualTo(1);
+
+        blocker.complete(null);
+
+        assertThat(started).containsExactly("kept");
+        assertThat(scheduler.getQueuedCount()).isZero();
+        assertThat(scheduler.getRunningCount()).isZero();
+    }
+
+    @Test
+    void givesBackTheDailyQuotaOfCancelledExecutions() {
+        properties.setDefaultDailyLimit(1);
+        occupyTheOnlySlot();
+        BaseExecution execution = execution(alice);
+        UUID executionId = execution.getId();
+        scheduler.admit(alice, 1);
+        scheduler.submit(execution, ExecutionPriority.NORMAL, () -> start("cancelled"));
+
+        assertThatThrownBy(() -> scheduler.admit(alice, 1)).isInstanceOf(QuotaExceededException.class);
+
+        scheduler.cancel(executionId);
+
+        scheduler.admit(alice, 1);
+    }
+
+    @Test
+    void keepsExecutionsQueuedWhileTheExecutorRejectsThem() {
+        rejecting = true;
+        CompletableFuture<BaseExecution> result = scheduler.submit(execution(alice), ExecutionPriority.NORMAL,
+                () -> start("first"));
+
+        assertThat(result).isNotDone();
+        assertThat(scheduler.getQueuedCount()).isEqualTo(1);
+        assertThat(scheduler.getRunningCount()).isZero();
+
+        rejecting = false;
+        submit(alice, "second", ExecutionPriority.NORMAL);
+
+        assertThat(started).containsExactly("first", "second");
+        assertThat(result).isCompleted();
+        assertThat(scheduler.getQueuedCount()).isZero();
+        assertThat(scheduler.getRunningCount()).isZero();
+    }
+
+    @Test
+    void failsExecutionsThatCannotStartAndGivesBackTheirQuota() {
+        properties.setDefaultDailyLimit(1);
+        BaseExecution execution = execution(alice);
+        scheduler.admit(alice, 1);
+
+        CompletableFuture<BaseExecution> result = scheduler.submit(execution, ExecutionPriority.NORMAL, () -> {
+            throw new IllegalStateException("no strategy");
+        });
+
+        assertThat(result.join().getStatus()).isEqualTo(ExecutionStatus.FAILED);
+        assertThat(execution.getErrorMessage()).contains("no strategy");
+        verify(executionStateWriter).writeTerminal(execution);
+        assertThat(scheduler.getRunningCount()).isZero();
+        scheduler.admit(alice, 1);
+    }
+
+    @Test
+    void failsExecutionsThatCouldNotBeQueued() {
+        properties.setDefaultDailyLimit(1);
+        BaseExecution execution = execution(alice);
+        scheduler.admit(alice, 1);
+
+        BaseExecution failed = scheduler.failUnstarted(execution, new IllegalStateException("lost")).join();
+
+        assertThat(failed.getStatus()).isEqualTo(ExecutionStatus.FAILED);
+        verify(executionStateWriter).writeTerminal(execution);
+        scheduler.admit(alice, 1);
+    }
+
+    private void occupyTheOnlySlot() {
+        blocker = new CompletableFuture<>();
+        scheduler.submit(execution(blockingUser), ExecutionPriority.NORMAL, () -> blocker);
+        assertThat(scheduler.getRunningCount()).isEqualTo(1);
+    }
+
+    private void submit(UUID userId, String name, ExecutionPriority priority) {
+        scheduler.submit(execution(userId), priority, () -> start(name));
+    }
+
+    private static BaseExecution execution(UUID userId) {
+        BaseExecution execution = new BaseExecution();
+        execution.setId(UUID.randomUUID());
+        execution.setUserId(userId);
+        execution.setStatus(ExecutionStatus.PENDING);
+        return execution;
+    }
+
+    private CompletableFuture<BaseExecution> start(String name) {
+        started.add(name);
+        return CompletableFuture.completedFuture(null);
+    }
+}
@@ -0,0 +1,97 @@
+package viettel.dac.backend.execution.engine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.TaskScheduler;
+import viettel.dac.backend.common.config.ApiClientProperties;
+import viettel.dac.backend.execution.http.ResponseBodyStore;
+import viettel.dac.backend.execution.repository.ApiExecutionRepository;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ResponseBodySweeperTest {
+
+    @TempDir
+    Path storeDirectory;
+
+    private final ApiExecutionRepository apiExecutionRepository = mock(ApiExecutionRepository.class);
+    private ResponseBodyStore store;
+    private ResponseBodySweeper sweeper;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ApiClientProperties properties = new ApiClientProperties();
+        properties.getResponse().setStoreDirectory(storeDirectory.toString());
+        properties.getResponse().setSweepMinAge(Duration.ofHours(1).toMillis());
+        store = new ResponseBodyStore(properties);
+        store.init();
+        sweeper = new ResponseBodySweeper(properties, store, apiExecutionRepository, mock(TaskScheduler.class),
+                new SimpleMeterRegistry());
+    }
+
+    @Test
+    void deletesOldBodiesNoExecutionRefersTo() throws Exception {
+        String referenced = store("referenced", Duration.ofDays(2));
+        String unreferenced = store("unreferenced", Duration.ofDays(2));
+        String recent = store("recent", Duration.ZERO);
+        when(apiExecutionRepository.findReferencedResponseBodies(any())).thenReturn(Set.of(referenced));
+
+        sweeper.sweep();
+
+        assertThat(store.contains(referenced)).isTrue();
+        assertThat(store.contains(unreferenced)).isFalse();
+        assertThat(store.contains(recent)).isTrue();
+    }
+
+    @Test
+    void keepsBodiesStoredAgainSinceTheSweepStarted() throws Exception {
+        String ref = store("body", Duration.ofDays(2));
+        Instant cutoff = Instant.now().minus(Duration.ofHours(1));
+
+        // Another execution received the same body
+        assertThat(store("body", Duration.ZERO)).isEqualTo(ref);
+
+        assertThat(store.delete(ref, cutoff)).isFalse();
+        assertThat(store.contains(ref)).isTrue();
+    }
+
+    @Test
+    void discardsAbandonedTemporaryFiles() throws Exception {
+        Path abandoned = store.createTempFile();
+        Files.setLastModifiedTime(abandoned, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+        Path receiving = store.createTempFile();
+
+        sweeper.sweep();
+
+        assertThat(abandoned).doesNotExist();
+        assertThat(receiving).exists();
+    }
+
+    private String store(String body, Duration age) throws IOException, NoSuchAlgorithmException {
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        Path tempFile = store.createTempFile();
+        Files.write(tempFile, content);
+        String ref = store.commit(tempFile, MessageDigest.getInstance("SHA-256").digest(content));
+        if (!age.isZero()) {
+            Path stored = store.open(ref).getFile().toPath();
+            Files.setLastModifiedTime(stored, FileTime.from(Instant.now().minus(age)));
+        }
+        return ref;
+    }
+}
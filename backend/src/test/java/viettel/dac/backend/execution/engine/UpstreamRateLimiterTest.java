@@ -0,0 +1,127 @@
+package viettel.dac.backend.execution.engine;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import viettel.dac.backend.common.config.ApiClientProperties;
+import viettel.dac.backend.execution.exception.RateLimitExceededException;
+import viettel.dac.backend.execution.http.ApiHttpResponse;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class UpstreamRateLimiterTest {
+
+    private static final String ENDPOINT = "https://upstream.example.com/items";
+
+    private final AtomicLong nanoTime = new AtomicLong();
+
+    @Test
+    void tokenBucketAllowsABurstWithoutWaiting() {
+        UpstreamRateLimiter.TokenBucket bucket = new UpstreamRateLimiter.TokenBucket(nanoTime::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.reserve(10, 5, 1000)).isZero();
+        }
+    }
+
+    @Test
+    void tokenBucketQueuesCallersBehindEarlierReservations() {
+        UpstreamRateLimiter.TokenBucket bucket = new UpstreamRateLimiter.TokenBucket(nanoTime::get);
+        bucket.reserve(10, 1, 10000);
+
+        // One token every 100 ms; each caller waits behind the ones before it
+        assertThat(bucket.reserve(10, 1, 10000)).isEqualTo(100);
+        assertThat(bucket.reserve(10, 1, 10000)).isEqualTo(200);
+        advanceMillis(50);
+        assertThat(bucket.reserve(10, 1, 10000)).isEqualTo(250);
+    }
+
+    @Test
+    void tokenBucketRejectsWithoutReservingWhenTheWaitIsTooLong() {
+        UpstreamRateLimiter.TokenBucket bucket = new UpstreamRateLimiter.TokenBucket(nanoTime::get);
+        bucket.reserve(10, 1, 1000);
+        bucket.reserve(10, 1, 1000);
+
+        assertThat(bucket.reserve(10, 1, 150)).isEqualTo(-1);
+        // The rejected call took no token, so the next one waits as long as it would have
+        assertThat(bucket.reserve(10, 1, 1000)).isEqualTo(200);
+    }
+
+    @Test
+    void tokenBucketRefillsUpToTheBurst() {
+        UpstreamRateLimiter.TokenBucket bucket = new UpstreamRateLimiter.TokenBucket(nanoTime::get);
+        bucket.reserve(100, 2, 1000);
+        bucket.reserve(100, 2, 1000);
+
+        advanceMillis(100);
+
+        // Ten tokens were added in 100 ms, but only two fit
+        assertThat(bucket.reserve(100, 2, 1000)).isZero();
+        assertThat(bucket.reserve(100, 2, 1000)).isZero();
+        assertThat(bucket.reserve(100, 2, 1000)).isEqualTo(10);
+    }
+
+    @Test
+    void tokenBucketTakesBackRefundedTokens() {
+        UpstreamRateLimiter.TokenBucket bucket = new UpstreamRateLimiter.TokenBucket(nanoTime::get);
+        bucket.reserve(10, 1, 1000);
+        bucket.reserve(10, 1, 1000);
+
+        bucket.refund(1);
+
+        assertThat(bucket.reserve(10, 1, 1000)).isEqualTo(100);
+        bucket.refund(1);
+        bucket.refund(1);
+        assertThat(bucket.reserve(10, 1, 1000)).isZero();
+    }
+
+    @Test
+    void givesBackTheHostTokenWhenTheTemplateLimitRejects() {
+        // Limits slow enough that no token is refilled while the test runs
+        ApiClientProperties properties = new ApiClientProperties();
+        ApiClientProperties.RateLimit hostLimit = new ApiClientProperties.RateLimit();
+        hostLimit.setPermitsPerSecond(0.001);
+        hostLimit.setBurst(2);
+        ApiClientProperties.HostSettings hostSettings = new ApiClientProperties.HostSettings();
+        hostSettings.setRateLimit(hostLimit);
+        properties.getHosts().put("upstream.example.com", hostSettings);
+
+        UUID limitedTemplate = UUID.randomUUID();
+        ApiClientProperties.RateLimit templateLimit = new ApiClientProperties.RateLimit();
+        templateLimit.setPermitsPerSecond(0.001);
+        templateLimit.setBurst(1);
+        properties.getRateLimiting().getTemplates().put(limitedTemplate, templateLimit);
+
+        @SuppressWarnings("unchecked")
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        UpstreamRateLimiter rateLimiter = new UpstreamRateLimiter(properties, mock(TaskScheduler.class),
+                redisTemplate, new SimpleMeterRegistry());
+
+        assertThat(send(rateLimiter, limitedTemplate)).isCompleted();
+        assertThatThrownBy(() -> send(rateLimiter, limitedTemplate).join())
+                .hasCauseInstanceOf(RateLimitExceededException.class);
+
+        // The rejected call gave its host token back, so another template can still use it
+        assertThat(send(rateLimiter, UUID.randomUUID())).isCompleted();
+        assertThatThrownBy(() -> send(rateLimiter, UUID.randomUUID()).join())
+                .hasCauseInstanceOf(RateLimitExceededException.class);
+    }
+
+    private void advanceMillis(long millis) {
+        nanoTime.addAndGet(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    private static CompletableFuture<ApiHttpResponse> send(UpstreamRateLimiter rateLimiter, UUID templateId) {
+        return rateLimiter.execute(templateId, ENDPOINT, 1000, () -> CompletableFuture.completedFuture(
+                new ApiHttpResponse(200, Map.of(), "text/plain", "ok", null, 2, null, 1)));
+    }
+}
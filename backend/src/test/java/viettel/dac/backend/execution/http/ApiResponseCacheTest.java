@@ -0,0 +1,239 @@
+package viettel.dac.backend.execution.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import viettel.dac.backend.common.config.ApiClientProperties;
+import viettel.dac.backend.template.entity.ApiTemplate;
+import viettel.dac.backend.template.entity.CachePolicy;
+import viettel.dac.backend.template.enums.HttpMethod;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ApiResponseCacheTest {
+
+    @SuppressWarnings("unchecked")
+    private final RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+    private ApiResponseCache cache;
+    private ApiTemplate template;
+    private Upstream upstream;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ApiResponseCache(new ApiClientProperties(), redisTemplate, new ObjectMapper(), new SimpleMeterRegistry());
+        template = ApiTemplate.builder()
+                .endpoint("https://api.example.com/items")
+                .httpMethod(HttpMethod.GET)
+                .build();
+        template.setId(UUID.randomUUID());
+        template.setVersion("1.0.0");
+        template.setLastModifiedAt(Instant.parse("2025-01-01T00:00:00Z"));
+        upstream = new Upstream();
+    }
+
+    @Test
+    void servesFreshResponsesWithoutCallingTheUpstream() {
+        upstream.respond(response(200, "first", Map.of("Cache-Control", "max-age=60")));
+
+        ApiHttpResponse miss = cache.execute(template, request(Map.of()), upstream).join();
+        ApiHttpResponse hit = cache.execute(template, request(Map.of()), upstream).join();
+
+        assertThat(miss.getCacheStatus()).isEqualTo(ResponseCacheStatus.MISS);
+        assertThat(hit.getCacheStatus()).isEqualTo(ResponseCacheStatus.HIT);
+        assertThat(hit.getBody()).isEqualTo("first");
+        assertThat(hit.getHeaders()).containsKey("Age");
+        assertThat(upstream.requests).hasSize(1);
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void doesNotStoreResponsesWithoutFreshnessOrValidator() {
+        upstream.respond(response(200, "first", Map.of()));
+        upstream.respond(response(200, "second", Map.of()));
+
+        cache.execute(template, request(Map.of()), upstream).join();
+        ApiHttpResponse second = cache.execute(template, request(Map.of()), upstream).join();
+
+        assertThat(second.getCacheStatus()).isEqualTo(ResponseCacheStatus.MISS);
+        assertThat(second.getBody()).isEqualTo("second");
+        assertThat(upstream.requests).hasSize(2);
+    }
+
+    @Test
+    void doesNotStorePrivateOrNoStoreResponses() {
+        upstream.respond(response(200, "private", Map.of("Cache-Control", "private, max-age=60")));
+        upstream.respond(response(200, "no-store", Map.of("Cache-Control", "no-store")));
+        upstream.respond(response(200, "third", Map.of()));
+
+        cache.execute(template, request(Map.of()), upstream).join();
+        cache.execute(template, request(Map.of()), upstream).join();
+        ApiHttpResponse third = cache.execute(template, request(Map.of()), upstream).join();
+
+        assertThat(third.getBody()).isEqualTo("third");
+        assertThat(upstream.requests).hasSize(3);
+    }
+
+    @Test
+    void expiresEntriesAfterTheTemplateTtl() {
+        template.setCachePolicy(CachePolicy.builder().ttlSeconds(0L).build());
+        upstream.respond(response(200, "first", Map.of("Cache-Control", "max-age=60")));
+        upstream.respond(response(200, "second", Map.of("Cache-Control", "max-age=60")));
+
+        cache.execute(template, request(Map.of()), upstream).join();
+        ApiHttpResponse second = cache.execute(template, request(Map.of()), upstream).join();
+
+        assertThat(second.getBody()).isEqualTo("second");
+        assertThat(upstream.requests).hasSize(2);
+    }
+
+    @Test
+    void revalidatesStaleEntriesWithTheirValidators() {
+        upstream.respond(response(200, "body", Map.of("Cache-Control", "max-age=0", "ETag", "\"v1\"",
+                "Last-Modified", "Wed, 01 Jan 2025 00:00:00 GMT")));
+        upstream.respond(response(304, null, Map.of("Cache-Control", "max-age=60", "X-Served-By", "origin")));
+
+        cache.execute(template, request(Map.of()), upstream).join();
+        ApiHttpResponse revalidated = cache.execute(template, request(Map.of()), upstream).join();
+        ApiHttpResponse hit = cache.execute(template, request(Map.of()), upstream).join();
+
+        Map<String, String> conditionalHeaders = upstream.requests.get(1).getHeaders();
+        assertThat(conditionalHeaders).containsEntry("If-None-Match", "\"v1\"")
+                .containsEntry("If-Modified-Since", "Wed, 01 Jan 2025 00:00:00 GMT");
+        assertThat(revalidated.getCacheStatus()).isEqualTo(ResponseCacheStatus.REVALIDATED);
+        assertThat(revalidated.getStatusCode()).isEqualTo(200);
+        assertThat(revalidated.getBody()).isEqualTo("body");
+        assertThat(revalidated.getHeaders()).containsEntry("X-Served-By", "origin");
+        // The 304 made the entry fresh again
+        assertThat(hit.getCacheStatus()).isEqualTo(ResponseCacheStatus.HIT);
+        assertThat(upstream.requests).hasSize(2);
+    }
+
+    @Test
+    void replacesStaleEntriesThatChanged() {
+        upstream.respond(response(200, "old", Map.of("Cache-Control", "max-age=0", "ETag", "\"v1\"")));
+        upstream.respond(response(200, "new", Map.of("Cache-Control", "max-age=60", "ETag", "\"v2\"")));
+
+        cache.execute(template, request(Map.of()), upstream).join();
+        ApiHttpResponse changed = cache.execute(template, request(Map.of()), upstream).join();
+        ApiHttpResponse hit = cache.execute(template, request(Map.of()), upstream).join();
+
+        assertThat(changed.getCacheStatus()).isEqualTo(ResponseCacheStatus.MISS);
+        assertThat(changed.getBody()).isEqualTo("new");
+        assertThat(hit.getBody()).isEqualTo("new");
+    }
+
+    @Test
+    void honoursRequestNoCache() {
+        upstream.respond(response(200, "first", Map.of("Cache-Control", "max-age=60")));
+        upstream.respond(response(200, "second", Map.of("Cache-Control", "max-age=60")));
+
+        cache.execute(template, request(Map.of()), upstream).join();
+        ApiHttpResponse second = cache.execute(template, request(Map.of("Cache-Control", "no-cache")), upstream).join();
+
+        assertThat(second.getBody()).isEqualTo("second");
+        assertThat(upstream.requests).hasSize(2);
+    }
+
+    @Test
+    void doesNotStoreResponsesThatVaryOnEverything() {
+        upstream.respond(response(200, "first", Map.of("Cache-Control", "max-age=60", "Vary", "*")));
+        upstream.respond(response(200, "second", Map.of("Cache-Control", "max-age=60")));
+
+        cache.execute(template, request(Map.of()), upstream).join();
+        ApiHttpResponse second = cache.execute(template, request(Map.of()), upstream).join();
+
+        assertThat(second.getBody()).isEqualTo("second");
+    }
+
+    @Test
+    void matchesVaryHeadersCaseInsensitively() {
+        upstream.respond(response(200, "json", Map.of("Cache-Control", "max-age=60", "Vary", "Accept")));
+
+        cache.execute(template, request(Map.of("Accept", "application/json")), upstream).join();
+        ApiHttpResponse hit = cache.execute(template, request(Map.of("accept", "application/json")), upstream).join();
+
+        assertThat(hit.getCacheStatus()).isEqualTo(ResponseCacheStatus.HIT);
+        assertThat(hit.getBody()).isEqualTo("json");
+    }
+
+    @Test
+    void doesNotShareResponsesBetweenCallersWithDifferentHeaders() {
+        upstream.respond(response(200, "alice", Map.of("Cache-Control", "public, max-age=60")));
+        upstream.respond(response(200, "bob", Map.of("Cache-Control", "public, max-age=60")));
+
+        cache.execute(template, request(Map.of("X-Api-Key", "alice-key")), upstream).join();
+        ApiHttpResponse bob = cache.execute(template, request(Map.of("X-Api-Key", "bob-key")), upstream).join();
+
+        assertThat(bob.getBody()).isEqualTo("bob");
+        assertThat(upstream.requests).hasSize(2);
+    }
+
+    @Test
+    void doesNotServeEntriesOfAnEarlierRevisionOfTheTemplate() {
+        upstream.respond(response(200, "before", Map.of("Cache-Control", "max-age=60")));
+        upstream.respond(response(200, "after", Map.of("Cache-Control", "max-age=60")));
+
+        cache.execute(template, request(Map.of()), upstream).join();
+        template.setLastModifiedAt(template.getLastModifiedAt().plusSeconds(1));
+        ApiHttpResponse edited = cache.execute(template, request(Map.of()), upstream).join();
+
+        assertThat(edited.getBody()).isEqualTo("after");
+    }
+
+    @Test
+    void passesNonGetRequestsThrough() {
+        upstream.respond(response(200, "created", Map.of("Cache-Control", "max-age=60")));
+        ApiRequestContext post = request(Map.of());
+        post.setHttpMethod(HttpMethod.POST);
+
+        ApiHttpResponse response = cache.execute(template, post, upstream).join();
+
+        assertThat(response.getCacheStatus()).isNull();
+    }
+
+    private ApiRequestContext request(Map<String, String> headers) {
+        ApiRequestContext context = new ApiRequestContext();
+        context.setEndpoint(template.getEndpoint());
+        context.setHttpMethod(HttpMethod.GET);
+        context.setHeaders(new HashMap<>(headers));
+        return context;
+    }
+
+    private static ApiHttpResponse response(int statusCode, String body, Map<String, String> headers) {
+        return new ApiHttpResponse(statusCode, new HashMap<>(headers), "text/plain", body, null,
+                body != null ? body.length() : 0, null, 5);
+    }
+
+    /**
+     * Answers requests with the queued responses, in order, and records the requests.
+     */
+    private static final class Upstream implements Function<ApiRequestContext, CompletableFuture<ApiHttpResponse>> {
+        private final Deque<ApiHttpResponse> responses = new ArrayDeque<>();
+        private final List<ApiRequestContext> requests = new ArrayList<>();
+
+        void respond(ApiHttpResponse response) {
+            responses.add(response);
+        }
+
+        @Override
+        public CompletableFuture<ApiHttpResponse> apply(ApiRequestContext context) {
+            requests.add(context);
+            return CompletableFuture.completedFuture(responses.remove());
+        }
+    }
+}
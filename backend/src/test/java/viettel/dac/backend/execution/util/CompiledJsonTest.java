@@ -0,0 +1,105 @@
+package viettel.dac.backend.execution.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledJsonTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static Map<String, Object> parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("name", "world");
+        parameters.put("id", 42);
+        parameters.put("key", "renamed");
+        parameters.put("nothing", null);
+        parameters.put("quote", "say \"hi\"\n");
+        return parameters;
+    }
+
+    private static Map<String, Object> document() {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("greeting", "hello ${name}");
+        nested.put("${key}", "value");
+        nested.put("constant", "no placeholders");
+        nested.put("empty", "${}");
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        document.put("id", "${id}");
+        document.put("missing", "${missing}");
+        document.put("null", "${nothing}");
+        document.put("quote", "${quote}");
+        document.put("nested", nested);
+        document.put("items", new ArrayList<>(Arrays.asList("${name}", 1, true, null, new ArrayList<>(List.of("${id}")))));
+        document.put("number", 3.5);
+        document.put("flag", false);
+        document.put("none", null);
+        return document;
+    }
+
+    @Test
+    void rendersTheSubstitutedDocument() {
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("greeting", "hello world");
+        nested.put("renamed", "value");
+        nested.put("constant", "no placeholders");
+        nested.put("empty", "${}");
+
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("id", "42");
+        expected.put("missing", "${missing}");
+        expected.put("null", "${nothing}");
+        expected.put("quote", "say \"hi\"\n");
+        expected.put("nested", nested);
+        expected.put("items", Arrays.asList("world", 1, true, null, List.of("42")));
+        expected.put("number", 3.5);
+        expected.put("flag", false);
+        expected.put("none", null);
+
+        assertThat(CompiledJson.compile(document()).render(parameters())).isEqualTo(expected);
+    }
+
+    @Test
+    void writesTheRenderedValue() throws Exception {
+        CompiledJson compiled = CompiledJson.compile(document());
+
+        StringWriter writer = new StringWriter();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+            compiled.write(generator, parameters());
+        }
+
+        assertThat(objectMapper.readTree(writer.toString()))
+                .isEqualTo(objectMapper.valueToTree(compiled.render(parameters())));
+    }
+
+    @Test
+    void sharesConstantSubtrees() {
+        Map<String, Object> constant = new LinkedHashMap<>();
+        constant.put("a", List.of(1, "two"));
+        CompiledJson compiled = CompiledJson.compile(constant);
+
+        assertThat(compiled.isConstant()).isTrue();
+        assertThat(compiled.render(parameters())).isSameAs(compiled.render(Map.of()));
+        assertThat(compiled.render(parameters())).isEqualTo(constant);
+    }
+
+    @Test
+    void collectsParameterNames() {
+        TreeSet<String> names = new TreeSet<>();
+        CompiledJson.compile(document()).collectParameterNames(names);
+
+        assertThat(names).containsExactly("id", "key", "missing", "name", "nothing", "quote");
+    }
+}
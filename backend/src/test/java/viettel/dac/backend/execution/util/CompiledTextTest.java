@@ -0,0 +1,100 @@
+package viettel.dac.backend.execution.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledTextTest {
+
+    private static final Pattern PARAMETER_PATTERN = Pattern.compile("\\$\\{([^}]+)}");
+
+    private static Map<String, Object> parameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("name", "world");
+        parameters.put("id", 42);
+        parameters.put("empty", "");
+        parameters.put("nothing", null);
+        parameters.put("dollar", "$1 \\ ${name}");
+        parameters.put("a${b", "nested");
+        return parameters;
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "plain text",
+            "hello ${name}",
+            "${name}${id}",
+            "${id}/items/${id}",
+            "${empty}|${name}",
+            "${}",
+            "${} and ${name}",
+            "$${name}}",
+            "${missing}",
+            "${nothing}",
+            "${a${b}}",
+            "${name",
+            "${name} ${",
+            "${dollar}",
+            "}${name}{"
+    })
+    void rendersLikeTheRegexSubstitution(String template) {
+        assertThat(CompiledText.compile(template).render(parameters()))
+                .isEqualTo(regexSubstitute(template, parameters()));
+    }
+
+    /**
+     * The regex substitution templates were rendered with before they were compiled.
+     */
+    private static String regexSubstitute(String template, Map<String, Object> parameters) {
+        Matcher matcher = PARAMETER_PATTERN.matcher(template);
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            Object value = parameters.get(matcher.group(1));
+            matcher.appendReplacement(result, value == null
+                    ? Matcher.quoteReplacement(matcher.group()) : Matcher.quoteReplacement(value.toString()));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    @Test
+    void leavesMissingAndNullParametersUnchanged() {
+        CompiledText text = CompiledText.compile("${missing}-${nothing}-${name}");
+
+        assertThat(text.render(parameters())).isEqualTo("${missing}-${nothing}-world");
+    }
+
+    @Test
+    void doesNotTreatEmptyBracesAsAPlaceholder() {
+        CompiledText text = CompiledText.compile("${}");
+
+        assertThat(text.isConstant()).isTrue();
+        assertThat(text.render(parameters())).isEqualTo("${}");
+    }
+
+    @Test
+    void returnsTheSourceWithoutParameters() {
+        CompiledText text = CompiledText.compile("hello ${name}");
+
+        assertThat(text.render(null)).isEqualTo("hello ${name}");
+        assertThat(text.render(Map.of())).isEqualTo("hello ${name}");
+    }
+
+    @Test
+    void collectsParameterNames() {
+        List<String> names = new ArrayList<>();
+        CompiledText.compile("${a}/${b}/${a}/${}").collectParameterNames(names);
+
+        assertThat(names).containsExactly("a", "b", "a");
+    }
+}